@@ -2,6 +2,9 @@ package com.example.authservice.dao.repository;
 
 import com.example.authservice.dao.entity.Address;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +14,8 @@ public interface AddressRepository extends JpaRepository<Address, Long> {
     List<Address> findByUserId(Integer userId);
 
     void deleteByIdAndUserId(Long id, Integer userId);
+
+    @Modifying
+    @Query("update Address a set a.isDefault = false where a.userId = :userId and a.isDefault = true")
+    int clearDefaultByUserId(@Param("userId") Integer userId);
 }
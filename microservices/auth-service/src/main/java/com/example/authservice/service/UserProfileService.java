@@ -65,13 +65,9 @@ public class UserProfileService {
     public AddressDTO addAddress(Integer userId, AddressDTO addressDTO) {
         log.info("Adding address for user ID: {}", userId);
 
-        // If this is set as default, unset other defaults
+        // If this is set as default, unset other defaults in one statement
         if (Boolean.TRUE.equals(addressDTO.getIsDefault())) {
-            List<Address> existingAddresses = addressRepository.findByUserId(userId);
-            existingAddresses.forEach(addr -> {
-                addr.setIsDefault(false);
-                addressRepository.save(addr);
-            });
+            addressRepository.clearDefaultByUserId(userId);
         }
 
         Address address = new Address();
@@ -1,6 +1,8 @@
 package com.example.file_service.controller;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -57,4 +59,34 @@ public class FileController {
             return ResponseEntity.status(500).body(Map.of("success", false, "message", e.getMessage()));
         }
     }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<Map<String, Object>> deleteFiles(@RequestBody Map<String, List<String>> request) {
+        try {
+            List<String> filePaths = request.get("paths");
+            if (filePaths == null || filePaths.isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("success", false, "message", "File paths are required"));
+            }
+
+            Map<String, Boolean> results = new LinkedHashMap<>();
+            int deleted = 0;
+            for (String filePath : filePaths) {
+                boolean removed = filePath != null && !filePath.isEmpty() && fileStorageService.deleteFile(filePath);
+                results.put(filePath, removed);
+                if (removed) {
+                    deleted++;
+                }
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("deleted", deleted);
+            response.put("results", results);
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
 }
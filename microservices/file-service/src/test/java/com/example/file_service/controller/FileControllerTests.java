@@ -0,0 +1,74 @@
+package com.example.file_service.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.example.file_service.service.FileStorageService;
+
+class FileControllerTests {
+
+    @TempDir
+    Path uploadDir;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        FileStorageService fileStorageService = new FileStorageService();
+        ReflectionTestUtils.setField(fileStorageService, "uploadDir", uploadDir.toString());
+        FileController controller = new FileController();
+        ReflectionTestUtils.setField(controller, "fileStorageService", fileStorageService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void batchDeleteRemovesEachFileAndReportsMissingOnes() throws Exception {
+        Path first = Files.writeString(uploadDir.resolve("1_a.png"), "a");
+        Path second = Files.writeString(uploadDir.resolve("2_b.png"), "b");
+        String missing = uploadDir + "/3_c.png";
+
+        mockMvc.perform(delete("/files/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"paths\": [\"" + uploadDir + "/1_a.png\", \"" + uploadDir + "/2_b.png\", \""
+                                + missing + "\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.deleted").value(2))
+                .andExpect(jsonPath("$.results['" + missing + "']").value(false));
+
+        assertThat(first).doesNotExist();
+        assertThat(second).doesNotExist();
+    }
+
+    @Test
+    void batchDeleteIsIdempotentForRetriedBatches() throws Exception {
+        Files.writeString(uploadDir.resolve("1_a.png"), "a");
+        String body = "{\"paths\": [\"" + uploadDir + "/1_a.png\"]}";
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(delete("/files/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.success").value(true));
+        }
+    }
+
+    @Test
+    void batchDeleteWithoutPathsIsRejected() throws Exception {
+        mockMvc.perform(delete("/files/batch").contentType(MediaType.APPLICATION_JSON).content("{\"paths\": []}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.order_service.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.order_service.dto.ProductChangedEvent;
+import com.example.order_service.dto.ProductDTO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local copies of recently used products. Entries younger than the fresh
+ * window are served as is; older ones up to the stale window are served while
+ * a background reload replaces them, and anything older is loaded before
+ * returning. Product change messages patch entries in place, so most updates
+ * reach this pod without a reload. Entries are kept after they expire so the
+ * circuit breaker fallback can return the last known product.
+ *
+ * <p>Loaders are expected to {@link #put} what they fetch; values they return
+ * are not cached, so fallback placeholders never end up here.
+ */
+@Component
+@Slf4j
+public class ProductNearCache {
+
+    private record Entry(ProductDTO product, long version, long loadedAt) {
+    }
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+    private final int maxEntries;
+    private final long freshMillis;
+    private final long staleMillis;
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter misses;
+
+    public ProductNearCache(MeterRegistry meterRegistry,
+            @Value("${product.near-cache.max-entries}") int maxEntries,
+            @Value("${product.near-cache.fresh-seconds}") long freshSeconds,
+            @Value("${product.near-cache.stale-seconds}") long staleSeconds) {
+        this.maxEntries = maxEntries;
+        this.freshMillis = freshSeconds * 1000;
+        this.staleMillis = staleSeconds * 1000;
+        this.hits = meterRegistry.counter("product.near.cache", "result", "hit");
+        this.staleHits = meterRegistry.counter("product.near.cache", "result", "stale");
+        this.misses = meterRegistry.counter("product.near.cache", "result", "miss");
+        meterRegistry.gauge("product.near.cache.size", entries, ConcurrentHashMap::size);
+    }
+
+    public ProductDTO get(Long productId, Function<Long, ProductDTO> loader) {
+        Entry entry = entries.get(productId);
+        long age = entry == null ? Long.MAX_VALUE : System.currentTimeMillis() - entry.loadedAt();
+        if (age < freshMillis) {
+            hits.increment();
+            return entry.product();
+        }
+        if (age < staleMillis) {
+            staleHits.increment();
+            refreshInBackground(List.of(productId), ids -> loader.apply(ids.get(0)));
+            return entry.product();
+        }
+        misses.increment();
+        return loader.apply(productId);
+    }
+
+    /** Products for all ids that could be found; ids the loader cannot resolve are absent from the map. */
+    public Map<Long, ProductDTO> getAll(Collection<Long> productIds,
+            Function<List<Long>, Map<Long, ProductDTO>> loader) {
+        Map<Long, ProductDTO> found = new HashMap<>();
+        List<Long> stale = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Long productId : productIds) {
+            Entry entry = entries.get(productId);
+            long age = entry == null ? Long.MAX_VALUE : now - entry.loadedAt();
+            if (age < staleMillis) {
+                found.put(productId, entry.product());
+                if (age >= freshMillis) {
+                    stale.add(productId);
+                }
+            } else {
+                missing.add(productId);
+            }
+        }
+        hits.increment(found.size() - stale.size());
+        staleHits.increment(stale.size());
+        misses.increment(missing.size());
+
+        if (!stale.isEmpty()) {
+            refreshInBackground(stale, loader);
+        }
+        if (!missing.isEmpty()) {
+            found.putAll(loader.apply(missing));
+        }
+        return found;
+    }
+
+    // A load older than what is cached (a slow reload racing a change event) is dropped
+    public void put(ProductDTO product) {
+        if (product.getId() == null) {
+            return;
+        }
+        if (!entries.containsKey(product.getId()) && entries.size() >= maxEntries) {
+            evictSome();
+        }
+        entries.compute(product.getId(), (id, current) -> {
+            if (product.getChangeVersion() == null) {
+                // Loaded from a product-service that does not report versions yet
+                return new Entry(product, current == null ? 0 : current.version(), System.currentTimeMillis());
+            }
+            if (current != null && product.getChangeVersion() < current.version()) {
+                return current;
+            }
+            return new Entry(product, product.getChangeVersion(), System.currentTimeMillis());
+        });
+    }
+
+    /** Last product loaded for this id, however old. */
+    public Optional<ProductDTO> lastKnown(Long productId) {
+        Entry entry = entries.get(productId);
+        return entry == null ? Optional.empty() : Optional.of(entry.product());
+    }
+
+    // Patches cached products only; products this pod has not used are not worth holding
+    public void apply(ProductChangedEvent event) {
+        entries.computeIfPresent(event.getProductId(), (id, current) -> {
+            long version = event.getVersion() == null ? 0 : event.getVersion();
+            if (version <= current.version()) {
+                return current;
+            }
+            ProductDTO product = copy(current.product());
+            product.setName(event.getName());
+            product.setCategory(event.getCategory());
+            product.setPrice(event.getPrice());
+            product.setStockQuantity(event.getStockQuantity());
+            product.setActive(event.getActive());
+            product.setMainImage(event.getMainImage());
+            product.setAverageRating(event.getAverageRating());
+            product.setReviewCount(event.getReviewCount());
+            product.setChangeVersion(version);
+            return new Entry(product, version, System.currentTimeMillis());
+        });
+    }
+
+    // One reload per product at a time; the loader stores what it fetches
+    private void refreshInBackground(List<Long> productIds, Function<List<Long>, ?> loader) {
+        List<Long> claimed = productIds.stream().filter(refreshing::add).toList();
+        if (claimed.isEmpty()) {
+            return;
+        }
+        Thread.ofVirtual().name("product-near-cache-refresh").start(() -> {
+            try {
+                loader.apply(claimed);
+            } catch (Exception e) {
+                log.debug("Background reload of products {} failed: {}", claimed, e.getMessage());
+            } finally {
+                claimed.forEach(refreshing::remove);
+            }
+        });
+    }
+
+    private static ProductDTO copy(ProductDTO product) {
+        return new ProductDTO(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                product.getCategory(), product.getMainImage(), product.getSecondaryImages(),
+                product.getStockQuantity(), product.getActive(), product.getRating(), product.getAverageRating(),
+                product.getReviewCount(), product.getChangeVersion());
+    }
+
+    // Approximate bound: drops an arbitrary tenth of the entries instead of tracking recency on every hit
+    private void evictSome() {
+        int toRemove = Math.max(1, maxEntries / 10);
+        Iterator<Long> keys = entries.keySet().iterator();
+        while (toRemove-- > 0 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+        log.debug("Product near-cache full, evicted down to {} entries", entries.size());
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.order_service.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends a second copy of a GET when the first has not answered within the
+ * recent p95 latency, and returns whichever response arrives first. Hedges
+ * are limited by a budget that refills by a fixed share of all GETs, so a
+ * slow downstream sees at most that much extra load. Other methods pass
+ * straight through.
+ */
+@Slf4j
+public class HedgingRequestFactory implements ClientHttpRequestFactory {
+
+    private static final int LATENCY_WINDOW = 512;
+    private static final int RECOMPUTE_EVERY = 64;
+    private static final double MAX_BUDGET = 10;
+
+    private final ClientHttpRequestFactory delegate;
+    private final long minDelayNanos;
+    private final long deadlineNanos;
+    private final double budgetPerRequest;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter hedges;
+    private final Counter hedgeWins;
+
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private int samples;
+    private volatile long hedgeDelayNanos = -1; // -1 until the window has enough samples
+    private double budget = MAX_BUDGET;
+
+    public HedgingRequestFactory(ClientHttpRequestFactory delegate, String client, Duration minDelay,
+            Duration deadline, int budgetPercent, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.minDelayNanos = minDelay.toNanos();
+        this.deadlineNanos = deadline.toNanos();
+        this.budgetPerRequest = budgetPercent / 100.0;
+        Tags tags = Tags.of("client", client);
+        this.hedges = meterRegistry.counter("http.client.hedges", tags);
+        this.hedgeWins = meterRegistry.counter("http.client.hedge.wins", tags);
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        if (!HttpMethod.GET.equals(httpMethod)) {
+            return delegate.createRequest(uri, httpMethod);
+        }
+        return new HedgedGetRequest(uri);
+    }
+
+    private ClientHttpResponse send(URI uri, HttpHeaders headers) throws IOException {
+        long start = System.nanoTime();
+        ClientHttpRequest request = delegate.createRequest(uri, HttpMethod.GET);
+        request.getHeaders().putAll(headers);
+        ClientHttpResponse response = request.execute();
+        recordLatency(System.nanoTime() - start);
+        return response;
+    }
+
+    private synchronized void recordLatency(long nanos) {
+        latencies[samples++ % LATENCY_WINDOW] = nanos;
+        if (samples % RECOMPUTE_EVERY == 0) {
+            long[] sorted = Arrays.copyOf(latencies, Math.min(samples, LATENCY_WINDOW));
+            Arrays.sort(sorted);
+            long p95 = sorted[(int) (sorted.length * 0.95)];
+            hedgeDelayNanos = Math.max(minDelayNanos, p95);
+        }
+    }
+
+    private synchronized boolean tryTakeHedge() {
+        budget = Math.min(MAX_BUDGET, budget + budgetPerRequest);
+        if (budget >= 1) {
+            budget -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void earnBudget() {
+        budget = Math.min(MAX_BUDGET, budget + budgetPerRequest);
+    }
+
+    private class HedgedGetRequest extends AbstractClientHttpRequest {
+
+        private final URI uri;
+
+        HedgedGetRequest(URI uri) {
+            this.uri = uri;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return HttpMethod.GET;
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        protected OutputStream getBodyInternal(HttpHeaders headers) {
+            return new ByteArrayOutputStream(0); // GETs carry no body
+        }
+
+        @Override
+        protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+            long delay = hedgeDelayNanos;
+            if (delay < 0) {
+                earnBudget();
+                return send(uri, headers);
+            }
+
+            long deadline = System.nanoTime() + deadlineNanos;
+            // Claimed by the first attempt to get a response, or by this thread when it stops waiting
+            AtomicBoolean settled = new AtomicBoolean();
+            Callable<ClientHttpResponse> attempt = () -> claim(send(uri, headers), settled);
+            CompletionService<ClientHttpResponse> attempts = new ExecutorCompletionService<>(executor);
+            Future<ClientHttpResponse> primary = attempts.submit(attempt);
+            Future<ClientHttpResponse> hedge = null;
+            try {
+                Future<ClientHttpResponse> done = poll(attempts, delay);
+                if (done != null) {
+                    earnBudget();
+                    return result(done);
+                }
+                int running = 1;
+                if (tryTakeHedge()) {
+                    hedges.increment();
+                    hedge = attempts.submit(attempt);
+                    running++;
+                }
+
+                IOException failure = null;
+                while (running > 0 && (done = poll(attempts, deadline - System.nanoTime())) != null) {
+                    running--;
+                    try {
+                        ClientHttpResponse response = result(done);
+                        if (done == hedge) {
+                            hedgeWins.increment();
+                        }
+                        return response;
+                    } catch (IOException e) {
+                        failure = e; // the other attempt may still succeed
+                    }
+                }
+                throw running == 0 ? failure : new IOException("GET " + uri + " timed out");
+            } catch (IOException e) {
+                if (settled.compareAndSet(false, true)) {
+                    throw e;
+                }
+                // An attempt got its response just as this thread gave up, so it is the answer after all
+                return claimed(attempts);
+            } finally {
+                // Only attempts still running are cancelled; any response they get is closed by claim
+                primary.cancel(true);
+                if (hedge != null) {
+                    hedge.cancel(true);
+                }
+            }
+        }
+
+        // The first response claims the request; later ones are closed at once so no connection leaks
+        private ClientHttpResponse claim(ClientHttpResponse response, AtomicBoolean settled) throws IOException {
+            if (settled.compareAndSet(false, true)) {
+                return response;
+            }
+            response.close();
+            throw new IOException("GET " + uri + " was already answered");
+        }
+
+        // Waits for the attempt that claimed the request; it has its response and is about to return it
+        private ClientHttpResponse claimed(CompletionService<ClientHttpResponse> attempts) throws IOException {
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    try {
+                        return attempts.take().get();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    } catch (ExecutionException e) {
+                        // an attempt that failed; the one that claimed is still to come
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private Future<ClientHttpResponse> poll(CompletionService<ClientHttpResponse> attempts, long nanos)
+                throws IOException {
+            try {
+                return attempts.poll(Math.max(nanos, 0), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted waiting for GET " + uri, e);
+            }
+        }
+
+        private ClientHttpResponse result(Future<ClientHttpResponse> done) throws IOException {
+            try {
+                return done.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted waiting for GET " + uri, e);
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            }
+        }
+
+        private IOException unwrap(ExecutionException e) {
+            return e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package com.example.order_service.client;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 import org.springframework.core.ParameterizedTypeReference; // Import this
 import org.springframework.http.HttpMethod; // Import this
 import org.springframework.http.ResponseEntity; // Import this
 
+import com.example.order_service.cache.ProductNearCache;
 import com.example.order_service.dto.ProductDTO;
 import com.example.order_service.dto.ApiResponse; // Make sure you have this DTO!
 
@@ -18,7 +28,11 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class ProductServiceClient {
 
+    // product-service rejects batch requests for more ids than this (ProductController.MAX_BATCH_IDS)
+    static final int MAX_BATCH_IDS = 200;
+
     private final RestTemplate restTemplate;
+    private final ProductNearCache productNearCache;
 
     @Value("${product.service.url}")
     private String productServiceUrl;
@@ -38,7 +52,9 @@ public class ProductServiceClient {
 
             // Return the data inside the wrapper
             if (response.getBody() != null && response.getBody().getData() != null) {
-                return response.getBody().getData();
+                ProductDTO product = response.getBody().getData();
+                productNearCache.put(product);
+                return product;
             } else {
                 throw new RuntimeException("Product not found or empty response");
             }
@@ -49,10 +65,70 @@ public class ProductServiceClient {
         }
     }
 
+    // Fetches all requested products in one call; ids product-service does not know are absent from the map
+    @io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker(name = "productServiceCircuitBreaker", fallbackMethod = "getProductsByIdsFallback")
+    public Map<Long, ProductDTO> getProductsByIds(Collection<Long> productIds) {
+        return fetchProducts(productIds);
+    }
+
+    // Checkout prices and checks stock from this answer, so there is no fallback to cached copies:
+    // when product-service cannot answer, the call fails and so does the order
+    @io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker(name = "productServiceCircuitBreaker")
+    public Map<Long, ProductDTO> getProductsForCheckout(Collection<Long> productIds) {
+        return fetchProducts(productIds);
+    }
+
+    // One batch request per MAX_BATCH_IDS distinct ids
+    private Map<Long, ProductDTO> fetchProducts(Collection<Long> productIds) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(productIds));
+        Map<Long, ProductDTO> products = new HashMap<>();
+        for (int from = 0; from < distinct.size(); from += MAX_BATCH_IDS) {
+            List<Long> batch = distinct.subList(from, Math.min(from + MAX_BATCH_IDS, distinct.size()));
+            for (ProductDTO product : fetchBatch(batch)) {
+                products.putIfAbsent(product.getId(), product);
+            }
+        }
+        return products;
+    }
+
+    private List<ProductDTO> fetchBatch(List<Long> productIds) {
+        String url = UriComponentsBuilder.fromUriString(productServiceUrl + "/products/batch")
+                .queryParam("ids", productIds.stream().map(String::valueOf).collect(Collectors.joining(",")))
+                .toUriString();
+
+        ResponseEntity<ApiResponse<List<ProductDTO>>> response = restTemplate.exchange(
+                url,
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<ApiResponse<List<ProductDTO>>>() {
+                });
+
+        if (response.getBody() == null || response.getBody().getData() == null) {
+            throw new RuntimeException("Empty response for product batch");
+        }
+        List<ProductDTO> products = response.getBody().getData();
+        products.forEach(productNearCache::put);
+        return products;
+    }
+
+    public Map<Long, ProductDTO> getProductsByIdsFallback(Collection<Long> productIds, Throwable t) {
+        log.warn("Fallback triggered for {} product ids. Reason: {}", productIds.size(), t.getMessage());
+        Map<Long, ProductDTO> lastKnown = new HashMap<>();
+        for (Long productId : productIds) {
+            productNearCache.lastKnown(productId).ifPresent(product -> lastKnown.put(productId, product));
+        }
+        return lastKnown;
+    }
+
     // Fallback method
     public ProductDTO getProductByIdFallback(Long productId, Throwable t) {
         log.warn("Fallback triggered for product id: {}. Reason: {}", productId, t.getMessage());
-        // Return a dummy/placeholder product or null to handle gracefully
+        // Serve the last product this pod loaded, or a placeholder if it never saw this one
+        return productNearCache.lastKnown(productId).orElseGet(() -> unavailableProduct(productId));
+    }
+
+    // Placeholder shown in place of a product that could not be loaded
+    public static ProductDTO unavailableProduct(Long productId) {
         ProductDTO fallback = new ProductDTO();
         fallback.setId(productId);
         fallback.setName("Product Unavailable");
@@ -0,0 +1,24 @@
+package com.example.order_service.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.order_service.service.OrderNumberGenerator;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Configuration
+@Slf4j
+public class OrderNumberConfig {
+
+    // An explicit node id per pod guarantees uniqueness; the hostname fallback is unique for StatefulSet ordinals
+    // and very likely, not certain, for Deployment pod names
+    @Bean
+    public OrderNumberGenerator orderNumberGenerator(@Value("${order.number.node-id:}") String nodeId,
+            @Value("${HOSTNAME:localhost}") String hostname) {
+        int node = nodeId.isBlank() ? OrderNumberGenerator.nodeIdFor(hostname) : Integer.parseInt(nodeId.trim());
+        log.info("Order numbers use node id {}", node);
+        return new OrderNumberGenerator(node);
+    }
+}
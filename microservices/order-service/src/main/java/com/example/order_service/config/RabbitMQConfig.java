@@ -1,5 +1,6 @@
 package com.example.order_service.config;
 
+import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.Queue;
@@ -20,6 +21,11 @@ public class RabbitMQConfig {
     public static final String PRODUCT_QUEUE = "product.queue";
     public static final String ORDER_ROUTING_KEY = "order.created";
     public static final String PRODUCT_ROUTING_KEY = "product.stock.update";
+    public static final String PRODUCT_CHANGED_ROUTING_KEY = "product.changed";
+    public static final String STOCK_RESERVE_ROUTING_KEY = "product.stock.reserve";
+    public static final String STOCK_RESERVED_ROUTING_KEY = "order.stock.reserved";
+    public static final String STOCK_RELEASE_ROUTING_KEY = "product.stock.release";
+    public static final String ORDER_RESERVATION_QUEUE = "order.reservation.queue";
 
     @Bean
     public Queue orderQueue() {
@@ -52,6 +58,48 @@ public class RabbitMQConfig {
                 .with(PRODUCT_ROUTING_KEY);
     }
 
+    // Replies to stock reservations; any pod may confirm or cancel the order
+    @Bean
+    public Queue orderReservationQueue() {
+        return new Queue(ORDER_RESERVATION_QUEUE, true);
+    }
+
+    @Bean
+    public Binding orderReservationBinding(Queue orderReservationQueue, TopicExchange orderExchange) {
+        return BindingBuilder
+                .bind(orderReservationQueue)
+                .to(orderExchange)
+                .with(STOCK_RESERVED_ROUTING_KEY);
+    }
+
+    // Per-pod, auto-delete queue so every pod's co-purchase model sees every order
+    @Bean
+    public Queue orderCreatedFeedQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding orderCreatedFeedBinding(Queue orderCreatedFeedQueue, TopicExchange orderExchange) {
+        return BindingBuilder
+                .bind(orderCreatedFeedQueue)
+                .to(orderExchange)
+                .with(ORDER_ROUTING_KEY);
+    }
+
+    // Per-pod, auto-delete queue so every pod's product near-cache sees every product change
+    @Bean
+    public Queue productChangedFeedQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding productChangedFeedBinding(Queue productChangedFeedQueue, TopicExchange orderExchange) {
+        return BindingBuilder
+                .bind(productChangedFeedQueue)
+                .to(orderExchange)
+                .with(PRODUCT_CHANGED_ROUTING_KEY);
+    }
+
     @Bean
     public MessageConverter messageConverter() {
         // Use Jackson2 JSON Converter for Spring Boot 3.x
@@ -1,14 +1,60 @@
 package com.example.order_service.config;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import com.example.order_service.client.ConcurrencyLimitRequestFactory;
+import com.example.order_service.client.HedgingRequestFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+
 @Configuration
 public class RestTemplateConfig {
 
+    private static final String CLIENT_NAME = "product-service";
+
+    @Value("${product.service.connect-timeout-ms}")
+    private long connectTimeoutMs;
+
+    @Value("${product.service.read-timeout-ms}")
+    private long readTimeoutMs;
+
+    @Value("${product.service.max-in-flight}")
+    private int maxInFlight;
+
+    @Value("${product.service.hedge.min-delay-ms}")
+    private long hedgeMinDelayMs;
+
+    @Value("${product.service.hedge.budget-percent}")
+    private int hedgeBudgetPercent;
+
+    // JDK client: pooled keep-alive HTTP/1.1 connections, bounded connect and response times
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+
+        // One slot per call, whether or not it is hedged; no interceptors, so bodies are not buffered
+        HedgingRequestFactory hedging = new HedgingRequestFactory(requestFactory, CLIENT_NAME,
+                Duration.ofMillis(hedgeMinDelayMs), Duration.ofMillis(readTimeoutMs), hedgeBudgetPercent,
+                meterRegistry);
+        RestTemplate restTemplate = new RestTemplate(new ConcurrencyLimitRequestFactory(hedging, CLIENT_NAME,
+                maxInFlight, readTimeoutMs / 10, meterRegistry));
+        // Per-call timings as http.client.requests
+        restTemplate.setObservationRegistry(observationRegistry);
+        return restTemplate;
     }
 }
@@ -1,8 +1,12 @@
 package com.example.order_service.controller;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,13 +16,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.order_service.dto.ApiResponse;
 import com.example.order_service.dto.CreateOrderRequest;
 import com.example.order_service.dto.OrderDTO;
+import com.example.order_service.dto.OrderSummaryDTO;
+import com.example.order_service.entity.Order;
+import com.example.order_service.service.OrderExportService;
 import com.example.order_service.service.OrderService;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -27,11 +36,47 @@ import lombok.RequiredArgsConstructor;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
 
+    // Newest first; pass metadata.nextCursor back as cursor for the next page
     @GetMapping
-    public ResponseEntity<ApiResponse<List<OrderDTO>>> getAllOrders() {
-        List<OrderDTO> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(ApiResponse.success(orders, "Orders retrieved successfully"));
+    public ResponseEntity<ApiResponse<List<OrderDTO>>> getAllOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(orderService.getOrdersPage(status, from, to, cursor,
+                    Math.min(Math.max(limit, 1), OrderService.MAX_PAGE_SIZE)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, e.getMessage()));
+        }
+    }
+
+    // Streams every matching order; the response is written page by page as it is read
+    @GetMapping("/export")
+    public void exportOrders(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletResponse response) throws IOException {
+        String exportFormat;
+        Order.OrderStatus orderStatus;
+        try {
+            exportFormat = OrderExportService.parseFormat(format);
+            orderStatus = OrderService.parseStatus(status);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+            return;
+        }
+
+        boolean csv = "CSV".equals(exportFormat);
+        response.setContentType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"orders." + (csv ? "csv" : "ndjson") + "\"");
+        orderExportService.export(exportFormat, orderStatus, from, to, response.getOutputStream());
     }
 
     @GetMapping("/{id}")
@@ -46,10 +91,18 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success(order, "Order retrieved successfully"));
     }
 
+    // Summaries only, newest first; pass metadata.nextCursor back as cursor for the next page
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<ApiResponse<List<OrderDTO>>> getOrdersByCustomerId(@PathVariable Long customerId) {
-        List<OrderDTO> orders = orderService.getOrdersByCustomerId(customerId);
-        return ResponseEntity.ok(ApiResponse.success(orders, "Customer orders retrieved successfully"));
+    public ResponseEntity<ApiResponse<List<OrderSummaryDTO>>> getOrdersByCustomerId(
+            @PathVariable Long customerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(orderService.getOrdersByCustomerId(customerId, cursor,
+                    Math.min(Math.max(limit, 1), OrderService.MAX_PAGE_SIZE)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, e.getMessage()));
+        }
     }
 
     @PostMapping
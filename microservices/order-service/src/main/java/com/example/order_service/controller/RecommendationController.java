@@ -0,0 +1,33 @@
+package com.example.order_service.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.order_service.dto.ApiResponse;
+import com.example.order_service.dto.RelatedProductDTO;
+import com.example.order_service.service.RecommendationService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/products")
+@RequiredArgsConstructor
+public class RecommendationController {
+
+    private final RecommendationService recommendationService;
+
+    @GetMapping("/{id}/related")
+    public ResponseEntity<ApiResponse<List<RelatedProductDTO>>> getRelatedProducts(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<RelatedProductDTO> related = recommendationService.getRelatedProducts(id,
+                Math.min(Math.max(limit, 1), 50));
+        return ResponseEntity.ok(ApiResponse.success(related, "Related products retrieved successfully"));
+    }
+}
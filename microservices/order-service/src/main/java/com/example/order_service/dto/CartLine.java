@@ -1,17 +1,16 @@
 package com.example.order_service.dto;
 
-import java.io.Serializable;
-
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+// A cart row as read at checkout; the id and quantity say exactly what the order took from the cart
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class ProductStockUpdateEvent implements Serializable {
+public class CartLine {
 
+    private Long cartItemId;
     private Long productId;
-    private Integer quantityChanged;
-    private String operation; // "RESERVE" or "RELEASE"
+    private Integer quantity;
 }
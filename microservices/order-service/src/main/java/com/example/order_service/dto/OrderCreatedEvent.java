@@ -1,6 +1,7 @@
 package com.example.order_service.dto;
 
 import java.io.Serializable;
+import java.util.List;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -14,4 +15,5 @@ public class OrderCreatedEvent implements Serializable {
     private Long orderId;
     private String orderNumber;
     private Long customerId;
+    private List<Long> productIds;
 }
@@ -0,0 +1,21 @@
+package com.example.order_service.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDTO {
+
+    private Long id;
+    private String orderNumber;
+    private LocalDateTime createdAt;
+    private BigDecimal totalAmount;
+    private String status;
+    private Long itemCount;
+}
@@ -0,0 +1,26 @@
+package com.example.order_service.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Published by product-service on product.changed after every committed product write
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangedEvent {
+
+    private Long productId;
+    private Long version;
+    private String changeType;
+    private String name;
+    private String category;
+    private BigDecimal price;
+    private Integer stockQuantity;
+    private Boolean active;
+    private String mainImage;
+    private Double averageRating;
+    private Integer reviewCount;
+}
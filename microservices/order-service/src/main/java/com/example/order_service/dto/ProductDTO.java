@@ -24,4 +24,5 @@ public class ProductDTO {
     private Double rating; // For backwards compatibility
     private Double averageRating;
     private Integer reviewCount;
+    private Long changeVersion; // version of this state in product-service's change feed
 }
@@ -0,0 +1,14 @@
+package com.example.order_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatedProductDTO {
+
+    private Long productId;
+    private Integer timesBoughtTogether;
+}
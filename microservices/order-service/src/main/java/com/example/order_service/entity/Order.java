@@ -13,26 +13,36 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "orders")
+// Listing indexes match the keyset order (createdAt desc, id desc)
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_orders_status_created_at_id", columnList = "status, created_at, id"),
+        @Index(name = "idx_orders_customer_created_at_id", columnList = "customer_id, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Order {
 
+    // Ids come from a pooled sequence so the order and its items can be inserted in JDBC batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orderIdGenerator")
+    @SequenceGenerator(name = "orderIdGenerator", sequenceName = "order_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false)
+    // Set by OrderNumberGenerator before the order is saved
+    @Column(nullable = false, unique = true, length = 20)
     private String orderNumber;
 
     @Column(nullable = false)
@@ -51,6 +61,9 @@ public class Order {
     @Column(length = 500)
     private String shippingAddress;
 
+    // Set once the reserved stock has been handed back, so no path releases it a second time
+    private Boolean stockReleased = false;
+
     @Column(updatable = false)
     private LocalDateTime createdAt;
 
@@ -60,7 +73,6 @@ public class Order {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
-        orderNumber = "ORD-" + System.currentTimeMillis();
     }
 
     @PreUpdate
@@ -0,0 +1,64 @@
+package com.example.order_service.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A message to publish to {@code order.exchange}, written in the same
+ * transaction as the change it announces and removed by the relay once the
+ * broker has confirmed it. The payload is already serialized JSON. Messages
+ * about the same order carry its id as aggregate id and are relayed in order.
+ */
+@Entity
+@Table(name = "order_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Null only for rows written before the column existed; those are relayed by their own id
+    private Long aggregateId;
+
+    @Column(nullable = false, length = 100)
+    private String routingKey;
+
+    @Column(length = 100)
+    private String correlationId;
+
+    @Column(nullable = false, length = 200)
+    private String payloadType;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public OutboxMessage(Long aggregateId, String routingKey, String correlationId, String payloadType,
+            String payload) {
+        this.aggregateId = aggregateId;
+        this.routingKey = routingKey;
+        this.correlationId = correlationId;
+        this.payloadType = payloadType;
+        this.payload = payload;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.order_service.messaging;
+
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import com.example.order_service.dto.OrderCreatedEvent;
+import com.example.order_service.service.RecommendationService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderCreatedListener {
+
+    private final RecommendationService recommendationService;
+
+    @RabbitListener(queues = "#{orderCreatedFeedQueue.name}")
+    public void handleOrderCreated(OrderCreatedEvent event) {
+        if (event.getProductIds() == null) {
+            return; // published before product ids were added to the event
+        }
+        log.debug("Adding order {} to co-purchase model", event.getOrderId());
+        recommendationService.recordOrder(event.getOrderId(), event.getProductIds());
+    }
+}
@@ -2,34 +2,71 @@ package com.example.order_service.messaging;
 
 import com.example.order_service.config.RabbitMQConfig;
 import com.example.order_service.dto.OrderCreatedEvent;
-import com.example.order_service.dto.ProductStockUpdateEvent;
+import com.example.order_service.dto.ReleaseStockBatch;
+import com.example.order_service.dto.ReserveStockBatch;
+import com.example.order_service.entity.OutboxMessage;
+import com.example.order_service.repository.OutboxMessageRepository;
+import com.example.order_service.scheduler.OutboxRelay;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+/**
+ * Writes messages to the order outbox as part of the caller's transaction;
+ * {@link OutboxRelay} publishes them once that transaction has committed.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class OrderMessagePublisher {
 
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final OutboxRelay outboxRelay;
+    private final ObjectMapper objectMapper;
 
+    @Transactional(propagation = Propagation.MANDATORY)
     public void publishOrderCreated(OrderCreatedEvent event) {
-        log.info("Publishing order created event: {}", event);
-        rabbitTemplate.convertAndSend(
-                RabbitMQConfig.ORDER_EXCHANGE,
-                RabbitMQConfig.ORDER_ROUTING_KEY,
-                event
-        );
+        log.info("Queueing order created event: {}", event);
+        enqueue(event.getOrderId(), RabbitMQConfig.ORDER_ROUTING_KEY, null, event);
     }
 
-    public void publishStockUpdate(ProductStockUpdateEvent event) {
-        log.info("Publishing stock update event: {}", event);
-        rabbitTemplate.convertAndSend(
-                RabbitMQConfig.ORDER_EXCHANGE,
-                RabbitMQConfig.PRODUCT_ROUTING_KEY,
-                event
-        );
+    // One message per order; the reply is correlated by order id
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishReserveStock(ReserveStockBatch batch) {
+        log.info("Queueing stock reservation for order {} ({} lines)", batch.getOrderNumber(),
+                batch.getLines().size());
+        enqueue(batch.getOrderId(), RabbitMQConfig.STOCK_RESERVE_ROUTING_KEY,
+                String.valueOf(batch.getOrderId()), batch);
+    }
+
+    // One message per order, keyed by order id so product-service releases it only once
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishReleaseStock(ReleaseStockBatch batch) {
+        log.info("Queueing stock release for order {} ({} lines)", batch.getOrderNumber(),
+                batch.getLines().size());
+        enqueue(batch.getOrderId(), RabbitMQConfig.STOCK_RELEASE_ROUTING_KEY,
+                String.valueOf(batch.getOrderId()), batch);
+    }
+
+    private void enqueue(Long orderId, String routingKey, String correlationId, Object payload) {
+        try {
+            outboxMessageRepository.save(new OutboxMessage(orderId, routingKey, correlationId,
+                    payload.getClass().getName(), objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize " + payload.getClass().getSimpleName(), e);
+        }
+        // Publish right after commit instead of waiting for the next poll
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxRelay.trigger();
+            }
+        });
     }
 }
@@ -0,0 +1,24 @@
+package com.example.order_service.messaging;
+
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import com.example.order_service.cache.ProductNearCache;
+import com.example.order_service.dto.ProductChangedEvent;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductChangedListener {
+
+    private final ProductNearCache productNearCache;
+
+    @RabbitListener(queues = "#{productChangedFeedQueue.name}")
+    public void handleProductChanged(ProductChangedEvent event) {
+        log.debug("Applying product change {} v{} to near-cache", event.getProductId(), event.getVersion());
+        productNearCache.apply(event);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.order_service.messaging;
+
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import com.example.order_service.config.RabbitMQConfig;
+import com.example.order_service.dto.StockReservationResult;
+import com.example.order_service.service.OrderService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationListener {
+
+    private final OrderService orderService;
+
+    @RabbitListener(queues = RabbitMQConfig.ORDER_RESERVATION_QUEUE)
+    public void handleReservationResult(StockReservationResult result) {
+        log.info("Stock reservation for order {}: {}", result.getOrderNumber(),
+                Boolean.TRUE.equals(result.getReserved()) ? "reserved" : result.getReason());
+        orderService.applyReservationResult(result);
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.order_service.recommendation;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.example.order_service.dto.RelatedProductDTO;
+
+/**
+ * Incremental "bought together" counts. For every product it keeps a sparse
+ * map of co-purchased products, pruned to the strongest neighbours, plus a
+ * precomputed ranked list so reads are a single map lookup. Writes are
+ * serialized on the model; reads never lock.
+ * <p>
+ * Order ids are pooled per pod and do not commit in id order, so coverage is
+ * tracked by creation time instead: the model remembers the newest order it
+ * folded in and the ids of every order created within the overlap window
+ * before that, and a replay of that window skips them.
+ */
+public class CoPurchaseModel {
+
+    private static final int SNAPSHOT_MAGIC = 0x43505332; // "CPS2"
+    // Bounds the pairs one huge order can add (n items produce n * (n - 1) updates)
+    private static final int MAX_PRODUCTS_PER_ORDER = 50;
+    private static final int MIN_PRUNE_SIZE = 1024;
+
+    private record Ranked(long[] productIds, int[] counts) {
+    }
+
+    private static final class Neighbours {
+
+        LongIntCountMap counts = new LongIntCountMap();
+        volatile Ranked ranked = new Ranked(new long[0], new int[0]);
+    }
+
+    private final int maxNeighbours;
+    private final long overlapMillis;
+    private final Map<Long, Neighbours> products = new ConcurrentHashMap<>();
+    // Orders created within the overlap window before coveredUntil, id to creation time
+    private final Map<Long, Long> recentOrders = new HashMap<>();
+    private long coveredUntil;
+    private int pruneAt = MIN_PRUNE_SIZE;
+
+    public CoPurchaseModel(int maxNeighbours, long overlapMillis) {
+        this.maxNeighbours = maxNeighbours;
+        this.overlapMillis = overlapMillis;
+    }
+
+    /** Creation time, in epoch millis, of the newest order folded into the model. */
+    public synchronized long getCoveredUntil() {
+        return coveredUntil;
+    }
+
+    /** Orders created after this time (epoch millis) may be missing and have to be replayed. */
+    public synchronized long replayFrom() {
+        return coveredUntil == 0 ? 0 : coveredUntil - overlapMillis;
+    }
+
+    public int productCount() {
+        return products.size();
+    }
+
+    /** Folds in one order; an order already counted within the overlap window is ignored. */
+    public synchronized void addOrder(long orderId, long createdAtMillis, Collection<Long> productIds) {
+        if (recentOrders.putIfAbsent(orderId, createdAtMillis) != null) {
+            return;
+        }
+        coveredUntil = Math.max(coveredUntil, createdAtMillis);
+        if (recentOrders.size() >= pruneAt) {
+            pruneRecentOrders();
+            pruneAt = Math.max(MIN_PRUNE_SIZE, recentOrders.size() * 2);
+        }
+
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(productIds));
+        if (distinct.size() > MAX_PRODUCTS_PER_ORDER) {
+            distinct = distinct.subList(0, MAX_PRODUCTS_PER_ORDER);
+        }
+        if (distinct.size() < 2) {
+            return;
+        }
+
+        for (Long productId : distinct) {
+            Neighbours neighbours = products.computeIfAbsent(productId, id -> new Neighbours());
+            for (Long other : distinct) {
+                if (!other.equals(productId)) {
+                    neighbours.counts.add(other, 1);
+                }
+            }
+            rerank(neighbours);
+        }
+    }
+
+    /** Products most often bought with {@code productId}, strongest first. */
+    public List<RelatedProductDTO> related(long productId, int limit) {
+        Neighbours neighbours = products.get(productId);
+        if (neighbours == null) {
+            return List.of();
+        }
+        Ranked ranked = neighbours.ranked;
+        int n = Math.min(limit, ranked.productIds().length);
+        List<RelatedProductDTO> related = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            related.add(new RelatedProductDTO(ranked.productIds()[i], ranked.counts()[i]));
+        }
+        return related;
+    }
+
+    // Recomputes the ranked list; once the map holds twice the neighbours kept, the weakest are dropped
+    private void rerank(Neighbours neighbours) {
+        long[] top = neighbours.counts.topKeys(maxNeighbours);
+        if (neighbours.counts.size() > maxNeighbours * 2) {
+            neighbours.counts = neighbours.counts.retain(top);
+        }
+        int[] counts = new int[top.length];
+        for (int i = 0; i < top.length; i++) {
+            counts[i] = neighbours.counts.get(top[i]);
+        }
+        neighbours.ranked = new Ranked(top, counts);
+    }
+
+    // Ids older than the overlap window can no longer come back in a replay
+    private void pruneRecentOrders() {
+        long cutoff = coveredUntil - overlapMillis;
+        recentOrders.values().removeIf(createdAt -> createdAt < cutoff);
+    }
+
+    public synchronized void writeSnapshot(DataOutputStream out) throws IOException {
+        pruneRecentOrders();
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeLong(coveredUntil);
+        out.writeInt(recentOrders.size());
+        for (Map.Entry<Long, Long> order : recentOrders.entrySet()) {
+            out.writeLong(order.getKey());
+            out.writeLong(order.getValue());
+        }
+        out.writeInt(products.size());
+        for (Map.Entry<Long, Neighbours> entry : products.entrySet()) {
+            LongIntCountMap counts = entry.getValue().counts;
+            out.writeLong(entry.getKey());
+            out.writeInt(counts.size());
+            IOException[] failure = new IOException[1];
+            counts.forEach((productId, count) -> {
+                try {
+                    out.writeLong(productId);
+                    out.writeInt(count);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        }
+    }
+
+    /** Merges a snapshot into the model and returns the creation time of the newest order it covers. */
+    public long readSnapshot(DataInputStream in) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("Not a co-purchase snapshot");
+        }
+        // Parsed completely before merging, so a truncated file leaves the model untouched
+        long snapshotCoveredUntil = in.readLong();
+        int orderTotal = in.readInt();
+        Map<Long, Long> snapshotOrders = new HashMap<>();
+        for (int i = 0; i < orderTotal; i++) {
+            snapshotOrders.put(in.readLong(), in.readLong());
+        }
+        int productTotal = in.readInt();
+        Map<Long, LongIntCountMap> parsed = new HashMap<>();
+        for (int p = 0; p < productTotal; p++) {
+            LongIntCountMap counts = new LongIntCountMap();
+            long productId = in.readLong();
+            int neighbourTotal = in.readInt();
+            for (int i = 0; i < neighbourTotal; i++) {
+                counts.add(in.readLong(), in.readInt());
+            }
+            parsed.put(productId, counts);
+        }
+
+        synchronized (this) {
+            parsed.forEach((productId, counts) -> {
+                Neighbours neighbours = products.computeIfAbsent(productId, id -> new Neighbours());
+                counts.forEach((neighbourId, count) -> neighbours.counts.add(neighbourId, count));
+                rerank(neighbours);
+            });
+            snapshotOrders.forEach(recentOrders::putIfAbsent);
+            coveredUntil = Math.max(coveredUntil, snapshotCoveredUntil);
+        }
+        return snapshotCoveredUntil;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.order_service.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from positive long keys to int counts, without boxing.
+ * Entries are never removed one by one; pruning builds a smaller map.
+ * Not thread-safe.
+ */
+final class LongIntCountMap {
+
+    private static final long FREE = 0L; // product ids start at 1
+
+    private long[] keys;
+    private int[] counts;
+    private int size;
+
+    LongIntCountMap() {
+        this(8);
+    }
+
+    private LongIntCountMap(int capacity) {
+        keys = new long[capacity];
+        counts = new int[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(long key, int delta) {
+        if ((size + 1) * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+        int slot = slot(keys, key);
+        if (keys[slot] == FREE) {
+            keys[slot] = key;
+            size++;
+        }
+        counts[slot] += delta;
+    }
+
+    /** Keys ordered by count descending, ties by key ascending, at most {@code limit} of them. */
+    long[] topKeys(int limit) {
+        Integer[] slots = new Integer[size];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                slots[n++] = i;
+            }
+        }
+        Arrays.sort(slots, (a, b) -> counts[a] != counts[b]
+                ? Integer.compare(counts[b], counts[a])
+                : Long.compare(keys[a], keys[b]));
+        long[] top = new long[Math.min(limit, n)];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = keys[slots[i]];
+        }
+        return top;
+    }
+
+    int get(long key) {
+        int slot = slot(keys, key);
+        return keys[slot] == FREE ? 0 : counts[slot];
+    }
+
+    /** A new map holding only the given keys with their current counts. */
+    LongIntCountMap retain(long[] retained) {
+        LongIntCountMap pruned = new LongIntCountMap(Integer.highestOneBit(Math.max(8, retained.length * 2)) * 2);
+        for (long key : retained) {
+            pruned.add(key, get(key));
+        }
+        return pruned;
+    }
+
+    void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                visitor.visit(keys[i], counts[i]);
+            }
+        }
+    }
+
+    interface Visitor {
+        void visit(long key, int count);
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[capacity];
+        counts = new int[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = slot(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    // Linear probing from a mixed hash; capacity is always a power of two
+    private static int slot(long[] keys, long key) {
+        int mask = keys.length - 1;
+        int slot = (int) (mix(key) & mask);
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+}
@@ -1,14 +1,40 @@
 package com.example.order_service.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.order_service.entity.Cart;
+import com.example.order_service.entity.CartItem;
+
+import jakarta.persistence.LockModeType;
 
 @Repository
 public interface CartRepository extends JpaRepository<Cart, Long> {
 
     Optional<Cart> findByUserId(Long userId);
+
+    // Locks the cart rows an order was built from, so a concurrent change to them waits for checkout
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from CartItem i where i.id in :ids")
+    List<CartItem> findItemsForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Set-based checkout clear: one delete for all ordered lines instead of one per orphaned item
+    @Modifying(flushAutomatically = true)
+    @Query("delete from CartItem i where i.id in :ids")
+    int deleteItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Cart c set "
+            + "c.total = coalesce((select sum(i.subtotal) from CartItem i where i.cart = c), 0), "
+            + "c.itemCount = coalesce((select sum(i.quantity) from CartItem i where i.cart = c), 0), "
+            + "c.updatedAt = CURRENT_TIMESTAMP where c.userId = :userId")
+    int recalculateTotalsByUserId(@Param("userId") Long userId);
 }
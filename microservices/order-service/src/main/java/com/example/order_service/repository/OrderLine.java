@@ -0,0 +1,17 @@
+package com.example.order_service.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * One order item together with the order it belongs to.
+ */
+public interface OrderLine {
+
+    Long getOrderId();
+
+    Long getProductId();
+
+    Integer getQuantity();
+
+    BigDecimal getPrice();
+}
@@ -1,19 +1,97 @@
 package com.example.order_service.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.order_service.entity.Order;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    // Single-order reads load the items with the order in one query
+    @EntityGraph(attributePaths = "orderItems")
+    Optional<Order> findWithItemsById(Long id);
+
+    @EntityGraph(attributePaths = "orderItems")
     Optional<Order> findByOrderNumber(String orderNumber);
 
-    List<Order> findByCustomerId(Long customerId);
+    // Customer history page: summary columns and the item count from SQL, no items loaded
+    @Query("select o.id as id, o.orderNumber as orderNumber, o.createdAt as createdAt, "
+            + "o.totalAmount as totalAmount, o.status as status, coalesce(sum(i.quantity), 0) as itemCount "
+            + "from Order o left join o.orderItems i "
+            + "where o.customerId = :customerId "
+            + "and (:afterCreatedAt is null or o.createdAt < :afterCreatedAt "
+            + "or (o.createdAt = :afterCreatedAt and o.id < :afterId)) "
+            + "group by o.id, o.orderNumber, o.createdAt, o.totalAmount, o.status "
+            + "order by o.createdAt desc, o.id desc")
+    List<OrderSummary> findSummariesByCustomerId(@Param("customerId") Long customerId,
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
 
     List<Order> findByStatus(Order.OrderStatus status);
+
+    // Bounds used for a filter or cursor that was not given; no order is created outside them
+    LocalDateTime OPEN_FROM = LocalDateTime.of(1970, 1, 1, 0, 0);
+    LocalDateTime OPEN_TO = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    // Keyset page for the admin listing, export and co-purchase replay; every filter and the cursor are optional.
+    // Missing values become open bounds rather than "is null or" predicates, and the status filter has its own
+    // query, so each page is a plain range read on (status, created_at, id) or (created_at, id).
+    default List<OrderRow> findRows(Order.OrderStatus status, LocalDateTime from, LocalDateTime to,
+            LocalDateTime afterCreatedAt, Long afterId, Pageable pageable) {
+        LocalDateTime lower = from != null ? from : OPEN_FROM;
+        LocalDateTime upper = to != null ? to : OPEN_TO;
+        LocalDateTime beforeCreatedAt = afterCreatedAt != null ? afterCreatedAt : OPEN_TO;
+        long beforeId = afterCreatedAt != null && afterId != null ? afterId : Long.MAX_VALUE;
+        return status == null
+                ? findRowsCreatedBetween(lower, upper, beforeCreatedAt, beforeId, pageable)
+                : findRowsByStatusCreatedBetween(status, lower, upper, beforeCreatedAt, beforeId, pageable);
+    }
+
+    @Query("select o.id as id, o.orderNumber as orderNumber, o.customerId as customerId, "
+            + "o.totalAmount as totalAmount, o.status as status, o.shippingAddress as shippingAddress, "
+            + "o.createdAt as createdAt from Order o "
+            + "where o.createdAt >= :from and o.createdAt < :to "
+            + "and (o.createdAt, o.id) < (:beforeCreatedAt, :beforeId) "
+            + "order by o.createdAt desc, o.id desc")
+    List<OrderRow> findRowsCreatedBetween(@Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+            @Param("beforeId") long beforeId,
+            Pageable pageable);
+
+    @Query("select o.id as id, o.orderNumber as orderNumber, o.customerId as customerId, "
+            + "o.totalAmount as totalAmount, o.status as status, o.shippingAddress as shippingAddress, "
+            + "o.createdAt as createdAt from Order o "
+            + "where o.status = :status and o.createdAt >= :from and o.createdAt < :to "
+            + "and (o.createdAt, o.id) < (:beforeCreatedAt, :beforeId) "
+            + "order by o.createdAt desc, o.id desc")
+    List<OrderRow> findRowsByStatusCreatedBetween(@Param("status") Order.OrderStatus status,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+            @Param("beforeId") long beforeId,
+            Pageable pageable);
+
+    @Query("select i.order.id as orderId, i.productId as productId, i.quantity as quantity, i.price as price "
+            + "from OrderItem i where i.order.id in :orderIds order by i.order.id, i.id")
+    List<OrderLine> findLinesByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    // Serializes cancellation against the reservation reply for the same order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.id = :id")
+    Optional<Order> findForUpdateById(@Param("id") Long id);
 }
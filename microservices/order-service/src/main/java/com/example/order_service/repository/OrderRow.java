@@ -0,0 +1,27 @@
+package com.example.order_service.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.example.order_service.entity.Order;
+
+/**
+ * The order columns of a listing or export row, read without loading the
+ * entity or its items.
+ */
+public interface OrderRow {
+
+    Long getId();
+
+    String getOrderNumber();
+
+    Long getCustomerId();
+
+    BigDecimal getTotalAmount();
+
+    Order.OrderStatus getStatus();
+
+    String getShippingAddress();
+
+    LocalDateTime getCreatedAt();
+}
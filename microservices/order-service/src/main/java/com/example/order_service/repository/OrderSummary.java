@@ -0,0 +1,25 @@
+package com.example.order_service.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.example.order_service.entity.Order;
+
+/**
+ * One line of a customer's order history. The item count is the sum of the
+ * line quantities, computed by the query.
+ */
+public interface OrderSummary {
+
+    Long getId();
+
+    String getOrderNumber();
+
+    LocalDateTime getCreatedAt();
+
+    BigDecimal getTotalAmount();
+
+    Order.OrderStatus getStatus();
+
+    Long getItemCount();
+}
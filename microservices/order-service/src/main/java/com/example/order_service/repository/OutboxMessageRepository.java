@@ -0,0 +1,33 @@
+package com.example.order_service.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.order_service.entity.OutboxMessage;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    // Only the holder of the partition lock reads a partition, so rows are locked in id order without skipping
+    @Query(value = """
+            SELECT * FROM order_outbox
+            WHERE mod(coalesce(aggregate_id, id), :partitions) = :partition
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE
+            """, nativeQuery = true)
+    List<OutboxMessage> lockBatch(@Param("partitions") int partitions, @Param("partition") int partition,
+            @Param("limit") int limit);
+
+    // Transaction-scoped, so it is released with the batch's commit or rollback
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:namespace, :partition)", nativeQuery = true)
+    boolean tryLockPartition(@Param("namespace") int namespace, @Param("partition") int partition);
+
+    @Query("select min(o.createdAt) from OutboxMessage o")
+    LocalDateTime findOldestCreatedAt();
+}
@@ -0,0 +1,172 @@
+package com.example.order_service.scheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.order_service.config.RabbitMQConfig;
+import com.example.order_service.entity.OutboxMessage;
+import com.example.order_service.repository.OutboxMessageRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publishes the order outbox. Each worker locks a batch of rows, sends them
+ * on one channel, waits for the broker to confirm the whole batch and only
+ * then deletes the rows in the same transaction; an unconfirmed batch rolls
+ * back and is sent again (at-least-once). Runs on a short poll and whenever a
+ * transaction that wrote to the outbox commits.
+ * <p>
+ * Rows are split into {@code relay-parallelism} partitions by order id and
+ * each worker drains one partition. A partition is relayed by one worker at a
+ * time across all pods, held with an advisory lock, so the messages of one
+ * order are published in the order they were written. The setting must
+ * therefore be the same on every pod.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    // First half of the advisory lock key, the partition being the second
+    private static final int PARTITION_LOCK_NAMESPACE = 0x6f757462;
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean requested = new AtomicBoolean();
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter published;
+    private final Timer batchTimer;
+
+    @Value("${order.outbox.batch-size}")
+    private int batchSize;
+
+    @Value("${order.outbox.relay-parallelism}")
+    private int parallelism;
+
+    @Value("${order.outbox.confirm-timeout-ms}")
+    private long confirmTimeoutMs;
+
+    public OutboxRelay(OutboxMessageRepository outboxMessageRepository,
+            RabbitTemplate rabbitTemplate,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.published = meterRegistry.counter("order.outbox.published");
+        this.batchTimer = meterRegistry.timer("order.outbox.batch.publish");
+        meterRegistry.gauge("order.outbox.pending", pending);
+        meterRegistry.gauge("order.outbox.lag.seconds", lagMillis, lag -> lag.get() / 1000.0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.poll-interval-ms}")
+    public void poll() {
+        trigger();
+    }
+
+    /** Starts a drain unless one is running, in which case that drain goes round once more. */
+    public void trigger() {
+        requested.set(true);
+        if (running.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (requested.getAndSet(false)) {
+                List<Callable<Void>> workers = new ArrayList<>(parallelism);
+                for (int i = 0; i < parallelism; i++) {
+                    int partition = i;
+                    workers.add(() -> {
+                        while (relayBatch(partition) == batchSize) {
+                            // keep going while batches come back full
+                        }
+                        return null;
+                    });
+                }
+                executor.invokeAll(workers);
+            }
+            updateLag();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int relayBatch(int partition) {
+        try {
+            Integer sent = transactionTemplate.execute(status -> {
+                // Another pod is relaying this partition
+                if (!outboxMessageRepository.tryLockPartition(PARTITION_LOCK_NAMESPACE, partition)) {
+                    return 0;
+                }
+                List<OutboxMessage> batch = outboxMessageRepository.lockBatch(parallelism, partition, batchSize);
+                if (batch.isEmpty()) {
+                    return 0;
+                }
+                batchTimer.record(() -> rabbitTemplate.invoke(operations -> {
+                    for (OutboxMessage outboxMessage : batch) {
+                        operations.send(RabbitMQConfig.ORDER_EXCHANGE, outboxMessage.getRoutingKey(),
+                                toMessage(outboxMessage));
+                    }
+                    operations.waitForConfirmsOrDie(confirmTimeoutMs);
+                    return null;
+                }));
+                outboxMessageRepository.deleteAllByIdInBatch(
+                        batch.stream().map(OutboxMessage::getId).collect(Collectors.toList()));
+                return batch.size();
+            });
+            published.increment(sent);
+            return sent;
+        } catch (Exception e) {
+            log.warn("Outbox batch not confirmed, will resend: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private Message toMessage(OutboxMessage outboxMessage) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setContentEncoding("UTF-8");
+        properties.setCorrelationId(outboxMessage.getCorrelationId());
+        properties.setHeader("__TypeId__", outboxMessage.getPayloadType());
+        return new Message(outboxMessage.getPayload().getBytes(StandardCharsets.UTF_8), properties);
+    }
+
+    private void updateLag() {
+        pending.set(outboxMessageRepository.count());
+        LocalDateTime oldest = outboxMessageRepository.findOldestCreatedAt();
+        lagMillis.set(oldest == null ? 0 : Math.max(Duration.between(oldest, LocalDateTime.now()).toMillis(), 0));
+    }
+}
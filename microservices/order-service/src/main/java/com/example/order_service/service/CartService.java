@@ -1,15 +1,20 @@
 package com.example.order_service.service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.order_service.cache.ProductNearCache;
 import com.example.order_service.client.ProductServiceClient;
 import com.example.order_service.dto.AddToCartRequest;
 import com.example.order_service.dto.CartDTO;
 import com.example.order_service.dto.CartItemResponseDTO;
+import com.example.order_service.dto.CartLine;
 import com.example.order_service.dto.ProductDTO;
 import com.example.order_service.entity.Cart;
 import com.example.order_service.entity.CartItem;
@@ -25,21 +30,35 @@ public class CartService {
 
     private final CartRepository cartRepository;
     private final ProductServiceClient productServiceClient;
+    private final ProductNearCache productNearCache;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
-    public CartDTO getCurrentUserCart(Long userId) {
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseGet(() -> {
-                    Cart newCart = new Cart();
-                    newCart.setUserId(userId);
-                    return cartRepository.save(newCart);
-                });
+    // Each operation runs its DB work in a transaction and enriches the items with product details after commit,
+    // so no connection is held during calls to product-service
 
-        return convertToDTO(cart);
+    public CartDTO getCurrentUserCart(Long userId) {
+        CartDTO cart = transactionTemplate.execute(status -> {
+            Cart current = cartRepository.findByUserId(userId)
+                    .orElseGet(() -> {
+                        Cart newCart = new Cart();
+                        newCart.setUserId(userId);
+                        return cartRepository.save(newCart);
+                    });
+            return convertToDTO(current);
+        });
+        return withProductDetails(cart);
     }
 
-    @Transactional
     public CartDTO addItemToCart(Long userId, AddToCartRequest request) {
+        // Fetch product details
+        ProductDTO product = productNearCache.get(request.getProductId(), productServiceClient::getProductById);
+
+        CartDTO cart = transactionTemplate.execute(status -> addItem(userId, request, product));
+        log.info("Added product {} to cart for user {}", request.getProductId(), userId);
+        return withProductDetails(cart);
+    }
+
+    private CartDTO addItem(Long userId, AddToCartRequest request, ProductDTO product) {
         Cart cart = cartRepository.findByUserId(userId)
                 .orElseGet(() -> {
                     Cart newCart = new Cart();
@@ -47,9 +66,6 @@ public class CartService {
                     return cartRepository.save(newCart);
                 });
 
-        // Fetch product details
-        ProductDTO product = productServiceClient.getProductById(request.getProductId());
-
         // Check if item already exists in cart
         CartItem existingItem = cart.getItems().stream()
                 .filter(item -> item.getProductId().equals(request.getProductId()))
@@ -72,13 +88,16 @@ public class CartService {
 
         cart.recalculate();
         Cart savedCart = cartRepository.save(cart);
-
-        log.info("Added product {} to cart for user {}", request.getProductId(), userId);
         return convertToDTO(savedCart);
     }
 
-    @Transactional
     public CartDTO updateCartItem(Long userId, AddToCartRequest request) {
+        CartDTO cart = transactionTemplate.execute(status -> updateItem(userId, request));
+        log.info("Updated cart item {} for user {}", request.getProductId(), userId);
+        return withProductDetails(cart);
+    }
+
+    private CartDTO updateItem(Long userId, AddToCartRequest request) {
         Cart cart = cartRepository.findByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("Cart not found for user: " + userId));
 
@@ -96,13 +115,16 @@ public class CartService {
 
         cart.recalculate();
         Cart savedCart = cartRepository.save(cart);
-
-        log.info("Updated cart item {} for user {}", request.getProductId(), userId);
         return convertToDTO(savedCart);
     }
 
-    @Transactional
     public CartDTO removeItemFromCart(Long userId, Long productId) {
+        CartDTO cart = transactionTemplate.execute(status -> removeItem(userId, productId));
+        log.info("Removed product {} from cart for user {}", productId, userId);
+        return withProductDetails(cart);
+    }
+
+    private CartDTO removeItem(Long userId, Long productId) {
         Cart cart = cartRepository.findByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("Cart not found for user: " + userId));
 
@@ -114,31 +136,70 @@ public class CartService {
         cart.removeItem(item);
         cart.recalculate();
         Cart savedCart = cartRepository.save(cart);
-
-        log.info("Removed product {} from cart for user {}", productId, userId);
         return convertToDTO(savedCart);
     }
 
-    @Transactional
     public CartDTO clearCart(Long userId) {
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Cart not found for user: " + userId));
+        CartDTO cart = transactionTemplate.execute(status -> {
+            Cart current = cartRepository.findByUserId(userId)
+                    .orElseThrow(() -> new RuntimeException("Cart not found for user: " + userId));
 
-        cart.clearItems();
-        cart.recalculate();
-        Cart savedCart = cartRepository.save(cart);
+            current.clearItems();
+            current.recalculate();
+            return convertToDTO(cartRepository.save(current));
+        });
 
         log.info("Cleared cart for user {}", userId);
-        return convertToDTO(savedCart);
+        return cart;
     }
 
+    // Raw cart rows for checkout, without product details
+    public List<CartLine> getCartLines(Long userId) {
+        return transactionTemplate.execute(status -> cartRepository.findByUserId(userId)
+                .map(cart -> cart.getItems().stream()
+                        .map(item -> new CartLine(item.getId(), item.getProductId(), item.getQuantity()))
+                        .collect(Collectors.toList()))
+                .orElse(List.of()));
+    }
+
+    // Takes the ordered lines out of the cart after checkout, in the caller's transaction. Lines added since
+    // they were read stay in the cart, and a line whose quantity was raised keeps the difference. A line that
+    // was removed or lowered meanwhile fails the checkout, so the order rolls back with it.
+    public void removeOrderedLines(Long userId, List<CartLine> ordered) {
+        Map<Long, Integer> orderedQuantities = ordered.stream()
+                .collect(Collectors.toMap(CartLine::getCartItemId, CartLine::getQuantity, Integer::sum));
+        List<CartItem> locked = cartRepository.findItemsForUpdate(orderedQuantities.keySet());
+        if (locked.size() != orderedQuantities.size()) {
+            throw new RuntimeException("Cart changed during checkout for user " + userId
+                    + ": some ordered lines were removed");
+        }
+        List<Long> toDelete = new ArrayList<>();
+        for (CartItem item : locked) {
+            int remaining = item.getQuantity() - orderedQuantities.get(item.getId());
+            if (remaining < 0) {
+                throw new RuntimeException("Cart changed during checkout for user " + userId
+                        + ": product " + item.getProductId() + " now has quantity " + item.getQuantity());
+            }
+            if (remaining > 0) {
+                item.setQuantity(remaining);
+                item.calculateSubtotal();
+            } else {
+                toDelete.add(item.getId());
+            }
+        }
+        if (!toDelete.isEmpty()) {
+            cartRepository.deleteItemsByIdIn(toDelete);
+        }
+        cartRepository.recalculateTotalsByUserId(userId);
+    }
+
+    // Items start with a placeholder product, replaced by withProductDetails once the transaction is over
     private CartDTO convertToDTO(Cart cart) {
         List<CartItemResponseDTO> items = cart.getItems().stream()
-                .map(item -> {
-                    // Fetch product details for each item
-                    ProductDTO product = productServiceClient.getProductById(item.getProductId());
-                    return new CartItemResponseDTO(product, item.getQuantity(), item.getSubtotal());
-                })
+                .map(item -> new CartItemResponseDTO(
+                        ProductServiceClient.unavailableProduct(item.getProductId()),
+                        item.getQuantity(),
+                        item.getSubtotal()))
                 .collect(Collectors.toList());
 
         return new CartDTO(
@@ -149,4 +210,19 @@ public class CartService {
                 cart.getItemCount()
         );
     }
+
+    // Near-cache first, then one batched lookup for the rest; products that cannot be loaded keep their placeholder
+    private CartDTO withProductDetails(CartDTO cart) {
+        Set<Long> productIds = cart.getItems().stream()
+                .map(item -> item.getProduct().getId())
+                .collect(Collectors.toSet());
+        Map<Long, ProductDTO> products = productNearCache.getAll(productIds, productServiceClient::getProductsByIds);
+        for (CartItemResponseDTO item : cart.getItems()) {
+            ProductDTO product = products.get(item.getProduct().getId());
+            if (product != null) {
+                item.setProduct(product);
+            }
+        }
+        return cart;
+    }
 }
@@ -0,0 +1,92 @@
+package com.example.order_service.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style order numbers: 41 bits of milliseconds since 2024-01-01,
+ * 10 bits of node id and a 12-bit per-millisecond sequence, packed into one
+ * positive long and rendered as {@code ORD-} plus 13 Crockford base32
+ * characters. Fixed width keeps the text in the same order as the number, so
+ * numbers sort by creation time (exactly within a node, to the millisecond
+ * across nodes).
+ *
+ * <p>The last timestamp and sequence live in one {@link AtomicLong} updated by
+ * CAS. When a millisecond's 4096 numbers are used up, or the clock steps
+ * back, the generator borrows the next millisecond instead of waiting.
+ */
+public class OrderNumberGenerator {
+
+    static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int WIDTH = 13; // 63 bits in base32
+
+    private final long nodeBits;
+    private final LongSupplier clock;
+    private final AtomicLong state = new AtomicLong(); // timestamp << SEQUENCE_BITS | sequence
+
+    public OrderNumberGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    OrderNumberGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    public String next() {
+        return format(nextId());
+    }
+
+    long nextId() {
+        long now = clock.getAsLong() - EPOCH_MILLIS;
+        long current;
+        long next;
+        do {
+            current = state.get();
+            long lastTimestamp = current >>> SEQUENCE_BITS;
+            if (now > lastTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                // Same millisecond, or the clock went back: continue after the last number handed out
+                next = current + 1;
+            }
+        } while (!state.compareAndSet(current, next));
+
+        long timestamp = next >>> SEQUENCE_BITS;
+        long sequence = next & SEQUENCE_MASK;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | sequence;
+    }
+
+    static String format(long id) {
+        char[] text = new char[4 + WIDTH];
+        text[0] = 'O';
+        text[1] = 'R';
+        text[2] = 'D';
+        text[3] = '-';
+        for (int i = text.length - 1; i >= 4; i--) {
+            text[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(text);
+    }
+
+    // Stable node id for a pod name, used when none is configured
+    public static int nodeIdFor(String hostname) {
+        int ordinal = hostname.lastIndexOf('-');
+        String suffix = ordinal >= 0 ? hostname.substring(ordinal + 1) : "";
+        if (!suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit) && suffix.length() < 5
+                && Integer.parseInt(suffix) <= MAX_NODE_ID) {
+            return Integer.parseInt(suffix); // StatefulSet ordinal
+        }
+        return Math.floorMod(hostname.hashCode() * 0x9E3779B1, MAX_NODE_ID + 1);
+    }
+}
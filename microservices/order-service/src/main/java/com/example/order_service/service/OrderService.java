@@ -1,25 +1,41 @@
 package com.example.order_service.service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.example.order_service.client.ProductServiceClient;
-import com.example.order_service.dto.CartDTO;
-import com.example.order_service.dto.CartItemResponseDTO;
+import com.example.order_service.dto.ApiResponse;
+import com.example.order_service.dto.CartLine;
 import com.example.order_service.dto.CreateOrderRequest;
 import com.example.order_service.dto.OrderCreatedEvent;
 import com.example.order_service.dto.OrderDTO;
 import com.example.order_service.dto.OrderItemDTO;
+import com.example.order_service.dto.OrderSummaryDTO;
 import com.example.order_service.dto.ProductDTO;
-import com.example.order_service.dto.ProductStockUpdateEvent;
+import com.example.order_service.dto.ReleaseStockBatch;
+import com.example.order_service.dto.ReserveStockBatch;
+import com.example.order_service.dto.StockReservationResult;
 import com.example.order_service.entity.Order;
 import com.example.order_service.entity.OrderItem;
 import com.example.order_service.messaging.OrderMessagePublisher;
+import com.example.order_service.repository.OrderLine;
 import com.example.order_service.repository.OrderRepository;
+import com.example.order_service.repository.OrderRow;
+import com.example.order_service.repository.OrderSummary;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,19 +45,80 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class OrderService {
 
+        public static final int MAX_PAGE_SIZE = 100;
+
         private final OrderRepository orderRepository;
         private final ProductServiceClient productServiceClient;
         private final OrderMessagePublisher messagePublisher;
         private final CartService cartService;
+        private final TransactionTemplate transactionTemplate;
+        private final MeterRegistry meterRegistry;
+        private final OrderNumberGenerator orderNumberGenerator;
+
+        // Admin listing: one keyset page of orders, newest first, and one query for all of their items
+        public ApiResponse<List<OrderDTO>> getOrdersPage(String status, LocalDateTime from, LocalDateTime to,
+                        String cursor, int limit) {
+                List<OrderRow> rows = findOrderRows(parseStatus(status), from, to, OrderCursor.decode(cursor),
+                                limit + 1);
+                boolean hasMore = rows.size() > limit;
+                if (hasMore) {
+                        rows = rows.subList(0, limit);
+                }
 
-        public List<OrderDTO> getAllOrders() {
-                return orderRepository.findAll().stream()
-                                .map(this::convertToDTO)
+                Map<String, Object> metadata = new HashMap<>();
+                metadata.put("hasMore", hasMore);
+                if (hasMore) {
+                        OrderRow last = rows.get(rows.size() - 1);
+                        metadata.put("nextCursor", new OrderCursor(last.getCreatedAt(), last.getId()).encode());
+                }
+                return ApiResponse.success(withItems(rows), "Orders retrieved successfully", metadata);
+        }
+
+        public List<OrderRow> findOrderRows(Order.OrderStatus status, LocalDateTime from, LocalDateTime to,
+                        OrderCursor after, int limit) {
+                return orderRepository.findRows(status, from, to,
+                                after != null ? after.createdAt() : null,
+                                after != null ? after.id() : null,
+                                PageRequest.of(0, limit));
+        }
+
+        // Attaches the items of a page of orders, read in one query
+        public List<OrderDTO> withItems(List<OrderRow> rows) {
+                if (rows.isEmpty()) {
+                        return List.of();
+                }
+                Map<Long, List<OrderItemDTO>> itemsByOrder = new HashMap<>();
+                for (OrderLine line : orderRepository.findLinesByOrderIdIn(
+                                rows.stream().map(OrderRow::getId).collect(Collectors.toList()))) {
+                        itemsByOrder.computeIfAbsent(line.getOrderId(), id -> new ArrayList<>())
+                                        .add(new OrderItemDTO(line.getProductId(), line.getQuantity(), line.getPrice()));
+                }
+                return rows.stream()
+                                .map(row -> new OrderDTO(
+                                                row.getId(),
+                                                row.getOrderNumber(),
+                                                row.getCustomerId(),
+                                                row.getTotalAmount(),
+                                                row.getStatus().name(),
+                                                itemsByOrder.getOrDefault(row.getId(), List.of()),
+                                                row.getShippingAddress(),
+                                                row.getCreatedAt()))
                                 .collect(Collectors.toList());
         }
 
+        public static Order.OrderStatus parseStatus(String status) {
+                if (status == null || status.isEmpty()) {
+                        return null;
+                }
+                try {
+                        return Order.OrderStatus.valueOf(status.toUpperCase());
+                } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Unknown order status: " + status);
+                }
+        }
+
         public OrderDTO getOrderById(Long id) {
-                Order order = orderRepository.findById(id)
+                Order order = orderRepository.findWithItemsById(id)
                                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
                 return convertToDTO(order);
         }
@@ -52,13 +129,39 @@ public class OrderService {
                 return convertToDTO(order);
         }
 
-        public List<OrderDTO> getOrdersByCustomerId(Long customerId) {
-                return orderRepository.findByCustomerId(customerId).stream()
-                                .map(this::convertToDTO)
+        // Account page history: summaries only, newest first; items come from getOrderById
+        public ApiResponse<List<OrderSummaryDTO>> getOrdersByCustomerId(Long customerId, String cursor, int limit) {
+                OrderCursor after = OrderCursor.decode(cursor);
+                List<OrderSummary> summaries = orderRepository.findSummariesByCustomerId(customerId,
+                                after != null ? after.createdAt() : null,
+                                after != null ? after.id() : null,
+                                PageRequest.of(0, limit + 1));
+                boolean hasMore = summaries.size() > limit;
+                if (hasMore) {
+                        summaries = summaries.subList(0, limit);
+                }
+
+                Map<String, Object> metadata = new HashMap<>();
+                metadata.put("hasMore", hasMore);
+                if (hasMore) {
+                        OrderSummary last = summaries.get(summaries.size() - 1);
+                        metadata.put("nextCursor", new OrderCursor(last.getCreatedAt(), last.getId()).encode());
+                }
+
+                List<OrderSummaryDTO> orders = summaries.stream()
+                                .map(summary -> new OrderSummaryDTO(
+                                                summary.getId(),
+                                                summary.getOrderNumber(),
+                                                summary.getCreatedAt(),
+                                                summary.getTotalAmount(),
+                                                summary.getStatus().name(),
+                                                summary.getItemCount()))
                                 .collect(Collectors.toList());
+                return ApiResponse.success(orders, "Customer orders retrieved successfully", metadata);
         }
 
-        @Transactional
+        // Single pass: cart rows are read once, every product is resolved in one batch, and only the
+        // order insert and cart clearing run in a transaction
         public OrderDTO createOrder(CreateOrderRequest request) {
                 log.info("========================================");
                 log.info("📦 CREATING NEW ORDER for Customer ID: {}", request.getCustomerId());
@@ -66,81 +169,111 @@ public class OrderService {
                 // If items is null or empty, pull from cart
                 List<OrderItemDTO> orderItems = request.getItems();
                 boolean fromCart = (orderItems == null || orderItems.isEmpty());
+                List<CartLine> cartLines = List.of();
 
                 if (fromCart) {
                         log.info("🛒 No items provided - pulling from cart");
-                        CartDTO cart = cartService.getCurrentUserCart(request.getCustomerId());
+                        cartLines = cartService.getCartLines(request.getCustomerId());
+                        orderItems = cartLines.stream()
+                                        .map(line -> new OrderItemDTO(line.getProductId(), line.getQuantity(), null))
+                                        .collect(Collectors.toList());
 
-                        if (cart.getItems() == null || cart.getItems().isEmpty()) {
+                        if (orderItems.isEmpty()) {
                                 log.error("❌ Cart is empty for user {}", request.getCustomerId());
                                 throw new RuntimeException("Cannot create order: Cart is empty");
                         }
-
-                        // Convert cart items to order items
-                        orderItems = cart.getItems().stream()
-                                        .map(cartItem -> new OrderItemDTO(
-                                                        cartItem.getProduct().getId(),
-                                                        cartItem.getQuantity(),
-                                                        cartItem.getProduct().getPrice()))
-                                        .collect(Collectors.toList());
-
                         log.info("✓ Retrieved {} items from cart", orderItems.size());
                 }
 
                 log.info("📋 Number of items in order: {}", orderItems.size());
                 log.info("========================================");
 
-                // Create order
-                Order order = new Order();
-                order.setCustomerId(request.getCustomerId());
-                order.setStatus(Order.OrderStatus.PENDING);
-                order.setShippingAddress(request.getShippingAddress());
-
-                BigDecimal totalAmount = BigDecimal.ZERO;
+                // Resolve every product once, fresh from product-service: prices and stock are never taken
+                // from the near-cache or a fallback copy
+                Set<Long> productIds = orderItems.stream()
+                                .map(OrderItemDTO::getProductId)
+                                .collect(Collectors.toSet());
+                Map<Long, ProductDTO> products;
+                try {
+                        products = productServiceClient.getProductsForCheckout(productIds);
+                } catch (RuntimeException e) {
+                        log.error("❌ Could not load products for checkout: {}", e.getMessage());
+                        throw new RuntimeException("Cannot create order: product service is unavailable", e);
+                }
 
-                // Process order items
-                int itemNumber = 1;
+                // Validate stock per product, summing lines that repeat a product
+                Map<Long, Integer> requested = new HashMap<>();
                 for (OrderItemDTO itemDTO : orderItems) {
-                        log.info("Processing item {}/{}: Product ID {}", itemNumber++, orderItems.size(),
-                                        itemDTO.getProductId());
-
-                        // Fetch product details
-                        ProductDTO product = productServiceClient.getProductById(itemDTO.getProductId());
-                        log.info("  ✓ Product found: '{}' (Current stock: {})", product.getName(),
-                                        product.getStockQuantity());
-
-                        // Check if product is available
-                        if (product.getStockQuantity() < itemDTO.getQuantity()) {
+                        requested.merge(itemDTO.getProductId(), itemDTO.getQuantity(), Integer::sum);
+                }
+                for (Map.Entry<Long, Integer> line : requested.entrySet()) {
+                        ProductDTO product = products.get(line.getKey());
+                        if (product == null || Boolean.FALSE.equals(product.getActive())) {
+                                log.error("  ✗ Product {} is not available", line.getKey());
+                                throw new RuntimeException("Product " + line.getKey() + " is not available");
+                        }
+                        if (product.getStockQuantity() < line.getValue()) {
                                 log.error("  ✗ INSUFFICIENT STOCK for product '{}': Available={}, Requested={}",
-                                                product.getName(), product.getStockQuantity(), itemDTO.getQuantity());
+                                                product.getName(), product.getStockQuantity(), line.getValue());
                                 throw new RuntimeException("Product " + product.getName()
                                                 + " is not available in sufficient quantity");
                         }
+                }
+                log.info("  ✓ Stock check passed for {} products", requested.size());
 
-                        log.info("  ✓ Stock check passed: Ordering {} units", itemDTO.getQuantity());
+                // Create order, priced from the resolved products
+                Order order = new Order();
+                order.setOrderNumber(orderNumberGenerator.next());
+                order.setCustomerId(request.getCustomerId());
+                order.setStatus(Order.OrderStatus.PENDING);
+                order.setShippingAddress(request.getShippingAddress());
+
+                BigDecimal totalAmount = BigDecimal.ZERO;
+                for (OrderItemDTO itemDTO : orderItems) {
+                        ProductDTO product = products.get(itemDTO.getProductId());
 
-                        // Create order item
                         OrderItem orderItem = new OrderItem();
                         orderItem.setProductId(product.getId());
                         orderItem.setQuantity(itemDTO.getQuantity());
-                        orderItem.setPrice(itemDTO.getPrice());
+                        orderItem.setPrice(product.getPrice());
 
-                        BigDecimal subtotal = itemDTO.getPrice().multiply(BigDecimal.valueOf(itemDTO.getQuantity()));
+                        BigDecimal subtotal = product.getPrice().multiply(BigDecimal.valueOf(itemDTO.getQuantity()));
                         orderItem.setSubtotal(subtotal);
-                        log.info("  💰 Subtotal: ${}", subtotal);
 
                         order.addOrderItem(orderItem);
                         totalAmount = totalAmount.add(subtotal);
-
-                        // Publish stock reservation event
-                        log.info("  📤 Publishing STOCK RESERVATION event for Product ID {} (Quantity: {})",
-                                        product.getId(), itemDTO.getQuantity());
-                        messagePublisher.publishStockUpdate(
-                                        new ProductStockUpdateEvent(product.getId(), itemDTO.getQuantity(), "RESERVE"));
                 }
-
                 order.setTotalAmount(totalAmount);
-                Order savedOrder = orderRepository.save(order);
+
+                // The order, the cart clearing and its messages commit together
+                List<CartLine> orderedLines = cartLines;
+                Order savedOrder = transactionTemplate.execute(status -> {
+                        Order saved = orderRepository.save(order);
+                        // Take the ordered lines out of the cart; anything added meanwhile stays
+                        if (fromCart) {
+                                cartService.removeOrderedLines(request.getCustomerId(), orderedLines);
+                                log.info("🧹 Removed ordered lines from cart for user {}", request.getCustomerId());
+                        }
+
+                        // Reserve all lines in one request; the reply confirms or cancels the order
+                        messagePublisher.publishReserveStock(new ReserveStockBatch(
+                                        saved.getId(),
+                                        saved.getOrderNumber(),
+                                        saved.getOrderItems().stream()
+                                                        .map(item -> new ReserveStockBatch.Line(item.getProductId(),
+                                                                        item.getQuantity()))
+                                                        .collect(Collectors.toList()),
+                                        System.currentTimeMillis()));
+
+                        // Publish order created event
+                        messagePublisher.publishOrderCreated(
+                                        new OrderCreatedEvent(saved.getId(), saved.getOrderNumber(),
+                                                        saved.getCustomerId(),
+                                                        saved.getOrderItems().stream()
+                                                                        .map(OrderItem::getProductId)
+                                                                        .collect(Collectors.toList())));
+                        return saved;
+                });
 
                 log.info("========================================");
                 log.info("💰 TOTAL ORDER AMOUNT: ${}", totalAmount);
@@ -150,18 +283,6 @@ public class OrderService {
                 log.info("📍 Status: {}", savedOrder.getStatus());
                 log.info("========================================");
 
-                // Publish order created event
-                messagePublisher.publishOrderCreated(
-                                new OrderCreatedEvent(savedOrder.getId(), savedOrder.getOrderNumber(),
-                                                savedOrder.getCustomerId()));
-
-                // Clear cart if order was created from cart
-                if (fromCart) {
-                        log.info("🧹 Clearing cart for user {}", request.getCustomerId());
-                        cartService.clearCart(request.getCustomerId());
-                        log.info("✓ Cart cleared successfully");
-                }
-
                 return convertToDTO(savedOrder);
         }
 
@@ -181,20 +302,67 @@ public class OrderService {
 
         @Transactional
         public void cancelOrder(Long id) {
-                Order order = orderRepository.findById(id)
+                Order order = orderRepository.findForUpdateById(id)
                                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+                if (order.getStatus() == Order.OrderStatus.CANCELLED) {
+                        return;
+                }
 
+                // A pending order's reservation has not been answered yet; its reply releases the stock instead
+                boolean reserved = order.getStatus() != Order.OrderStatus.PENDING;
                 order.setStatus(Order.OrderStatus.CANCELLED);
+                if (reserved) {
+                        releaseStock(order);
+                }
                 orderRepository.save(order);
 
-                // Release reserved stock
-                for (OrderItem item : order.getOrderItems()) {
-                        messagePublisher.publishStockUpdate(
-                                        new ProductStockUpdateEvent(item.getProductId(), item.getQuantity(),
-                                                        "RELEASE"));
+                log.info("Order cancelled: {}", order.getOrderNumber());
+        }
+
+        // Applies the reply to an order's stock reservation; only a pending order changes state
+        @Transactional
+        public void applyReservationResult(StockReservationResult result) {
+                boolean reserved = Boolean.TRUE.equals(result.getReserved());
+                if (result.getRequestedAt() != null) {
+                        meterRegistry.timer("order.stock.reservation.latency", "outcome",
+                                        reserved ? "reserved" : "rejected")
+                                        .record(Duration.ofMillis(System.currentTimeMillis() - result.getRequestedAt()));
                 }
 
-                log.info("Order cancelled: {}", order.getOrderNumber());
+                Order order = orderRepository.findForUpdateById(result.getOrderId()).orElse(null);
+                if (order == null) {
+                        log.warn("Stock reservation reply for unknown order {}", result.getOrderId());
+                        return;
+                }
+                if (order.getStatus() != Order.OrderStatus.PENDING) {
+                        // Cancelled while the reservation was in flight: hand the stock back, once. A confirmed
+                        // order that was cancelled later has already released it, so a replayed reply does nothing
+                        if (reserved && order.getStatus() == Order.OrderStatus.CANCELLED
+                                        && !Boolean.TRUE.equals(order.getStockReleased())) {
+                                releaseStock(order);
+                                orderRepository.save(order);
+                        }
+                        return;
+                }
+
+                order.setStatus(reserved ? Order.OrderStatus.CONFIRMED : Order.OrderStatus.CANCELLED);
+                orderRepository.save(order);
+                if (reserved) {
+                        log.info("✅ Order {} confirmed, stock reserved", order.getOrderNumber());
+                } else {
+                        log.warn("❌ Order {} cancelled: {}", order.getOrderNumber(), result.getReason());
+                }
+        }
+
+        private void releaseStock(Order order) {
+                messagePublisher.publishReleaseStock(new ReleaseStockBatch(
+                                order.getId(),
+                                order.getOrderNumber(),
+                                order.getOrderItems().stream()
+                                                .map(item -> new ReserveStockBatch.Line(item.getProductId(),
+                                                                item.getQuantity()))
+                                                .collect(Collectors.toList())));
+                order.setStockReleased(true);
         }
 
         private OrderDTO convertToDTO(Order order) {
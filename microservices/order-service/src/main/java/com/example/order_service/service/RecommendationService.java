@@ -0,0 +1,158 @@
+package com.example.order_service.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.order_service.dto.RelatedProductDTO;
+import com.example.order_service.recommendation.CoPurchaseModel;
+import com.example.order_service.repository.OrderLine;
+import com.example.order_service.repository.OrderRepository;
+import com.example.order_service.repository.OrderRow;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Owns the in-memory co-purchase model: restores it from the last disk
+ * snapshot at startup, replays the orders created since the snapshot (plus an
+ * overlap window for orders that committed late), and keeps it current from
+ * the order.created stream.
+ */
+@Service
+@Slf4j
+public class RecommendationService {
+
+    private static final int REPLAY_PAGE_SIZE = 500;
+
+    private final OrderRepository orderRepository;
+    private final CoPurchaseModel model;
+    private final Path snapshotPath;
+    private volatile boolean loaded;
+
+    public RecommendationService(OrderRepository orderRepository,
+            @Value("${recommendation.related.max-neighbours}") int maxNeighbours,
+            @Value("${recommendation.replay-overlap-ms}") long replayOverlapMillis,
+            @Value("${recommendation.snapshot-path}") String snapshotPath) {
+        this.orderRepository = orderRepository;
+        this.model = new CoPurchaseModel(maxNeighbours, replayOverlapMillis);
+        this.snapshotPath = Path.of(snapshotPath);
+    }
+
+    public List<RelatedProductDTO> getRelatedProducts(Long productId, int limit) {
+        return model.related(productId, limit);
+    }
+
+    // The event carries no creation time; arrival is a little later, which only widens the next replay
+    public void recordOrder(Long orderId, List<Long> productIds) {
+        model.addOrder(orderId, System.currentTimeMillis(), productIds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        Thread.ofVirtual().name("co-purchase-load").start(this::load);
+    }
+
+    private void load() {
+        long start = System.currentTimeMillis();
+        if (Files.exists(snapshotPath)) {
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+                long coveredUntil = model.readSnapshot(in);
+                log.info("Loaded co-purchase snapshot covering orders created up to {}",
+                        Instant.ofEpochMilli(coveredUntil));
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable co-purchase snapshot {}: {}", snapshotPath, e.getMessage());
+            }
+        }
+
+        try {
+            int replayed = replayOrdersCreatedFrom(model.replayFrom());
+            loaded = true;
+            log.info("Co-purchase model ready in {} ms: {} orders replayed, {} products",
+                    System.currentTimeMillis() - start, replayed, model.productCount());
+        } catch (Exception e) {
+            log.error("Failed to replay orders into co-purchase model: {}", e.getMessage());
+        }
+    }
+
+    // Keyset pages of orders newest first, so memory stays flat however long the history is
+    private int replayOrdersCreatedFrom(long fromMillis) {
+        LocalDateTime from = fromMillis == 0 ? null
+                : LocalDateTime.ofInstant(Instant.ofEpochMilli(fromMillis), ZoneId.systemDefault());
+        LocalDateTime afterCreatedAt = null;
+        Long afterId = null;
+        int replayed = 0;
+        List<OrderRow> rows;
+        do {
+            rows = orderRepository.findRows(null, from, null, afterCreatedAt, afterId,
+                    PageRequest.of(0, REPLAY_PAGE_SIZE));
+            if (rows.isEmpty()) {
+                break;
+            }
+            Map<Long, List<Long>> productIds = orderRepository
+                    .findLinesByOrderIdIn(rows.stream().map(OrderRow::getId).toList()).stream()
+                    .collect(Collectors.groupingBy(OrderLine::getOrderId,
+                            Collectors.mapping(OrderLine::getProductId, Collectors.toList())));
+            for (OrderRow row : rows) {
+                long createdAt = row.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                model.addOrder(row.getId(), createdAt, productIds.getOrDefault(row.getId(), List.of()));
+                replayed++;
+            }
+            OrderRow last = rows.get(rows.size() - 1);
+            afterCreatedAt = last.getCreatedAt();
+            afterId = last.getId();
+        } while (rows.size() == REPLAY_PAGE_SIZE);
+        return replayed;
+    }
+
+    @Scheduled(fixedDelayString = "${recommendation.snapshot-interval-ms}",
+            initialDelayString = "${recommendation.snapshot-interval-ms}")
+    @PreDestroy
+    public void writeSnapshot() {
+        if (!loaded) {
+            return; // never replace a good snapshot with a half-loaded model
+        }
+        // Unique temp names: the write on shutdown may overlap a scheduled one
+        Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            if (snapshotPath.getParent() != null) {
+                Files.createDirectories(snapshotPath.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                model.writeSnapshot(out);
+            }
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Wrote co-purchase snapshot covering orders created up to {}",
+                    Instant.ofEpochMilli(model.getCoveredUntil()));
+        } catch (IOException e) {
+            log.error("Failed to write co-purchase snapshot {}: {}", snapshotPath, e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                log.debug("Could not remove {}: {}", temp, e.getMessage());
+            }
+        }
+    }
+}
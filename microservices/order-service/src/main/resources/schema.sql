@@ -0,0 +1,12 @@
+-- Runs after Hibernate has updated the schema (spring.jpa.defer-datasource-initialization)
+
+-- Tables created while ids were IDENTITY columns already hold rows; move each new
+-- id sequence past them once. Later restarts leave the sequences alone.
+SELECT setval('order_seq', m) FROM (SELECT MAX(id) AS m FROM orders) t
+    WHERE m >= (SELECT last_value FROM order_seq);
+SELECT setval('order_item_seq', m) FROM (SELECT MAX(id) AS m FROM order_items) t
+    WHERE m >= (SELECT last_value FROM order_item_seq);
+SELECT setval('cart_seq', m) FROM (SELECT MAX(id) AS m FROM carts) t
+    WHERE m >= (SELECT last_value FROM cart_seq);
+SELECT setval('cart_item_seq', m) FROM (SELECT MAX(id) AS m FROM cart_items) t
+    WHERE m >= (SELECT last_value FROM cart_item_seq);
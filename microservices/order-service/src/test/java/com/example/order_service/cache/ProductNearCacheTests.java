@@ -0,0 +1,100 @@
+package com.example.order_service.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.order_service.dto.ProductChangedEvent;
+import com.example.order_service.dto.ProductDTO;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ProductNearCacheTests {
+
+    private ProductNearCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductNearCache(new SimpleMeterRegistry(), 100, 30, 300);
+    }
+
+    @Test
+    void olderEventDoesNotOverwriteFreshLoad() {
+        cache.put(product(5L, 10));
+
+        cache.apply(event(3L, 99));
+
+        assertThat(cache.lastKnown(1L)).get().extracting(ProductDTO::getStockQuantity).isEqualTo(10);
+    }
+
+    @Test
+    void eventNewerThanLoadIsApplied() {
+        cache.put(product(5L, 10));
+
+        cache.apply(event(6L, 4));
+
+        ProductDTO cached = cache.lastKnown(1L).orElseThrow();
+        assertThat(cached.getStockQuantity()).isEqualTo(4);
+        assertThat(cached.getChangeVersion()).isEqualTo(6L);
+    }
+
+    @Test
+    void slowReloadDoesNotOverwriteNewerEventState() {
+        cache.put(product(5L, 10));
+        cache.apply(event(7L, 2));
+
+        // reload started before version 7 was committed and finishes after the event arrived
+        cache.put(product(6L, 8));
+
+        ProductDTO cached = cache.lastKnown(1L).orElseThrow();
+        assertThat(cached.getStockQuantity()).isEqualTo(2);
+        assertThat(cached.getChangeVersion()).isEqualTo(7L);
+    }
+
+    @Test
+    void loadAtSameOrNewerVersionReplaces() {
+        cache.put(product(5L, 10));
+
+        cache.put(product(5L, 9));
+        assertThat(cache.lastKnown(1L)).get().extracting(ProductDTO::getStockQuantity).isEqualTo(9);
+
+        cache.put(product(8L, 1));
+        assertThat(cache.lastKnown(1L)).get().extracting(ProductDTO::getStockQuantity).isEqualTo(1);
+
+        cache.apply(event(8L, 50));
+        assertThat(cache.lastKnown(1L)).get().extracting(ProductDTO::getStockQuantity).isEqualTo(1);
+    }
+
+    @Test
+    void eventForUncachedProductIsIgnored() {
+        cache.apply(event(3L, 5));
+
+        assertThat(cache.lastKnown(1L)).isEmpty();
+    }
+
+    private ProductDTO product(Long changeVersion, int stock) {
+        ProductDTO product = new ProductDTO();
+        product.setId(1L);
+        product.setName("Desk lamp");
+        product.setPrice(BigDecimal.valueOf(25));
+        product.setStockQuantity(stock);
+        product.setActive(true);
+        product.setChangeVersion(changeVersion);
+        return product;
+    }
+
+    private ProductChangedEvent event(Long version, int stock) {
+        ProductChangedEvent event = new ProductChangedEvent();
+        event.setProductId(1L);
+        event.setVersion(version);
+        event.setChangeType("UPDATED");
+        event.setName("Desk lamp");
+        event.setPrice(BigDecimal.valueOf(25));
+        event.setStockQuantity(stock);
+        event.setActive(true);
+        return event;
+    }
+}
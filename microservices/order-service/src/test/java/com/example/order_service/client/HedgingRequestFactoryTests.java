@@ -0,0 +1,153 @@
+package com.example.order_service.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class HedgingRequestFactoryTests {
+
+    private static final URI PRODUCTS = URI.create("http://product-service/products/batch?ids=1,2");
+
+    private final ClientHttpRequestFactory delegate = mock(ClientHttpRequestFactory.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Test
+    void primaryAnsweringInTimeIsNotHedged() throws IOException {
+        ClientHttpResponse answer = mock(ClientHttpResponse.class);
+        ClientHttpRequest primary = request(answer);
+        when(delegate.createRequest(PRODUCTS, HttpMethod.GET)).thenReturn(primary);
+
+        ClientHttpResponse response = get(factory(Duration.ofSeconds(5)));
+
+        assertThat(response).isSameAs(answer);
+        verify(delegate, times(1)).createRequest(PRODUCTS, HttpMethod.GET);
+        assertThat(meterRegistry.get("http.client.hedges").counter().count()).isZero();
+    }
+
+    @Test
+    void hedgeThatAnswersFirstWinsAndTheLateAnswerIsClosed() throws IOException {
+        ClientHttpResponse slow = mock(ClientHttpResponse.class);
+        ClientHttpResponse fast = mock(ClientHttpResponse.class);
+        ClientHttpRequest primary = slowRequest(slow);
+        ClientHttpRequest hedge = request(fast);
+        when(delegate.createRequest(PRODUCTS, HttpMethod.GET)).thenReturn(primary, hedge);
+
+        ClientHttpResponse response = get(factory(Duration.ofSeconds(5)));
+
+        assertThat(response).isSameAs(fast);
+        assertThat(meterRegistry.get("http.client.hedges").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("http.client.hedge.wins").counter().count()).isEqualTo(1.0);
+        release.countDown();
+        verify(slow, timeout(5000)).close();
+        verify(fast, never()).close();
+    }
+
+    @Test
+    void callFailsOnlyWhenBothAttemptsFail() throws IOException {
+        ClientHttpRequest primary = failingRequest("primary down", 200);
+        ClientHttpRequest hedge = failingRequest("hedge down", 0);
+        when(delegate.createRequest(PRODUCTS, HttpMethod.GET)).thenReturn(primary, hedge);
+
+        HedgingRequestFactory factory = factory(Duration.ofSeconds(5));
+
+        assertThatThrownBy(() -> get(factory)).isInstanceOf(IOException.class).hasMessage("primary down");
+        verify(delegate, times(2)).createRequest(PRODUCTS, HttpMethod.GET);
+    }
+
+    @Test
+    void answersArrivingAfterTheDeadlineAreClosed() throws IOException {
+        ClientHttpResponse first = mock(ClientHttpResponse.class);
+        ClientHttpResponse second = mock(ClientHttpResponse.class);
+        ClientHttpRequest primary = slowRequest(first);
+        ClientHttpRequest hedge = slowRequest(second);
+        when(delegate.createRequest(PRODUCTS, HttpMethod.GET)).thenReturn(primary, hedge);
+
+        HedgingRequestFactory factory = factory(Duration.ofMillis(100));
+
+        assertThatThrownBy(() -> get(factory)).isInstanceOf(IOException.class).hasMessageContaining("timed out");
+        release.countDown();
+        verify(first, timeout(5000)).close();
+        verify(second, timeout(5000)).close();
+    }
+
+    @Test
+    void requestsThatAreNotGetsGoStraightThrough() throws IOException {
+        HedgingRequestFactory factory = factory(Duration.ofSeconds(5));
+        for (HttpMethod method : new HttpMethod[] { HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH,
+                HttpMethod.DELETE }) {
+            ClientHttpRequest request = mock(ClientHttpRequest.class);
+            when(delegate.createRequest(PRODUCTS, method)).thenReturn(request);
+
+            assertThat(factory.createRequest(PRODUCTS, method)).isSameAs(request);
+        }
+        assertThat(meterRegistry.get("http.client.hedges").counter().count()).isZero();
+    }
+
+    // Hedges after 20 ms, as if the recent p95 were that low
+    private HedgingRequestFactory factory(Duration deadline) {
+        HedgingRequestFactory factory = new HedgingRequestFactory(delegate, "product-service",
+                Duration.ofMillis(20), deadline, 5, meterRegistry);
+        ReflectionTestUtils.setField(factory, "hedgeDelayNanos", TimeUnit.MILLISECONDS.toNanos(20));
+        return factory;
+    }
+
+    private static ClientHttpResponse get(HedgingRequestFactory factory) throws IOException {
+        return factory.createRequest(PRODUCTS, HttpMethod.GET).execute();
+    }
+
+    private static ClientHttpRequest request(ClientHttpResponse response) throws IOException {
+        ClientHttpRequest request = mock(ClientHttpRequest.class);
+        when(request.getHeaders()).thenReturn(new HttpHeaders());
+        when(request.execute()).thenReturn(response);
+        return request;
+    }
+
+    // Answers once released, even when the losing attempt is cancelled, as a response already on the wire would
+    private ClientHttpRequest slowRequest(ClientHttpResponse response) throws IOException {
+        ClientHttpRequest request = mock(ClientHttpRequest.class);
+        when(request.getHeaders()).thenReturn(new HttpHeaders());
+        when(request.execute()).thenAnswer(invocation -> {
+            while (true) {
+                try {
+                    release.await();
+                    return response;
+                } catch (InterruptedException e) {
+                    // keep waiting
+                }
+            }
+        });
+        return request;
+    }
+
+    private static ClientHttpRequest failingRequest(String message, long afterMillis) throws IOException {
+        ClientHttpRequest request = mock(ClientHttpRequest.class);
+        when(request.getHeaders()).thenReturn(new HttpHeaders());
+        when(request.execute()).thenAnswer(invocation -> {
+            Thread.sleep(afterMillis);
+            throw new IOException(message);
+        });
+        return request;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.order_service.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.queryParam;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.order_service.cache.ProductNearCache;
+import com.example.order_service.dto.ProductDTO;
+
+class ProductServiceClientTests {
+
+    private MockRestServiceServer server;
+    private ProductServiceClient client;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        client = new ProductServiceClient(restTemplate, mock(ProductNearCache.class));
+        ReflectionTestUtils.setField(client, "productServiceUrl", "http://product-service");
+    }
+
+    @Test
+    void largeRequestsAreSplitIntoBatchesProductServiceAccepts() {
+        List<Long> ids = new ArrayList<>(LongStream.rangeClosed(1, 450).boxed().toList());
+        ids.add(7L); // duplicates are requested once
+        expectBatch(1, 200);
+        expectBatch(201, 400);
+        expectBatch(401, 450);
+
+        Map<Long, ProductDTO> products = client.getProductsForCheckout(ids);
+
+        server.verify();
+        assertThat(products).hasSize(450);
+        assertThat(products.get(450L).getName()).isEqualTo("Product 450");
+    }
+
+    @Test
+    void noIdsMeansNoRequest() {
+        assertThat(client.getProductsByIds(List.of())).isEmpty();
+
+        server.verify();
+    }
+
+    private void expectBatch(long first, long last) {
+        String ids = LongStream.rangeClosed(first, last).mapToObj(String::valueOf).collect(Collectors.joining(","));
+        String body = LongStream.rangeClosed(first, last)
+                .mapToObj(id -> "{\"id\":" + id + ",\"name\":\"Product " + id + "\"}")
+                .collect(Collectors.joining(",", "{\"success\":true,\"data\":[", "]}"));
+        server.expect(requestTo(startsWith("http://product-service/products/batch")))
+                .andExpect(queryParam("ids", ids))
+                .andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.order_service.recommendation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.order_service.dto.RelatedProductDTO;
+
+class CoPurchaseModelTests {
+
+    private static final long OVERLAP = 60_000;
+
+    @Test
+    void relatedProductsAreRankedByTimesBoughtTogether() {
+        CoPurchaseModel model = new CoPurchaseModel(50, OVERLAP);
+        model.addOrder(1, 1_000, List.of(10L, 20L, 30L));
+        model.addOrder(2, 2_000, List.of(10L, 30L));
+        model.addOrder(3, 3_000, List.of(10L, 30L, 40L, 30L));
+
+        assertThat(model.related(10, 5))
+                .extracting(RelatedProductDTO::getProductId, RelatedProductDTO::getTimesBoughtTogether)
+                .containsExactly(tuple(30L, 3), tuple(20L, 1), tuple(40L, 1));
+        assertThat(model.related(10, 1)).hasSize(1);
+        assertThat(model.related(99, 5)).isEmpty();
+        assertThat(model.getCoveredUntil()).isEqualTo(3_000);
+    }
+
+    @Test
+    void orderSeenTwiceIsCountedOnce() {
+        CoPurchaseModel model = new CoPurchaseModel(50, OVERLAP);
+        model.addOrder(1, 1_000, List.of(10L, 20L));
+        model.addOrder(1, 1_500, List.of(10L, 20L));
+
+        assertThat(model.related(10, 5)).extracting(RelatedProductDTO::getTimesBoughtTogether).containsExactly(1);
+    }
+
+    @Test
+    void neighboursArePrunedToTheStrongest() {
+        CoPurchaseModel model = new CoPurchaseModel(2, OVERLAP);
+        model.addOrder(1, 1_000, List.of(1L, 2L));
+        model.addOrder(2, 1_000, List.of(1L, 2L));
+        model.addOrder(3, 1_000, List.of(1L, 3L));
+        for (long other = 4; other < 20; other++) {
+            model.addOrder(other, 1_000, List.of(1L, other));
+        }
+
+        assertThat(model.related(1, 10)).extracting(RelatedProductDTO::getProductId).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void snapshotRoundTripKeepsCountsAndSkipsOrdersReplayedFromTheOverlap() throws IOException {
+        CoPurchaseModel model = new CoPurchaseModel(50, OVERLAP);
+        model.addOrder(1, 1_000, List.of(10L, 20L));
+        model.addOrder(2, 100_000, List.of(10L, 20L));
+        byte[] snapshot = snapshot(model);
+
+        CoPurchaseModel restored = new CoPurchaseModel(50, OVERLAP);
+        assertThat(restored.readSnapshot(in(snapshot))).isEqualTo(100_000);
+        assertThat(restored.replayFrom()).isEqualTo(100_000 - OVERLAP);
+
+        // replaying the overlap: order 2 is already counted, order 3 committed late with a lower id
+        restored.addOrder(2, 100_000, List.of(10L, 20L));
+        restored.addOrder(0, 99_000, List.of(10L, 20L));
+
+        assertThat(restored.related(20, 5))
+                .extracting(RelatedProductDTO::getProductId, RelatedProductDTO::getTimesBoughtTogether)
+                .containsExactly(tuple(10L, 3));
+    }
+
+    @Test
+    void ordersOlderThanTheOverlapAreNotKeptInTheSnapshot() throws IOException {
+        CoPurchaseModel model = new CoPurchaseModel(50, OVERLAP);
+        model.addOrder(1, 1_000, List.of(10L, 20L));
+        model.addOrder(2, 1_000 + OVERLAP * 2, List.of(10L, 30L));
+
+        CoPurchaseModel restored = new CoPurchaseModel(50, OVERLAP);
+        restored.readSnapshot(in(snapshot(model)));
+        // outside the window, so a replay never returns it; a repeat here would be counted
+        restored.addOrder(1, 1_000, List.of(10L, 20L));
+
+        assertThat(restored.related(20, 5)).extracting(RelatedProductDTO::getTimesBoughtTogether).containsExactly(2);
+    }
+
+    @Test
+    void truncatedSnapshotLeavesTheModelUntouched() throws IOException {
+        CoPurchaseModel model = new CoPurchaseModel(50, OVERLAP);
+        model.addOrder(1, 1_000, List.of(10L, 20L));
+        byte[] snapshot = snapshot(model);
+
+        CoPurchaseModel restored = new CoPurchaseModel(50, OVERLAP);
+        assertThatThrownBy(() -> restored.readSnapshot(in(Arrays.copyOf(snapshot, snapshot.length - 4))))
+                .isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> restored.readSnapshot(in(new byte[] { 1, 2, 3, 4 })))
+                .isInstanceOf(IOException.class);
+
+        assertThat(restored.related(10, 5)).isEmpty();
+        assertThat(restored.getCoveredUntil()).isZero();
+        assertThat(restored.replayFrom()).isZero();
+    }
+
+    private static byte[] snapshot(CoPurchaseModel model) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            model.writeSnapshot(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static DataInputStream in(byte[] snapshot) {
+        return new DataInputStream(new ByteArrayInputStream(snapshot));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.order_service.recommendation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class LongIntCountMapTests {
+
+    @Test
+    void countsSurviveCollisionsAndResizing() {
+        LongIntCountMap map = new LongIntCountMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        // sequential ids, ids that differ only in high bits, and powers of two all share low bits
+        for (long i = 1; i <= 5_000; i++) {
+            for (long key : new long[] { i, i << 32, 1L << (i % 62) }) {
+                map.add(key, (int) (i % 7) + 1);
+                expected.merge(key, (int) (i % 7) + 1, Integer::sum);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        expected.forEach((key, count) -> assertThat(map.get(key)).as("count of %d", key).isEqualTo(count));
+        assertThat(map.get(123_456_789L)).isZero();
+
+        Map<Long, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertThat(visited).isEqualTo(expected);
+    }
+
+    @Test
+    void topKeysOrdersByCountThenKey() {
+        LongIntCountMap map = new LongIntCountMap();
+        map.add(7, 2);
+        map.add(3, 5);
+        map.add(9, 2);
+        map.add(4, 1);
+        map.add(1, 2);
+
+        assertThat(map.topKeys(4)).containsExactly(3L, 1L, 7L, 9L);
+        assertThat(map.topKeys(10)).containsExactly(3L, 1L, 7L, 9L, 4L);
+        assertThat(map.topKeys(0)).isEmpty();
+    }
+
+    @Test
+    void retainKeepsOnlyTheGivenKeysWithTheirCounts() {
+        LongIntCountMap map = new LongIntCountMap();
+        for (long key = 1; key <= 100; key++) {
+            map.add(key, (int) key);
+        }
+
+        LongIntCountMap pruned = map.retain(map.topKeys(3));
+
+        assertThat(pruned.size()).isEqualTo(3);
+        assertThat(pruned.get(100)).isEqualTo(100);
+        assertThat(pruned.get(98)).isEqualTo(98);
+        assertThat(pruned.get(97)).isZero();
+        pruned.add(5, 1);
+        assertThat(pruned.get(5)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.order_service.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.order_service.cache.ProductNearCache;
+import com.example.order_service.client.ProductServiceClient;
+import com.example.order_service.dto.CartLine;
+import com.example.order_service.entity.Cart;
+import com.example.order_service.entity.CartItem;
+import com.example.order_service.entity.Order;
+import com.example.order_service.entity.OrderItem;
+import com.example.order_service.service.CartService;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.sql.init.mode=never"
+})
+class OrderStatementCountTests {
+
+    private static final int LINES = 50;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void fiftyLineOrderIsInsertedInBatches() {
+        Order order = new Order();
+        order.setOrderNumber("ORD-0A8ZVRWT00W8Q");
+        order.setCustomerId(7L);
+        order.setStatus(Order.OrderStatus.PENDING);
+        order.setTotalAmount(BigDecimal.ZERO);
+        for (int i = 0; i < LINES; i++) {
+            OrderItem item = new OrderItem();
+            item.setProductId(100L + i);
+            item.setQuantity(2);
+            item.setPrice(BigDecimal.TEN);
+            item.setSubtotal(BigDecimal.valueOf(20));
+            order.addOrderItem(item);
+            order.setTotalAmount(order.getTotalAmount().add(item.getSubtotal()));
+        }
+
+        orderRepository.save(order);
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(LINES + 1);
+        // a couple of sequence calls + one order insert + one batched item insert, instead of 51 inserts
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(6);
+    }
+
+    @Test
+    void customerHistoryPageIsOneQueryWithoutItems() {
+        for (int n = 0; n < 3; n++) {
+            Order order = new Order();
+            order.setOrderNumber("ORD-0A8ZVRWT00W8" + n);
+            order.setCustomerId(9L);
+            order.setStatus(Order.OrderStatus.CONFIRMED);
+            order.setTotalAmount(BigDecimal.valueOf(20L * LINES));
+            for (int i = 0; i < LINES; i++) {
+                OrderItem item = new OrderItem();
+                item.setProductId(100L + i);
+                item.setQuantity(2);
+                item.setPrice(BigDecimal.TEN);
+                item.setSubtotal(BigDecimal.valueOf(20));
+                order.addOrderItem(item);
+            }
+            orderRepository.save(order);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<OrderSummary> page = orderRepository.findSummariesByCustomerId(9L, null, null, PageRequest.of(0, 2));
+        OrderSummary last = page.get(1);
+        List<OrderSummary> next = orderRepository.findSummariesByCustomerId(9L, last.getCreatedAt(), last.getId(),
+                PageRequest.of(0, 2));
+
+        assertThat(page).hasSize(2);
+        assertThat(page.get(0).getItemCount()).isEqualTo(2L * LINES);
+        assertThat(next).hasSize(1);
+        assertThat(next.get(0).getId()).isNotIn(page.get(0).getId(), last.getId());
+        // one query per page, no order entities or items loaded
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void orderedCartLinesAreRemovedWithBulkStatements() {
+        Cart cart = new Cart();
+        cart.setUserId(7L);
+        for (int i = 0; i < LINES; i++) {
+            CartItem item = new CartItem();
+            item.setProductId(100L + i);
+            item.setQuantity(1);
+            item.setPrice(BigDecimal.TEN);
+            item.calculateSubtotal();
+            cart.addItem(item);
+        }
+        cartRepository.save(cart);
+        entityManager.flush();
+        List<CartLine> ordered = cart.getItems().stream()
+                .map(item -> new CartLine(item.getId(), item.getProductId(), item.getQuantity()))
+                .toList();
+
+        // Between checkout reading the cart and committing the order, one line is raised and one is added
+        CartItem raised = cart.getItems().get(0);
+        raised.setQuantity(3);
+        raised.calculateSubtotal();
+        CartItem added = new CartItem();
+        added.setProductId(999L);
+        added.setQuantity(1);
+        added.setPrice(BigDecimal.TEN);
+        added.calculateSubtotal();
+        cart.addItem(added);
+        cartRepository.save(cart);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        new CartService(cartRepository, mock(ProductServiceClient.class), mock(ProductNearCache.class),
+                mock(TransactionTemplate.class)).removeOrderedLines(7L, ordered);
+        entityManager.flush();
+
+        // lock the ordered rows, lower the raised one, one delete for the rest and one update for the totals
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+        entityManager.clear();
+        Cart remaining = cartRepository.findByUserId(7L).orElseThrow();
+        assertThat(remaining.getItems())
+                .extracting(CartItem::getProductId, CartItem::getQuantity)
+                .containsExactlyInAnyOrder(tuple(100L, 2), tuple(999L, 1));
+        assertThat(remaining.getItemCount()).isEqualTo(3);
+        assertThat(remaining.getTotal()).isEqualByComparingTo("30");
+    }
+}
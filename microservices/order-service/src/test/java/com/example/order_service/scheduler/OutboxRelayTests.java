@@ -0,0 +1,158 @@
+package com.example.order_service.scheduler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.order_service.entity.OutboxMessage;
+import com.example.order_service.repository.OutboxMessageRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OutboxRelayTests {
+
+    private final OutboxMessageRepository repository = mock(OutboxMessageRepository.class);
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final RabbitOperations operations = mock(RabbitOperations.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+    private OutboxRelay relay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        relay = new OutboxRelay(repository, rabbitTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), meterRegistry);
+        ReflectionTestUtils.setField(relay, "batchSize", 2);
+        ReflectionTestUtils.setField(relay, "parallelism", 1);
+        ReflectionTestUtils.setField(relay, "confirmTimeoutMs", 100L);
+
+        when(rabbitTemplate.invoke(any(RabbitOperations.OperationsCallback.class)))
+                .thenAnswer(invocation -> invocation.<RabbitOperations.OperationsCallback<Object>>getArgument(0)
+                        .doInRabbit(operations));
+        doAnswer(invocation -> sent.add(new String(invocation.<Message>getArgument(2).getBody(),
+                StandardCharsets.UTF_8)))
+                .when(operations).send(anyString(), anyString(), any(Message.class));
+        when(repository.tryLockPartition(anyInt(), anyInt())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        relay.shutdown();
+    }
+
+    @Test
+    void confirmedBatchesAreDeletedUntilTheOutboxIsEmpty() throws InterruptedException {
+        when(repository.lockBatch(1, 0, 2))
+                .thenReturn(List.of(message(1L, 7L), message(2L, 7L)), List.of(message(3L, 8L)));
+
+        relay.trigger();
+
+        awaitIdle();
+        assertThat(sent).containsExactly("1", "2", "3");
+        verify(operations, times(2)).waitForConfirmsOrDie(100L);
+        verify(repository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(repository).deleteAllByIdInBatch(List.of(3L));
+        assertThat(meterRegistry.get("order.outbox.published").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void unconfirmedBatchIsKeptAndSentAgain() throws InterruptedException {
+        List<OutboxMessage> batch = List.of(message(1L, 7L));
+        when(repository.lockBatch(1, 0, 2)).thenReturn(batch, batch, List.of());
+        doThrow(new AmqpTimeoutException("no confirm")).doNothing()
+                .when(operations).waitForConfirmsOrDie(anyLong());
+
+        relay.trigger();
+        awaitIdle();
+        verify(repository, never()).deleteAllByIdInBatch(any());
+
+        relay.trigger();
+        verify(repository, timeout(5000)).deleteAllByIdInBatch(List.of(1L));
+        assertThat(sent).containsExactly("1", "1");
+    }
+
+    @Test
+    void workersDrainTheirOwnPartitionsInIdOrder() throws InterruptedException {
+        ReflectionTestUtils.setField(relay, "parallelism", 3);
+        ReflectionTestUtils.setField(relay, "batchSize", 10);
+        List<OutboxMessage> outbox = new ArrayList<>();
+        for (long id = 1; id <= 12; id++) {
+            outbox.add(message(id, 100 + id % 4));
+        }
+        Map<Integer, Integer> reads = new ConcurrentHashMap<>();
+        when(repository.lockBatch(eq(3), anyInt(), eq(10))).thenAnswer(invocation -> {
+            int partition = invocation.getArgument(1);
+            if (reads.merge(partition, 1, Integer::sum) > 1) {
+                return List.of();
+            }
+            return outbox.stream().filter(m -> m.getAggregateId() % 3 == partition).toList();
+        });
+        // another pod holds partition 2
+        when(repository.tryLockPartition(anyInt(), eq(2))).thenReturn(false);
+
+        relay.trigger();
+
+        awaitIdle();
+        assertThat(reads).containsOnlyKeys(0, 1);
+        List<String> expected = outbox.stream()
+                .filter(m -> m.getAggregateId() % 3 != 2)
+                .map(m -> String.valueOf(m.getId()))
+                .collect(Collectors.toList());
+        assertThat(sent).containsExactlyInAnyOrderElementsOf(expected);
+        // each order's messages leave in the order they were written
+        for (long aggregateId = 100; aggregateId < 104; aggregateId++) {
+            long order = aggregateId;
+            List<Long> ids = sent.stream().map(Long::valueOf)
+                    .filter(id -> outbox.get((int) (id - 1)).getAggregateId() == order)
+                    .toList();
+            assertThat(ids).isSorted();
+        }
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        AtomicBoolean running = (AtomicBoolean) ReflectionTestUtils.getField(relay, "running");
+        for (int waited = 0; running.get() && waited < 5000; waited += 5) {
+            Thread.sleep(5);
+        }
+        assertThat(running).isFalse();
+    }
+
+    private OutboxMessage message(Long id, Long orderId) {
+        OutboxMessage message = new OutboxMessage(orderId, "order.created", null, "java.lang.String",
+                String.valueOf(id));
+        message.setId(id);
+        return message;
+    }
+}
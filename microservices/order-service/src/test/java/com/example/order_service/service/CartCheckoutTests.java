@@ -0,0 +1,80 @@
+package com.example.order_service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.order_service.cache.ProductNearCache;
+import com.example.order_service.client.ProductServiceClient;
+import com.example.order_service.dto.CartLine;
+import com.example.order_service.entity.CartItem;
+import com.example.order_service.repository.CartRepository;
+
+class CartCheckoutTests {
+
+    private final CartRepository cartRepository = mock(CartRepository.class);
+    private final CartService cartService = new CartService(cartRepository, mock(ProductServiceClient.class),
+            mock(ProductNearCache.class), new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+    @Test
+    void orderedQuantitiesAreTakenOutAndRaisedLinesKeepTheDifference() {
+        CartItem ordered = item(1L, 10L, 2);
+        CartItem raised = item(2L, 20L, 5);
+        when(cartRepository.findItemsForUpdate(Set.of(1L, 2L))).thenReturn(List.of(ordered, raised));
+
+        cartService.removeOrderedLines(7L, List.of(new CartLine(1L, 10L, 2), new CartLine(2L, 20L, 3)));
+
+        verify(cartRepository).deleteItemsByIdIn(List.of(1L));
+        assertThat(raised.getQuantity()).isEqualTo(2);
+        assertThat(raised.getSubtotal()).isEqualByComparingTo("20");
+        verify(cartRepository).recalculateTotalsByUserId(7L);
+    }
+
+    @Test
+    void lineRemovedDuringCheckoutFailsTheOrder() {
+        when(cartRepository.findItemsForUpdate(Set.of(1L, 2L))).thenReturn(List.of(item(1L, 10L, 2)));
+
+        assertThatThrownBy(() -> cartService.removeOrderedLines(7L,
+                List.of(new CartLine(1L, 10L, 2), new CartLine(2L, 20L, 3))))
+                .hasMessageContaining("Cart changed during checkout");
+
+        verify(cartRepository, never()).deleteItemsByIdIn(any());
+        verify(cartRepository, never()).recalculateTotalsByUserId(anyLong());
+    }
+
+    @Test
+    void lineLoweredDuringCheckoutFailsTheOrder() {
+        CartItem lowered = item(1L, 10L, 1);
+        when(cartRepository.findItemsForUpdate(Set.of(1L))).thenReturn(List.of(lowered));
+
+        assertThatThrownBy(() -> cartService.removeOrderedLines(7L, List.of(new CartLine(1L, 10L, 2))))
+                .hasMessageContaining("product 10 now has quantity 1");
+
+        assertThat(lowered.getQuantity()).isEqualTo(1);
+        verify(cartRepository, never()).deleteItemsByIdIn(any());
+        verify(cartRepository, never()).recalculateTotalsByUserId(anyLong());
+    }
+
+    private static CartItem item(Long id, Long productId, int quantity) {
+        CartItem item = new CartItem();
+        item.setId(id);
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        item.setPrice(BigDecimal.TEN);
+        item.calculateSubtotal();
+        return item;
+    }
+}
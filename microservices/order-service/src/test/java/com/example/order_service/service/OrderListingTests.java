@@ -0,0 +1,196 @@
+package com.example.order_service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.order_service.client.ProductServiceClient;
+import com.example.order_service.dto.ApiResponse;
+import com.example.order_service.dto.OrderDTO;
+import com.example.order_service.entity.Order;
+import com.example.order_service.entity.OrderItem;
+import com.example.order_service.messaging.OrderMessagePublisher;
+import com.example.order_service.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.mode=never"
+})
+class OrderListingTests {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        orderService = new OrderService(orderRepository, mock(ProductServiceClient.class),
+                mock(OrderMessagePublisher.class), mock(CartService.class), mock(TransactionTemplate.class),
+                new SimpleMeterRegistry(), mock(OrderNumberGenerator.class));
+    }
+
+    @Test
+    void adminListingPagesThroughEveryOrderNewestFirstWithItems() {
+        List<String> created = new ArrayList<>();
+        for (int n = 0; n < 5; n++) {
+            created.add(0, order(n, Order.OrderStatus.CONFIRMED, T0.plusMinutes(n)));
+        }
+
+        List<OrderDTO> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        ApiResponse<List<OrderDTO>> page;
+        do {
+            page = orderService.getOrdersPage(null, null, null, cursor, 2);
+            seen.addAll(page.getData());
+            pageSizes.add(page.getData().size());
+            cursor = (String) page.getMetadata().get("nextCursor");
+        } while (Boolean.TRUE.equals(page.getMetadata().get("hasMore")));
+
+        assertThat(seen).extracting(OrderDTO::getOrderNumber).containsExactlyElementsOf(created);
+        assertThat(pageSizes).containsExactly(2, 2, 1);
+        assertThat(cursor).isNull();
+        assertThat(seen).allSatisfy(order -> assertThat(order.getItems()).hasSize(2));
+    }
+
+    @Test
+    void statusAndCreationWindowFilterTheListing() {
+        order(0, Order.OrderStatus.PENDING, T0);
+        String inWindow = order(1, Order.OrderStatus.CANCELLED, T0.plusHours(1));
+        order(2, Order.OrderStatus.CONFIRMED, T0.plusHours(1));
+        order(3, Order.OrderStatus.CANCELLED, T0.plusHours(2));
+        String atFrom = order(4, Order.OrderStatus.CANCELLED, T0);
+
+        ApiResponse<List<OrderDTO>> page = orderService.getOrdersPage("cancelled", T0, T0.plusHours(2), null, 10);
+
+        // from is inclusive, to is exclusive
+        assertThat(page.getData()).extracting(OrderDTO::getOrderNumber).containsExactly(inWindow, atFrom);
+        assertThat(page.getMetadata()).containsEntry("hasMore", false);
+        assertThat(orderService.getOrdersPage(null, T0.plusHours(1), null, null, 10).getData())
+                .hasSize(3);
+        assertThatThrownBy(() -> orderService.getOrdersPage("lost", null, null, null, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void ordersCreatedInTheSameInstantAreSplitAcrossPagesByIdWithoutGapsOrRepeats() {
+        List<String> created = new ArrayList<>();
+        for (int n = 0; n < 5; n++) {
+            created.add(0, order(n, Order.OrderStatus.PENDING, T0));
+        }
+        order(5, Order.OrderStatus.PENDING, T0.minusSeconds(1));
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        for (int pages = 0; pages < 3; pages++) {
+            ApiResponse<List<OrderDTO>> page = orderService.getOrdersPage("PENDING", null, null, cursor, 2);
+            page.getData().forEach(order -> seen.add(order.getOrderNumber()));
+            cursor = (String) page.getMetadata().get("nextCursor");
+        }
+
+        assertThat(seen.subList(0, 5)).containsExactlyElementsOf(created);
+        assertThat(seen).hasSize(6).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void cursorRoundTripsAndTamperedCursorsAreRejected() {
+        OrderCursor cursor = new OrderCursor(T0.plusNanos(123_000), 42L);
+
+        assertThat(OrderCursor.decode(cursor.encode())).isEqualTo(cursor);
+        assertThat(OrderCursor.decode(null)).isNull();
+        for (String tampered : List.of("not base64!", encode("2026-03-01T12:00"), encode("yesterday|42"),
+                encode("2026-03-01T12:00|forty-two"))) {
+            assertThatThrownBy(() -> OrderCursor.decode(tampered))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageStartingWith("Invalid cursor");
+        }
+    }
+
+    @Test
+    void exportWritesEveryPageAsCsvLinesPerItemOrNdjsonPerOrder() throws Exception {
+        List<String> created = new ArrayList<>();
+        for (int n = 0; n < 3; n++) {
+            created.add(0, order(n, Order.OrderStatus.DELIVERED, T0.plusMinutes(n)));
+        }
+        order(3, Order.OrderStatus.CANCELLED, T0);
+        OrderExportService exportService = new OrderExportService(orderService, objectMapper, 2);
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        long exported = exportService.export("CSV", Order.OrderStatus.DELIVERED, null, null, csv);
+
+        assertThat(exported).isEqualTo(3);
+        List<String> lines = csv.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(1 + 3 * 2);
+        assertThat(lines.get(0)).isEqualTo("orderNumber,createdAt,customerId,status,totalAmount,productId,quantity,price");
+        assertThat(lines.get(1)).isEqualTo(created.get(0) + "," + T0.plusMinutes(2) + ",7,DELIVERED,30.00,100,1,10.00");
+        assertThat(lines.get(2)).isEqualTo(created.get(0) + "," + T0.plusMinutes(2) + ",7,DELIVERED,30.00,101,2,10.00");
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        exportService.export("NDJSON", null, null, null, ndjson);
+
+        List<OrderDTO> orders = new ArrayList<>();
+        for (String line : ndjson.toString(StandardCharsets.UTF_8).lines().toList()) {
+            orders.add(objectMapper.readValue(line, OrderDTO.class));
+        }
+        assertThat(orders).hasSize(4);
+        assertThat(orders.get(0).getOrderNumber()).isEqualTo(created.get(0));
+        assertThat(orders.get(0).getCreatedAt()).isEqualTo(T0.plusMinutes(2));
+        assertThat(orders.get(0).getItems()).extracting("productId").containsExactly(100L, 101L);
+        assertThatThrownBy(() -> OrderExportService.parseFormat("xlsx"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Saves an order with two lines, then moves its creation time, which the entity otherwise sets itself
+    private String order(int n, Order.OrderStatus status, LocalDateTime createdAt) {
+        Order order = new Order();
+        order.setOrderNumber(String.format("ORD-%013d", n));
+        order.setCustomerId(7L);
+        order.setStatus(status);
+        order.setTotalAmount(BigDecimal.valueOf(30));
+        for (int i = 0; i < 2; i++) {
+            OrderItem item = new OrderItem();
+            item.setProductId(100L + i);
+            item.setQuantity(i + 1);
+            item.setPrice(BigDecimal.TEN);
+            item.setSubtotal(BigDecimal.TEN.multiply(BigDecimal.valueOf(i + 1)));
+            order.addOrderItem(item);
+        }
+        Long id = orderRepository.saveAndFlush(order).getId();
+        entityManager.createQuery("update Order o set o.createdAt = :createdAt where o.id = :id")
+                .setParameter("createdAt", createdAt)
+                .setParameter("id", id)
+                .executeUpdate();
+        entityManager.clear();
+        return order.getOrderNumber();
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.order_service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.order_service.client.ProductServiceClient;
+import com.example.order_service.dto.ReleaseStockBatch;
+import com.example.order_service.dto.StockReservationResult;
+import com.example.order_service.entity.Order;
+import com.example.order_service.entity.OrderItem;
+import com.example.order_service.messaging.OrderMessagePublisher;
+import com.example.order_service.repository.OrderRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class StockReleaseTests {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderMessagePublisher messagePublisher = mock(OrderMessagePublisher.class);
+    private OrderService orderService;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        orderService = new OrderService(orderRepository, mock(ProductServiceClient.class),
+                messagePublisher, mock(CartService.class),
+                mock(TransactionTemplate.class), new SimpleMeterRegistry(), mock(OrderNumberGenerator.class));
+
+        order = new Order();
+        order.setId(42L);
+        order.setOrderNumber("ORD-0A8ZVRWT00W8Q");
+        order.setCustomerId(7L);
+        order.setTotalAmount(BigDecimal.valueOf(30));
+        order.setStatus(Order.OrderStatus.PENDING);
+        for (long productId = 1; productId <= 2; productId++) {
+            OrderItem item = new OrderItem();
+            item.setProductId(productId);
+            item.setQuantity(1);
+            item.setPrice(BigDecimal.valueOf(15));
+            item.setSubtotal(BigDecimal.valueOf(15));
+            order.addOrderItem(item);
+        }
+        when(orderRepository.findForUpdateById(42L)).thenReturn(Optional.of(order));
+        when(orderRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void replyAfterCancelWhilePendingDeliveredTwiceReleasesOnce() {
+        orderService.cancelOrder(42L);
+        verify(messagePublisher, never()).publishReleaseStock(any());
+
+        orderService.applyReservationResult(reserved());
+        orderService.applyReservationResult(reserved());
+
+        verify(messagePublisher, times(1)).publishReleaseStock(any(ReleaseStockBatch.class));
+        assertThat(order.getStatus()).isEqualTo(Order.OrderStatus.CANCELLED);
+        assertThat(order.getStockReleased()).isTrue();
+    }
+
+    @Test
+    void replayedReplyAfterCancellingConfirmedOrderDoesNotReleaseAgain() {
+        orderService.applyReservationResult(reserved());
+        assertThat(order.getStatus()).isEqualTo(Order.OrderStatus.CONFIRMED);
+
+        orderService.cancelOrder(42L);
+        orderService.applyReservationResult(reserved());
+        orderService.cancelOrder(42L);
+
+        verify(messagePublisher, times(1)).publishReleaseStock(any(ReleaseStockBatch.class));
+    }
+
+    @Test
+    void rejectedReplyAfterCancelReleasesNothing() {
+        orderService.cancelOrder(42L);
+        orderService.applyReservationResult(new StockReservationResult(42L, order.getOrderNumber(), false,
+                "Insufficient stock", List.of(1L), null));
+
+        verify(messagePublisher, never()).publishReleaseStock(any());
+    }
+
+    private StockReservationResult reserved() {
+        return new StockReservationResult(42L, order.getOrderNumber(), true, null, List.of(), null);
+    }
+}
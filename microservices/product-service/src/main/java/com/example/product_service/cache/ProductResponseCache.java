@@ -0,0 +1,76 @@
+package com.example.product_service.cache;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Serialized {@code GET /products/{id}} response bodies, keyed by product id
+ * and tagged with the change version they were rendered from. A lookup with a
+ * newer version misses and re-renders, so entries never need explicit
+ * invalidation; the change feed still evicts them early to free memory.
+ */
+@Component
+@Slf4j
+public class ProductResponseCache {
+
+    private record Entry(long version, byte[] body) {
+    }
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final Counter hits;
+    private final Counter misses;
+
+    @Value("${product.response-cache.max-entries}")
+    private int maxEntries;
+
+    public ProductResponseCache(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.hits = meterRegistry.counter("product.response.cache", "result", "hit");
+        this.misses = meterRegistry.counter("product.response.cache", "result", "miss");
+        meterRegistry.gauge("product.response.cache.size", entries, ConcurrentHashMap::size);
+    }
+
+    /** JSON bytes of the response for this product version, rendering and caching them on a miss. */
+    public byte[] get(Long productId, long version, Supplier<?> response) {
+        Entry cached = entries.get(productId);
+        if (cached != null && cached.version() == version) {
+            hits.increment();
+            return cached.body();
+        }
+
+        misses.increment();
+        byte[] body = objectMapper.writeValueAsBytes(response.get());
+        if (cached == null && entries.size() >= maxEntries) {
+            evictSome();
+        }
+        // A concurrent miss may have cached a newer version meanwhile; keep whichever is newer
+        Entry rendered = new Entry(version, body);
+        entries.merge(productId, rendered, (current, fresh) -> current.version() >= fresh.version() ? current : fresh);
+        return body;
+    }
+
+    public void evict(Long productId) {
+        entries.remove(productId);
+    }
+
+    // Approximate bound: drops an arbitrary tenth of the entries instead of tracking recency on every hit
+    private void evictSome() {
+        int toRemove = Math.max(1, maxEntries / 10);
+        Iterator<Long> keys = entries.keySet().iterator();
+        while (toRemove-- > 0 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+        log.debug("Product response cache full, evicted down to {} entries", entries.size());
+    }
+}
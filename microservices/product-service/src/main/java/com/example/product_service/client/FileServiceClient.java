@@ -1,9 +1,9 @@
 package com.example.product_service.client;
 
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -32,12 +32,8 @@ public class FileServiceClient {
             headers.setContentType(MediaType.MULTIPART_FORM_DATA);
 
             MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-            body.add("file", new ByteArrayResource(file.getBytes()) {
-                @Override
-                public String getFilename() {
-                    return file.getOriginalFilename();
-                }
-            });
+            // Streamed from the servlet temp file instead of being buffered with getBytes()
+            body.add("file", file.getResource());
 
             HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
 
@@ -98,4 +94,35 @@ public class FileServiceClient {
             // Don't throw exception, just log the error since deletion failure shouldn't block the update
         }
     }
+
+    public boolean deleteFiles(List<String> filePaths) {
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+
+            Map<String, List<String>> body = Map.of("paths", filePaths);
+            HttpEntity<Map<String, List<String>>> requestEntity = new HttpEntity<>(body, headers);
+
+            @SuppressWarnings("unchecked")
+            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                    FILE_SERVICE_URL + "/files/batch",
+                    org.springframework.http.HttpMethod.DELETE,
+                    requestEntity,
+                    (Class<Map<String, Object>>) (Class<?>) Map.class
+            );
+
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null
+                    && Boolean.TRUE.equals(response.getBody().get("success"))) {
+                log.info("Bulk delete handled {} file(s), {} deleted", filePaths.size(),
+                        response.getBody().get("deleted"));
+                return true;
+            }
+            log.error("Bulk delete rejected by file-service: {}", response.getBody());
+            return false;
+
+        } catch (Exception e) {
+            log.error("Error bulk deleting files from file-service: {}", e.getMessage());
+            return false;
+        }
+    }
 }
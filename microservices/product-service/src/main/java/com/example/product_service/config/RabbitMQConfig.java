@@ -1,15 +1,21 @@
 package com.example.product_service.config;
 
+import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.retry.RepublishMessageRecoverer;
 // Use the new Jackson 3 classes (No '2')
 import org.springframework.amqp.support.converter.JacksonJsonMessageConverter;
 import org.springframework.amqp.support.converter.JacksonJavaTypeMapper;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.amqp.autoconfigure.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -19,6 +25,15 @@ public class RabbitMQConfig {
     public static final String ORDER_EXCHANGE = "order.exchange";
     public static final String PRODUCT_QUEUE = "product.queue";
     public static final String PRODUCT_ROUTING_KEY = "product.stock.update";
+    public static final String PRODUCT_CHANGED_ROUTING_KEY = "product.changed";
+    public static final String STOCK_RESERVE_QUEUE = "product.reserve.queue";
+    public static final String STOCK_RESERVE_ROUTING_KEY = "product.stock.reserve";
+    public static final String STOCK_RESERVED_ROUTING_KEY = "order.stock.reserved";
+    public static final String STOCK_RESERVE_DLQ = "product.reserve.dlq";
+    public static final String STOCK_RESERVE_DLQ_ROUTING_KEY = "product.stock.reserve.failed";
+    public static final String STOCK_RESERVE_CONTAINER_FACTORY = "stockReserveContainerFactory";
+    public static final String STOCK_RELEASE_QUEUE = "product.release.queue";
+    public static final String STOCK_RELEASE_ROUTING_KEY = "product.stock.release";
 
     @Bean
     public Queue productQueue() {
@@ -38,6 +53,81 @@ public class RabbitMQConfig {
                 .with(PRODUCT_ROUTING_KEY);
     }
 
+    @Bean
+    public Queue stockReserveQueue() {
+        return new Queue(STOCK_RESERVE_QUEUE, true);
+    }
+
+    @Bean
+    public Binding stockReserveBinding(Queue stockReserveQueue, TopicExchange orderExchange) {
+        return BindingBuilder
+                .bind(stockReserveQueue)
+                .to(orderExchange)
+                .with(STOCK_RESERVE_ROUTING_KEY);
+    }
+
+    // Reservation requests that kept failing, with the exception in the x-exception-* headers. Moving them
+    // back to product.reserve.queue replays them; already handled orders get their recorded answer.
+    @Bean
+    public Queue stockReserveDeadLetterQueue() {
+        return new Queue(STOCK_RESERVE_DLQ, true);
+    }
+
+    @Bean
+    public Binding stockReserveDeadLetterBinding(Queue stockReserveDeadLetterQueue, TopicExchange orderExchange) {
+        return BindingBuilder
+                .bind(stockReserveDeadLetterQueue)
+                .to(orderExchange)
+                .with(STOCK_RESERVE_DLQ_ROUTING_KEY);
+    }
+
+    // Retries in the listener, then republishes to the dead-letter queue instead of requeueing forever.
+    // Republishing leaves product.reserve.queue's arguments as they are, so existing brokers need no change.
+    @Bean(STOCK_RESERVE_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory stockReserveContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            RabbitTemplate rabbitTemplate,
+            @Value("${product.stock-reserve.max-retries}") int maxRetries,
+            @Value("${product.stock-reserve.retry-initial-ms}") long retryInitialMillis,
+            @Value("${product.stock-reserve.retry-max-ms}") long retryMaxMillis) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+                .maxRetries(maxRetries)
+                .backOffOptions(retryInitialMillis, 2.0, retryMaxMillis)
+                .recoverer(new RepublishMessageRecoverer(rabbitTemplate, ORDER_EXCHANGE,
+                        STOCK_RESERVE_DLQ_ROUTING_KEY))
+                .build());
+        return factory;
+    }
+
+    @Bean
+    public Queue stockReleaseQueue() {
+        return new Queue(STOCK_RELEASE_QUEUE, true);
+    }
+
+    @Bean
+    public Binding stockReleaseBinding(Queue stockReleaseQueue, TopicExchange orderExchange) {
+        return BindingBuilder
+                .bind(stockReleaseQueue)
+                .to(orderExchange)
+                .with(STOCK_RELEASE_ROUTING_KEY);
+    }
+
+    // Per-pod, auto-delete queue feeding the local in-memory indexes
+    @Bean
+    public Queue productChangeFeedQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding productChangeFeedBinding(Queue productChangeFeedQueue, TopicExchange orderExchange) {
+        return BindingBuilder
+                .bind(productChangeFeedQueue)
+                .to(orderExchange)
+                .with(PRODUCT_CHANGED_ROUTING_KEY);
+    }
+
     @Bean
     public MessageConverter messageConverter() {
         JacksonJsonMessageConverter converter = new JacksonJsonMessageConverter();
@@ -1,14 +1,48 @@
 package com.example.product_service.config;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import com.example.product_service.client.ConcurrencyLimitRequestFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+
 @Configuration
 public class RestTemplateConfig {
 
+    @Value("${file.service.connect-timeout-ms}")
+    private long connectTimeoutMs;
+
+    @Value("${file.service.read-timeout-ms}")
+    private long readTimeoutMs;
+
+    @Value("${file.service.max-in-flight}")
+    private int maxInFlight;
+
+    // JDK client: pooled keep-alive HTTP/1.1 connections, bounded connect and response times
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+
+        // No interceptors: they would make RestTemplate buffer every upload in memory
+        RestTemplate restTemplate = new RestTemplate(new ConcurrencyLimitRequestFactory(requestFactory,
+                "file-service", maxInFlight, 1000, meterRegistry));
+        // Per-call timings as http.client.requests
+        restTemplate.setObservationRegistry(observationRegistry);
+        return restTemplate;
     }
 }
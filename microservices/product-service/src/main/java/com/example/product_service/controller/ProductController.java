@@ -1,28 +1,51 @@
 package com.example.product_service.controller;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
-import com.example.product_service.client.FileServiceClient;
+import com.example.product_service.cache.ProductResponseCache;
 import com.example.product_service.dto.ApiResponse;
+import com.example.product_service.dto.BulkProductUpdateRequest;
+import com.example.product_service.dto.BulkProductUpdateResult;
 import com.example.product_service.dto.CreateProductRequest;
+import com.example.product_service.dto.ImportJobStatus;
+import com.example.product_service.dto.ProductChangedEvent;
 import com.example.product_service.dto.ProductDTO;
+import com.example.product_service.dto.SuggestionsDTO;
+import com.example.product_service.listing.ProductSort;
+import com.example.product_service.repository.ProductFields;
+import com.example.product_service.repository.ProductVersion;
+import com.example.product_service.service.ImageUploadService;
+import com.example.product_service.service.ProductBulkUpdateService;
+import com.example.product_service.service.ProductImportService;
 import com.example.product_service.service.ProductService;
+import com.example.product_service.snapshot.CatalogSnapshot;
+import com.example.product_service.trending.ProductViewCounter;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 import lombok.RequiredArgsConstructor;
 
@@ -31,38 +54,180 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class ProductController {
 
+    private static final int MAX_BATCH_IDS = 200;
+
     private final ProductService productService;
-    private final FileServiceClient fileServiceClient;
+    private final ImageUploadService imageUploadService;
+    private final ProductImportService productImportService;
+    private final ProductBulkUpdateService productBulkUpdateService;
+    private final ProductResponseCache productResponseCache;
+    private final ProductViewCounter productViewCounter;
+    private final CatalogSnapshot catalogSnapshot;
 
     @GetMapping
     public ResponseEntity<ApiResponse<?>> getAllProducts(
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "10") int limit,
             @RequestParam(required = false) String search,
-            @RequestParam(defaultValue = "true") boolean paginated) {
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String fields,
+            @RequestParam(defaultValue = "true") boolean paginated,
+            WebRequest webRequest) {
+
+        ProductSort productSort;
+        ProductFields productFields;
+        try {
+            productSort = ProductSort.fromParam(sort);
+            productFields = ProductFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, e.getMessage()));
+        }
 
-        if (paginated) {
-            return ResponseEntity.ok(productService.getAllProductsPaginated(page, limit, search));
+        if (webRequest.checkNotModified(catalogETag())) {
+            return null;
+        }
+
+        if (paginated && productFields != null) {
+            return ResponseEntity.ok(
+                    productService.getAllProductsPaginated(page, limit, search, productSort, productFields));
+        } else if (paginated) {
+            return ResponseEntity.ok(productService.getAllProductsPaginated(page, limit, search, productSort));
+        } else if (productFields != null) {
+            List<Map<String, Object>> products = productService.getAllProducts(productFields);
+            return ResponseEntity.ok(ApiResponse.success(products, "Products retrieved successfully"));
         } else {
             List<ProductDTO> products = productService.getAllProducts();
             return ResponseEntity.ok(ApiResponse.success(products, "Products retrieved successfully"));
         }
     }
 
+    @GetMapping("/changes")
+    public ResponseEntity<ApiResponse<List<ProductChangedEvent>>> getProductChanges(
+            @RequestParam(defaultValue = "0") long sinceVersion,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(productService.getChangesSince(sinceVersion, Math.min(Math.max(limit, 1), 5000)));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<ProductDTO>> getProductById(@PathVariable Long id) {
+    public ResponseEntity<?> getProductById(@PathVariable Long id,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        ProductFields productFields;
+        try {
+            productFields = ProductFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, e.getMessage()));
+        }
+
+        // While the pod warms up, unchanged products are answered from the mapped catalog snapshot
+        if (productFields == null) {
+            Optional<CatalogSnapshot.SnapshotProduct> cached = catalogSnapshot.find(id);
+            if (cached.isPresent()) {
+                productViewCounter.record(id);
+                ProductDTO product = cached.get().product();
+                String eTag = "W/\"" + id + "-" + cached.get().changeVersion() + "\"";
+                long lastModified = product.getUpdatedAt() != null
+                        ? product.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                        : -1;
+                if (webRequest.checkNotModified(eTag, lastModified)) {
+                    return null;
+                }
+                return ResponseEntity.ok(ApiResponse.success(product, "Product retrieved successfully"));
+            }
+        }
+
+        // Answer revalidations from the version columns alone, before the product is loaded
+        Optional<ProductVersion> version = productService.findProductVersion(id);
+        if (version.isPresent()) {
+            productViewCounter.record(id);
+            String eTag = "W/\"" + id + "-" + version.get().getChangeVersion() + "\"";
+            long lastModified = version.get().getUpdatedAt() != null
+                    ? version.get().getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                    : -1;
+            if (webRequest.checkNotModified(eTag, lastModified)) {
+                return null;
+            }
+
+            // Full responses are written from pre-serialized bytes for this product version
+            Long changeVersion = version.get().getChangeVersion();
+            if (productFields == null && changeVersion != null) {
+                byte[] body = productResponseCache.get(id, changeVersion, () -> ApiResponse.success(
+                        productService.getProductById(id), "Product retrieved successfully"));
+                return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+            }
+        }
+
+        if (productFields != null) {
+            Map<String, Object> product = productService.getProductById(id, productFields);
+            return ResponseEntity.ok(ApiResponse.success(product, "Product retrieved successfully"));
+        }
         ProductDTO product = productService.getProductById(id);
         return ResponseEntity.ok(ApiResponse.success(product, "Product retrieved successfully"));
     }
 
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<List<ProductDTO>>> searchProducts(@RequestParam String name) {
+    public ResponseEntity<ApiResponse<?>> searchProducts(@RequestParam String name,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        ProductFields productFields;
+        try {
+            productFields = ProductFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, e.getMessage()));
+        }
+        if (webRequest.checkNotModified(catalogETag())) {
+            return null;
+        }
+        if (productFields != null) {
+            List<Map<String, Object>> products = productService.searchProducts(name, productFields);
+            return ResponseEntity.ok(ApiResponse.success(products, "Search results retrieved successfully"));
+        }
         List<ProductDTO> products = productService.searchProducts(name);
         return ResponseEntity.ok(ApiResponse.success(products, "Search results retrieved successfully"));
     }
 
+    @GetMapping("/batch")
+    public ResponseEntity<ApiResponse<List<ProductDTO>>> getProductsByIds(@RequestParam List<Long> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "At most " + MAX_BATCH_IDS + " ids can be requested at once"));
+        }
+        List<ProductDTO> products = productService.getProductsByIds(ids);
+        return ResponseEntity.ok(ApiResponse.success(products, "Products retrieved successfully"));
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<ApiResponse<List<ProductDTO>>> getTrendingProducts(
+            @RequestParam(defaultValue = "10") int limit) {
+        List<ProductDTO> products = productService.getTrendingProducts(Math.min(Math.max(limit, 1), 100));
+        return ResponseEntity.ok(ApiResponse.success(products, "Trending products retrieved successfully"));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<SuggestionsDTO>> suggestProducts(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        SuggestionsDTO suggestions = productService.getSuggestions(prefix, Math.min(Math.max(limit, 1), 20));
+        return ResponseEntity.ok(ApiResponse.success(suggestions, "Suggestions retrieved successfully"));
+    }
+
     @GetMapping("/category/{category}")
-    public ResponseEntity<ApiResponse<List<ProductDTO>>> getProductsByCategory(@PathVariable String category) {
+    public ResponseEntity<ApiResponse<?>> getProductsByCategory(@PathVariable String category,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        ProductFields productFields;
+        try {
+            productFields = ProductFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, e.getMessage()));
+        }
+        if (webRequest.checkNotModified(catalogETag())) {
+            return null;
+        }
+        if (productFields != null) {
+            List<Map<String, Object>> products = productService.getProductsByCategory(category, productFields);
+            return ResponseEntity.ok(ApiResponse.success(products, "Products retrieved successfully"));
+        }
         List<ProductDTO> products = productService.getProductsByCategory(category);
         return ResponseEntity.ok(ApiResponse.success(products, "Products retrieved successfully"));
     }
@@ -79,23 +244,29 @@ public class ProductController {
             @RequestPart("mainImage") MultipartFile mainImage,
             @RequestPart(value = "secondaryImages", required = false) List<MultipartFile> secondaryImages) {
 
-        // Upload main image to file-service
-        String mainImageUrl = fileServiceClient.uploadFile(mainImage);
-
-        // Upload secondary images
-        List<String> secondaryImageUrls = new java.util.ArrayList<>();
-        if (secondaryImages != null && !secondaryImages.isEmpty()) {
-            for (MultipartFile file : secondaryImages) {
-                secondaryImageUrls.add(fileServiceClient.uploadFile(file));
-            }
+        // Upload main and secondary images to file-service concurrently
+        List<MultipartFile> files = new java.util.ArrayList<>();
+        files.add(mainImage);
+        if (secondaryImages != null) {
+            files.addAll(secondaryImages);
         }
+        List<String> uploaded = imageUploadService.uploadAll(files);
+
+        String mainImageUrl = uploaded.get(0);
+        List<String> secondaryImageUrls = new java.util.ArrayList<>(uploaded.subList(1, uploaded.size()));
 
         // Create product request
         CreateProductRequest request = new CreateProductRequest(
                 name, description, price, stockQuantity,
                 category, active, rating);
 
-        ProductDTO createdProduct = productService.createProduct(request, mainImageUrl, secondaryImageUrls);
+        ProductDTO createdProduct;
+        try {
+            createdProduct = productService.createProduct(request, mainImageUrl, secondaryImageUrls);
+        } catch (RuntimeException e) {
+            imageUploadService.discard(uploaded);
+            throw e;
+        }
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.success(createdProduct, "Product created successfully"));
     }
@@ -114,19 +285,21 @@ public class ProductController {
             @RequestPart(value = "secondaryImages", required = false) List<MultipartFile> secondaryImages,
             @RequestParam(value = "keptSecondaryImages", required = false) List<String> keptSecondaryImages) {
 
-        // Upload new main image to file-service if provided
-        String mainImageUrl = null;
-        if (mainImage != null && !mainImage.isEmpty()) {
-            mainImageUrl = fileServiceClient.uploadFile(mainImage);
+        // Upload the new main image (if provided) and new secondary images concurrently
+        boolean hasMainImage = mainImage != null && !mainImage.isEmpty();
+        List<MultipartFile> files = new java.util.ArrayList<>();
+        if (hasMainImage) {
+            files.add(mainImage);
+        }
+        if (secondaryImages != null) {
+            files.addAll(secondaryImages);
         }
+        List<String> uploaded = imageUploadService.uploadAll(files);
 
-        // Upload new secondary images if provided
+        String mainImageUrl = hasMainImage ? uploaded.get(0) : null;
         List<String> secondaryImageUrls = null;
         if (secondaryImages != null && !secondaryImages.isEmpty()) {
-            secondaryImageUrls = new java.util.ArrayList<>();
-            for (MultipartFile file : secondaryImages) {
-                secondaryImageUrls.add(fileServiceClient.uploadFile(file));
-            }
+            secondaryImageUrls = new java.util.ArrayList<>(uploaded.subList(hasMainImage ? 1 : 0, uploaded.size()));
         }
 
         // Create product request
@@ -134,11 +307,48 @@ public class ProductController {
                 name, description, price, stockQuantity,
                 category, active, rating);
 
-        ProductDTO updatedProduct = productService.updateProduct(id, request, mainImageUrl, secondaryImageUrls,
-                keptSecondaryImages);
+        ProductDTO updatedProduct;
+        try {
+            updatedProduct = productService.updateProduct(id, request, mainImageUrl, secondaryImageUrls,
+                    keptSecondaryImages);
+        } catch (RuntimeException e) {
+            imageUploadService.discard(uploaded);
+            throw e;
+        }
         return ResponseEntity.ok(ApiResponse.success(updatedProduct, "Product updated successfully"));
     }
 
+    // Body is streamed to a temp file; poll GET /products/import/{jobId} for progress
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    public ResponseEntity<ApiResponse<ImportJobStatus>> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            HttpServletRequest request) throws IOException {
+        String format = contentType.startsWith("text/csv") ? "CSV" : "NDJSON";
+        ImportJobStatus job = productImportService.startImport(request.getInputStream(), format);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(job, "Product import started"));
+    }
+
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ApiResponse<ImportJobStatus>> getImportStatus(@PathVariable String jobId) {
+        ImportJobStatus job = productImportService.getStatus(jobId);
+        return ResponseEntity.ok(ApiResponse.success(job, "Import status retrieved successfully"));
+    }
+
+    @PatchMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse<BulkProductUpdateResult>> bulkUpdateProducts(
+            @RequestBody BulkProductUpdateRequest request) {
+        try {
+            BulkProductUpdateResult result = productBulkUpdateService.updateProducts(request);
+            String message = result.getFailed().isEmpty()
+                    ? "Products updated successfully"
+                    : "Some products could not be updated, see failed";
+            return ResponseEntity.ok(ApiResponse.success(result, message));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> deleteProduct(@PathVariable Long id) {
         productService.deleteProduct(id);
@@ -165,4 +375,9 @@ public class ProductController {
         productService.releaseStock(id, quantity);
         return ResponseEntity.ok(ApiResponse.success(null, "Stock released successfully"));
     }
+
+    // Listings change whenever any product does, so they share one catalog-wide validator
+    private String catalogETag() {
+        return "W/\"catalog-" + productService.getCatalogVersion() + "\"";
+    }
 }
@@ -53,6 +53,37 @@ public class ReviewController {
         }
     }
 
+    @DeleteMapping("/{reviewId}")
+    public ResponseEntity<Map<String, Object>> deleteReview(
+            @PathVariable Long productId,
+            @PathVariable Long reviewId,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+
+        // No development fallback here: without the gateway's user id anyone could delete that user's reviews
+        if (userId == null) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Authentication required");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+
+        try {
+            reviewService.deleteReview(productId, reviewId, userId);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Review deleted successfully");
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error deleting review: {}", e.getMessage());
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     @GetMapping
     public ResponseEntity<Map<String, Object>> getProductReviews(
             @PathVariable Long productId,
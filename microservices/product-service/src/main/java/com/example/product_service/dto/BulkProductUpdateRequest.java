@@ -0,0 +1,28 @@
+package com.example.product_service.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkProductUpdateRequest {
+
+    private List<Item> items;
+
+    // Null fields are left unchanged
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        private Long id;
+        private BigDecimal price;
+        private Integer stockQuantity;
+        private Boolean active;
+    }
+}
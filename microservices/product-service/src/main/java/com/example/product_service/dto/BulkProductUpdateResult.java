@@ -0,0 +1,18 @@
+package com.example.product_service.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkProductUpdateResult {
+
+    private int requested;
+    private int updated;
+    private List<Long> notFound;
+    private List<Long> failed; // their chunk rolled back, nothing of it was written; safe to send again
+}
@@ -0,0 +1,25 @@
+package com.example.product_service.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJobStatus {
+
+    private String jobId;
+    private String format; // "CSV" or "NDJSON"
+    private String status; // "RUNNING", "COMPLETED" or "FAILED"
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsFailed;
+    private List<ImportRowError> errors; // first errors only, see ProductImportService
+    private String message;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,26 @@
+package com.example.product_service.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangedEvent implements Serializable {
+
+    private Long productId;
+    private Long version; // assigned at commit, increases with every committed change
+    private String changeType; // "CREATED", "UPDATED", "DELETED", "STOCK_RESERVED", "STOCK_RELEASED" or "RATING_UPDATED"
+    private String name;
+    private String category;
+    private BigDecimal price;
+    private Integer stockQuantity;
+    private Boolean active;
+    private String mainImage;
+    private Double averageRating;
+    private Integer reviewCount;
+}
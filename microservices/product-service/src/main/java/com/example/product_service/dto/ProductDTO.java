@@ -22,6 +22,8 @@ public class ProductDTO {
     private Boolean active;
     private Double averageRating;
     private Integer reviewCount;
+    private java.util.Map<Integer, Integer> ratingHistogram; // stars (1-5) -> number of reviews
     private java.time.LocalDateTime createdAt;
     private java.time.LocalDateTime updatedAt;
+    private Long changeVersion; // change version of the state shown, for ordering against change events
 }
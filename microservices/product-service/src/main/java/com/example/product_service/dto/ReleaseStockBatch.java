@@ -0,0 +1,19 @@
+package com.example.product_service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Hands back everything an order reserved; applied at most once per order
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReleaseStockBatch implements Serializable {
+
+    private Long orderId;
+    private String orderNumber;
+    private List<ReserveStockBatch.Line> lines;
+}
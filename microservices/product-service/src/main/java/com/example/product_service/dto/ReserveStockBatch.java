@@ -0,0 +1,29 @@
+package com.example.product_service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// All lines of one order, reserved together or not at all
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReserveStockBatch implements Serializable {
+
+    private Long orderId;
+    private String orderNumber;
+    private List<Line> lines;
+    private Long requestedAt; // epoch millis, for end-to-end reservation latency
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line implements Serializable {
+
+        private Long productId;
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.product_service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Reply to a ReserveStockBatch, correlated by order id
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationResult implements Serializable {
+
+    private Long orderId;
+    private String orderNumber;
+    private Boolean reserved;
+    private String reason; // null when reserved
+    private List<Long> unavailableProductIds;
+    private Long requestedAt;
+}
@@ -0,0 +1,17 @@
+package com.example.product_service.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionsDTO {
+
+    private String prefix;
+    private List<String> categories;
+    private List<ProductSuggestionDTO> products;
+}
@@ -0,0 +1,56 @@
+package com.example.product_service.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outbox row for an image that must be removed from file-service once the
+ * transaction that replaced it has committed.
+ */
+@Entity
+@Table(name = "image_cleanup_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageCleanupTask {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "imageCleanupTaskIdGenerator")
+    @SequenceGenerator(name = "imageCleanupTaskIdGenerator", sequenceName = "image_cleanup_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 500)
+    private String path;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public ImageCleanupTask(String path) {
+        this.path = path;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+}
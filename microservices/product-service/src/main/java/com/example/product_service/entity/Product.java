@@ -8,6 +8,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
@@ -16,7 +17,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = @Index(name = "idx_products_change_version", columnList = "changeVersion"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -43,6 +44,7 @@ public class Product {
     private String mainImage;
 
     @jakarta.persistence.ElementCollection
+    @org.hibernate.annotations.BatchSize(size = 50)
     private java.util.List<String> secondaryImages;
 
     @Column(nullable = false)
@@ -53,6 +55,28 @@ public class Product {
     @Column
     private Integer reviewCount = 0;
 
+    // Running aggregates maintained in SQL by ReviewService, see ProductRepository
+    @Column
+    private Long ratingSum = 0L;
+
+    @Column
+    private Integer oneStarCount = 0;
+
+    @Column
+    private Integer twoStarCount = 0;
+
+    @Column
+    private Integer threeStarCount = 0;
+
+    @Column
+    private Integer fourStarCount = 0;
+
+    @Column
+    private Integer fiveStarCount = 0;
+
+    // Assigned when the last change commits, see ProductChangeVersions; NULL only inside that transaction
+    private Long changeVersion;
+
     @Column(updatable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,43 @@
+package com.example.product_service.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A rejected row of an import job. Only the first errors of a job are kept,
+ * see ProductImportService.
+ */
+@Entity
+@Table(name = "product_import_errors", indexes = @Index(name = "idx_product_import_errors_job", columnList = "jobId"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportError {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 36)
+    private String jobId;
+
+    @Column(nullable = false)
+    private long line;
+
+    @Column(nullable = false, length = 1000)
+    private String message;
+
+    public ProductImportError(String jobId, long line, String message) {
+        this.jobId = jobId;
+        this.line = line;
+        this.message = message;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.product_service.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Time-decayed view score of a product. {@code score} is valid as of
+ * {@code updatedAt} and halves every configured half-life after that.
+ */
+@Entity
+@Table(name = "product_trending")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductTrending {
+
+    @Id
+    private Long productId;
+
+    @Column(nullable = false)
+    private Double score;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
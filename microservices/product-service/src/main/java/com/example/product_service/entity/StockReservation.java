@@ -0,0 +1,39 @@
+package com.example.product_service.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of the stock reservation for one order, written in the same
+ * transaction as the stock changes so a redelivered request is answered
+ * without reserving twice. {@code releasedAt} is set when the stock goes
+ * back, so a redelivered release is ignored as well.
+ */
+@Entity
+@Table(name = "stock_reservations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservation {
+
+    @Id
+    private Long orderId;
+
+    @Column(nullable = false)
+    private Boolean reserved;
+
+    @Column(length = 500)
+    private String reason;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime releasedAt;
+}
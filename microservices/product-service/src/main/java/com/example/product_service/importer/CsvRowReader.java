@@ -0,0 +1,127 @@
+package com.example.product_service.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads RFC 4180 style CSV with a header row. Quoted fields may contain
+ * commas, doubled quotes and line breaks. Columns are matched by header name
+ * (case-insensitive, {@code stock_quantity} and {@code main_image} accepted),
+ * unknown columns are ignored.
+ */
+public class CsvRowReader implements ImportRowReader {
+
+    private final Reader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private long line = 1;
+    private long recordLine;
+
+    public CsvRowReader(Reader reader) throws IOException {
+        this.reader = reader;
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IOException("CSV file is empty");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i).trim().toLowerCase(Locale.ROOT).replace("_", "");
+            columns.put(column, i);
+        }
+        if (!columns.containsKey("name") || !columns.containsKey("price") || !columns.containsKey("stockquantity")) {
+            throw new IOException("CSV header must contain name, price and stockQuantity columns");
+        }
+    }
+
+    @Override
+    public ParsedRow next() throws IOException {
+        List<String> fields;
+        while ((fields = readRecord()) != null) {
+            if (fields.stream().allMatch(String::isBlank)) {
+                continue;
+            }
+            try {
+                ProductImportRow row = new ProductImportRow();
+                row.setLine(recordLine);
+                row.setName(text(fields, "name"));
+                row.setDescription(text(fields, "description"));
+                String price = text(fields, "price");
+                row.setPrice(price != null ? new BigDecimal(price) : null);
+                String stock = text(fields, "stockquantity");
+                row.setStockQuantity(stock != null ? Integer.valueOf(stock) : null);
+                row.setCategory(text(fields, "category"));
+                row.setMainImage(text(fields, "mainimage"));
+                String active = text(fields, "active");
+                if (active != null && !"true".equalsIgnoreCase(active) && !"false".equalsIgnoreCase(active)) {
+                    return new ParsedRow(recordLine, null, "invalid active value: " + active
+                            + " (expected true or false)");
+                }
+                row.setActive(active != null ? Boolean.valueOf(active) : null);
+                return new ParsedRow(recordLine, row, null);
+            } catch (NumberFormatException e) {
+                return new ParsedRow(recordLine, null, "invalid number: " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private String text(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line - (c == '\n' ? 1 : 0);
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next != '"') {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        int c = reader.read();
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.product_service.importer;
+
+import java.io.IOException;
+
+/**
+ * Streams the rows of an import file one at a time so that memory use does
+ * not depend on the file size.
+ */
+public interface ImportRowReader {
+
+    /**
+     * Returns the next row, or null at the end of the file. A row that cannot
+     * be parsed is returned with a non-null {@link ParsedRow#error()}.
+     */
+    ParsedRow next() throws IOException;
+
+    record ParsedRow(long line, ProductImportRow row, String error) {
+    }
+}
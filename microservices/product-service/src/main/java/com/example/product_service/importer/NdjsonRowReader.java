@@ -0,0 +1,41 @@
+package com.example.product_service.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Reads one JSON object per line. Blank lines are skipped.
+ */
+public class NdjsonRowReader implements ImportRowReader {
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private long line;
+
+    public NdjsonRowReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ParsedRow next() throws IOException {
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            try {
+                ProductImportRow row = objectMapper.readValue(text, ProductImportRow.class);
+                row.setLine(line);
+                return new ParsedRow(line, row, null);
+            } catch (JacksonException e) {
+                return new ParsedRow(line, null, "invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+        return null;
+    }
+}
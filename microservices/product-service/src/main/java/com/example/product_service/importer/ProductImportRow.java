@@ -0,0 +1,54 @@
+package com.example.product_service.importer;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One product of a catalog import, as read from a CSV record or an NDJSON line.
+ * There is deliberately no all-args constructor: Jackson would bind through it
+ * and fail on the ignored primitive {@code line}.
+ */
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProductImportRow {
+
+    @JsonIgnore
+    private long line;
+
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private Integer stockQuantity;
+    private String category;
+    private String mainImage;
+    private Boolean active;
+
+    // Returns a description of the first problem with this row, or null when it can be inserted
+    public String validate() {
+        if (name == null || name.isBlank()) {
+            return "name is required";
+        }
+        if (name.length() > 255) {
+            return "name must be at most 255 characters";
+        }
+        if (description != null && description.length() > 1000) {
+            return "description must be at most 1000 characters";
+        }
+        if (price == null || price.signum() < 0) {
+            return "price is required and must not be negative";
+        }
+        if (stockQuantity == null || stockQuantity < 0) {
+            return "stockQuantity is required and must not be negative";
+        }
+        if (category != null && category.length() > 255) {
+            return "category must be at most 255 characters";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.product_service.listing;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Listing orders offered by {@code GET /products?sort=}. Every order ends with
+ * the id so pages are stable; "newest" relies on ids growing with creation.
+ */
+public enum ProductSort {
+
+    PRICE_ASC("price_asc",
+            Sort.by(Sort.Order.asc("price"), Sort.Order.asc("id")),
+            Comparator.comparing(ProductSortKey::price, Comparator.nullsLast(Comparator.<BigDecimal>naturalOrder()))
+                    .thenComparingLong(ProductSortKey::id)),
+    PRICE_DESC("price_desc",
+            Sort.by(Sort.Order.desc("price").nullsLast(), Sort.Order.desc("id")),
+            Comparator.comparing(ProductSortKey::price, Comparator.nullsLast(Comparator.<BigDecimal>reverseOrder()))
+                    .thenComparing(Comparator.comparingLong(ProductSortKey::id).reversed())),
+    RATING("rating",
+            Sort.by(Sort.Order.desc("averageRating").nullsLast(), Sort.Order.desc("reviewCount").nullsLast(),
+                    Sort.Order.desc("id")),
+            Comparator.comparingDouble(ProductSortKey::rating).reversed()
+                    .thenComparing(Comparator.comparingInt(ProductSortKey::reviewCount).reversed())
+                    .thenComparing(Comparator.comparingLong(ProductSortKey::id).reversed())),
+    NEWEST("newest",
+            Sort.by(Sort.Order.desc("id")),
+            Comparator.comparingLong(ProductSortKey::id).reversed()),
+    REVIEWS("reviews",
+            Sort.by(Sort.Order.desc("reviewCount").nullsLast(), Sort.Order.desc("id")),
+            Comparator.comparingInt(ProductSortKey::reviewCount).reversed()
+                    .thenComparing(Comparator.comparingLong(ProductSortKey::id).reversed()));
+
+    private final String param;
+    private final Sort sort;
+    private final Comparator<ProductSortKey> comparator;
+
+    ProductSort(String param, Sort sort, Comparator<ProductSortKey> comparator) {
+        this.param = param;
+        this.sort = sort;
+        this.comparator = comparator;
+    }
+
+    /** The equivalent ORDER BY, used when the request cannot be served from memory. */
+    public Sort toSort() {
+        return sort;
+    }
+
+    Comparator<ProductSortKey> comparator() {
+        return comparator;
+    }
+
+    /** Parses the request parameter; {@code null} or blank means the default order. */
+    public static ProductSort fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return Arrays.stream(values())
+                .filter(sort -> sort.param.equalsIgnoreCase(value.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown sort '" + value + "', expected one of: "
+                        + Arrays.stream(values()).map(sort -> sort.param).collect(Collectors.joining(", "))));
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.product_service.listing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.product_service.dto.ProductChangedEvent;
+import com.example.product_service.repository.ProductIndexSource;
+import com.example.product_service.repository.ProductRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Active product ids presorted by every {@link ProductSort}, so a sorted page
+ * is an array slice instead of an ORDER BY over the products table. Readers
+ * use immutable array snapshots; changes from the feed are queued and merged
+ * into fresh arrays on a short interval.
+ */
+@Component
+@Slf4j
+public class ProductSortIndex {
+
+    private static final int BUILD_PAGE_SIZE = 5000;
+
+    private final ProductRepository productRepository;
+    private final Object writeLock = new Object();
+    private final Map<Long, ProductSortKey> keys = new HashMap<>(); // latest merged key per product
+    private final Map<Long, ProductSortKey> pending = new HashMap<>(); // received, not merged yet
+    private volatile Map<ProductSort, long[]> orders = Map.of();
+    private volatile boolean ready;
+
+    public ProductSortIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /** A page of ids in index order plus the number of active products. */
+    public record Slice(List<Long> ids, long total) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread.ofVirtual().name("sort-index-build").start(this::build);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** Callers check {@link #isReady()} first; before the first build there is nothing to page. */
+    public Slice page(ProductSort sort, int page, int limit) {
+        long[] ids = orders.get(sort);
+        if (ids == null) {
+            throw new IllegalStateException("Sort indexes are still being built");
+        }
+        int from = (int) Math.min((long) Math.max(page - 1, 0) * limit, ids.length);
+        int to = Math.min(from + limit, ids.length);
+        List<Long> slice = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            slice.add(ids[i]);
+        }
+        return new Slice(slice, ids.length);
+    }
+
+    public void apply(ProductChangedEvent event) {
+        ProductSortKey key = new ProductSortKey(
+                event.getProductId(),
+                event.getVersion() == null ? 0 : event.getVersion(),
+                Boolean.TRUE.equals(event.getActive()),
+                event.getPrice(),
+                event.getAverageRating() == null ? 0 : event.getAverageRating(),
+                event.getReviewCount() == null ? 0 : event.getReviewCount());
+        synchronized (writeLock) {
+            ProductSortKey known = pending.getOrDefault(key.id(), keys.get(key.id()));
+            if (known == null || known.version() < key.version()) {
+                pending.put(key.id(), key);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.sort-index.refresh-interval-ms}")
+    public void mergePending() {
+        if (!ready) {
+            return;
+        }
+        synchronized (writeLock) {
+            List<ProductSortKey> changed = new ArrayList<>();
+            for (ProductSortKey key : pending.values()) {
+                ProductSortKey known = keys.get(key.id());
+                if (known == null || known.version() < key.version()) {
+                    changed.add(key);
+                    keys.put(key.id(), key);
+                }
+            }
+            pending.clear();
+            if (changed.isEmpty()) {
+                return;
+            }
+
+            Set<Long> changedIds = new HashSet<>();
+            List<ProductSortKey> added = new ArrayList<>();
+            for (ProductSortKey key : changed) {
+                changedIds.add(key.id());
+                if (key.active()) {
+                    added.add(key);
+                }
+            }
+
+            Map<ProductSort, long[]> merged = new EnumMap<>(ProductSort.class);
+            for (ProductSort sort : ProductSort.values()) {
+                merged.put(sort, merge(orders.get(sort), changedIds, added, sort));
+            }
+            orders = merged;
+            log.debug("Merged {} product changes into sort indexes", changed.size());
+        }
+    }
+
+    // Drops the changed ids from the current order and merges their new keys back in, O(n + m log m)
+    private long[] merge(long[] current, Set<Long> changedIds, List<ProductSortKey> added, ProductSort sort) {
+        List<ProductSortKey> insert = new ArrayList<>(added);
+        insert.sort(sort.comparator());
+
+        long[] result = new long[current.length + insert.size()];
+        int size = 0;
+        int next = 0;
+        for (long id : current) {
+            if (changedIds.contains(id)) {
+                continue;
+            }
+            ProductSortKey key = keys.get(id);
+            while (next < insert.size() && sort.comparator().compare(insert.get(next), key) < 0) {
+                result[size++] = insert.get(next++).id();
+            }
+            result[size++] = id;
+        }
+        while (next < insert.size()) {
+            result[size++] = insert.get(next++).id();
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    private void build() {
+        long start = System.currentTimeMillis();
+        try {
+            List<ProductSortKey> active = new ArrayList<>();
+            long lastId = 0;
+            List<ProductIndexSource> page;
+            do {
+                page = productRepository.findIndexSourceByIdGreaterThanOrderByIdAsc(lastId, Limit.of(BUILD_PAGE_SIZE));
+                synchronized (writeLock) {
+                    for (ProductIndexSource source : page) {
+                        ProductSortKey key = new ProductSortKey(
+                                source.getId(),
+                                source.getChangeVersion() == null ? 0 : source.getChangeVersion(),
+                                Boolean.TRUE.equals(source.getActive()),
+                                source.getPrice(),
+                                source.getAverageRating() == null ? 0 : source.getAverageRating(),
+                                source.getReviewCount() == null ? 0 : source.getReviewCount());
+                        keys.put(key.id(), key);
+                        if (key.active()) {
+                            active.add(key);
+                        }
+                        lastId = key.id();
+                    }
+                }
+            } while (page.size() == BUILD_PAGE_SIZE);
+
+            Map<ProductSort, long[]> built = new EnumMap<>(ProductSort.class);
+            for (ProductSort sort : ProductSort.values()) {
+                active.sort(sort.comparator());
+                built.put(sort, active.stream().mapToLong(ProductSortKey::id).toArray());
+            }
+            synchronized (writeLock) {
+                orders = built;
+                ready = true;
+            }
+            // Changes received while building are merged by the next mergePending run
+            log.info("Sort indexes built in {} ms for {} active products",
+                    System.currentTimeMillis() - start, active.size());
+        } catch (Exception e) {
+            log.error("Failed to build sort indexes, sorted listings fall back to the database: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.product_service.listing;
+
+import java.math.BigDecimal;
+
+/**
+ * The columns a product is ordered by in the in-memory sort indexes.
+ */
+record ProductSortKey(long id, long version, boolean active, BigDecimal price, double rating, int reviewCount) {
+}
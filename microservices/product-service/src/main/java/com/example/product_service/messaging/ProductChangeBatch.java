@@ -0,0 +1,12 @@
+package com.example.product_service.messaging;
+
+import java.util.List;
+
+import com.example.product_service.dto.ProductChangedEvent;
+
+/**
+ * Application event for changes written by one set-based statement; they are
+ * published together on a single channel once the transaction commits.
+ */
+public record ProductChangeBatch(List<ProductChangedEvent> changes) {
+}
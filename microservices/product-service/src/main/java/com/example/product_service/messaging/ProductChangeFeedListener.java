@@ -0,0 +1,37 @@
+package com.example.product_service.messaging;
+
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import com.example.product_service.cache.ProductResponseCache;
+import com.example.product_service.dto.ProductChangedEvent;
+import com.example.product_service.listing.ProductSortIndex;
+import com.example.product_service.snapshot.CatalogSnapshot;
+import com.example.product_service.suggest.ProductSuggestionIndex;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps this pod's in-memory product indexes current. Every pod has its own
+ * auto-delete queue, so each one sees every change.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductChangeFeedListener {
+
+    private final ProductSuggestionIndex suggestionIndex;
+    private final ProductSortIndex sortIndex;
+    private final ProductResponseCache responseCache;
+    private final CatalogSnapshot catalogSnapshot;
+
+    @RabbitListener(queues = "#{productChangeFeedQueue.name}")
+    public void handleProductChanged(ProductChangedEvent event) {
+        log.debug("Applying product change {} v{} to local indexes", event.getProductId(), event.getVersion());
+        suggestionIndex.apply(event);
+        sortIndex.apply(event);
+        responseCache.evict(event.getProductId());
+        catalogSnapshot.markChanged(event.getProductId(), event.getActive());
+    }
+}
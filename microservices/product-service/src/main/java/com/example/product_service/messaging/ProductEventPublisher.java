@@ -0,0 +1,54 @@
+package com.example.product_service.messaging;
+
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.product_service.config.RabbitMQConfig;
+import com.example.product_service.dto.ProductChangedEvent;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductEventPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+
+    // Only committed changes are announced; a lost message is recovered through GET /products/changes
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void publishProductChanged(ProductChangedEvent event) {
+        try {
+            rabbitTemplate.convertAndSend(
+                    RabbitMQConfig.ORDER_EXCHANGE,
+                    RabbitMQConfig.PRODUCT_CHANGED_ROUTING_KEY,
+                    event);
+            log.debug("Published product changed event: {}", event);
+        } catch (AmqpException e) {
+            log.error("Failed to publish change {} of product {}: {}", event.getVersion(), event.getProductId(),
+                    e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void publishProductChanges(ProductChangeBatch batch) {
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (ProductChangedEvent event : batch.changes()) {
+                    operations.convertAndSend(
+                            RabbitMQConfig.ORDER_EXCHANGE,
+                            RabbitMQConfig.PRODUCT_CHANGED_ROUTING_KEY,
+                            event);
+                }
+                return null;
+            });
+            log.debug("Published {} product changed events", batch.changes().size());
+        } catch (AmqpException e) {
+            log.error("Failed to publish {} product changes: {}", batch.changes().size(), e.getMessage());
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.product_service.messaging;
 
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Component;
 
+import com.example.product_service.config.RabbitMQConfig;
 import com.example.product_service.dto.ProductStockUpdateEvent;
+import com.example.product_service.dto.ReleaseStockBatch;
+import com.example.product_service.dto.ReserveStockBatch;
+import com.example.product_service.dto.StockReservationResult;
 import com.example.product_service.service.ProductService;
 
 import lombok.RequiredArgsConstructor;
@@ -15,6 +20,39 @@ import lombok.extern.slf4j.Slf4j;
 public class ProductMessageListener {
 
     private final ProductService productService;
+    private final RabbitTemplate rabbitTemplate;
+
+    // One atomic reservation per order; the reply goes out after the reservation has committed. Business
+    // rejections are replies with reserved=false. Anything else (database down, lock timeout, broker error)
+    // is thrown, so the request is retried and finally parked in the dead-letter queue rather than
+    // cancelling an order that could have been served.
+    @RabbitListener(queues = RabbitMQConfig.STOCK_RESERVE_QUEUE,
+            containerFactory = RabbitMQConfig.STOCK_RESERVE_CONTAINER_FACTORY)
+    public void handleReserveStockBatch(ReserveStockBatch batch) {
+        log.info("📨 RECEIVED STOCK RESERVATION for order {} ({} lines)", batch.getOrderNumber(),
+                batch.getLines() == null ? 0 : batch.getLines().size());
+
+        StockReservationResult result = productService.reserveStockBatch(batch);
+
+        String correlationId = String.valueOf(batch.getOrderId());
+        rabbitTemplate.convertAndSend(
+                RabbitMQConfig.ORDER_EXCHANGE,
+                RabbitMQConfig.STOCK_RESERVED_ROUTING_KEY,
+                result,
+                message -> {
+                    message.getMessageProperties().setCorrelationId(correlationId);
+                    return message;
+                });
+    }
+
+    // Releases are keyed by order id, so a failure is left to the broker to redeliver: a release
+    // that already went through is ignored the second time
+    @RabbitListener(queues = RabbitMQConfig.STOCK_RELEASE_QUEUE)
+    public void handleReleaseStockBatch(ReleaseStockBatch batch) {
+        log.info("📨 RECEIVED STOCK RELEASE for order {} ({} lines)", batch.getOrderNumber(),
+                batch.getLines().size());
+        productService.releaseStockBatch(batch);
+    }
 
     @RabbitListener(queues = "product.queue")
     public void handleStockUpdate(ProductStockUpdateEvent event) {
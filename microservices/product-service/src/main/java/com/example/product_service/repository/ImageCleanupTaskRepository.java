@@ -0,0 +1,25 @@
+package com.example.product_service.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.product_service.entity.ImageCleanupTask;
+
+@Repository
+public interface ImageCleanupTaskRepository extends JpaRepository<ImageCleanupTask, Long> {
+
+    // Rows locked by another pod's worker are skipped rather than waited on
+    @Query(value = """
+            SELECT * FROM image_cleanup_outbox
+            WHERE next_attempt_at <= :now
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<ImageCleanupTask> lockDueTasks(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -0,0 +1,102 @@
+package com.example.product_service.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.persistence.Tuple;
+
+/**
+ * A sparse fieldset requested with {@code fields=}. Property names are those
+ * of {@code ProductDTO}; each maps to the entity attributes selected for it.
+ * The id is always included.
+ */
+public final class ProductFields {
+
+    public static final String SECONDARY_IMAGES = "secondaryImages";
+
+    private static final List<String> STAR_COUNTS = List.of(
+            "oneStarCount", "twoStarCount", "threeStarCount", "fourStarCount", "fiveStarCount");
+
+    private static final Map<String, List<String>> ATTRIBUTES = new LinkedHashMap<>();
+
+    static {
+        ATTRIBUTES.put("id", List.of("id"));
+        ATTRIBUTES.put("name", List.of("name"));
+        ATTRIBUTES.put("description", List.of("description"));
+        ATTRIBUTES.put("price", List.of("price"));
+        ATTRIBUTES.put("stockQuantity", List.of("stockQuantity"));
+        ATTRIBUTES.put("category", List.of("category"));
+        ATTRIBUTES.put("mainImage", List.of("mainImage"));
+        ATTRIBUTES.put(SECONDARY_IMAGES, List.of()); // element collection, loaded with one extra query
+        ATTRIBUTES.put("active", List.of("active"));
+        ATTRIBUTES.put("averageRating", List.of("averageRating"));
+        ATTRIBUTES.put("reviewCount", List.of("reviewCount"));
+        ATTRIBUTES.put("ratingHistogram", STAR_COUNTS);
+        ATTRIBUTES.put("createdAt", List.of("createdAt"));
+        ATTRIBUTES.put("updatedAt", List.of("updatedAt"));
+    }
+
+    private final Set<String> names;
+
+    private ProductFields(Set<String> names) {
+        this.names = names;
+    }
+
+    /** Parses a comma separated list; {@code null} or blank means the full DTO. */
+    public static ProductFields parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        names.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!ATTRIBUTES.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "', expected any of: "
+                        + String.join(", ", ATTRIBUTES.keySet()));
+            }
+            names.add(name);
+        }
+        return new ProductFields(names);
+    }
+
+    public boolean includes(String name) {
+        return names.contains(name);
+    }
+
+    /** Entity attributes to select, each aliased by its own name. */
+    List<String> attributes() {
+        List<String> attributes = new ArrayList<>();
+        for (String name : names) {
+            attributes.addAll(ATTRIBUTES.get(name));
+        }
+        return attributes;
+    }
+
+    /** Builds a response row, in request order, from a tuple selected with {@link #attributes()}. */
+    Map<String, Object> toRow(Tuple tuple) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String name : names) {
+            if (name.equals("ratingHistogram")) {
+                Map<Integer, Integer> histogram = new LinkedHashMap<>();
+                for (int star = 1; star <= STAR_COUNTS.size(); star++) {
+                    Integer count = tuple.get(STAR_COUNTS.get(star - 1), Integer.class);
+                    histogram.put(star, count == null ? 0 : count);
+                }
+                row.put(name, histogram);
+            } else if (name.equals(SECONDARY_IMAGES)) {
+                row.put(name, new ArrayList<String>());
+            } else {
+                row.put(name, tuple.get(name));
+            }
+        }
+        return row;
+    }
+}
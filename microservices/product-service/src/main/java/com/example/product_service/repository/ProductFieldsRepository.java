@@ -0,0 +1,20 @@
+package com.example.product_service.repository;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.product_service.entity.Product;
+
+/**
+ * Sparse fieldset queries: only the columns behind the requested fields are
+ * selected, and rows come back as maps holding just those properties.
+ */
+public interface ProductFieldsRepository {
+
+    List<Map<String, Object>> findFields(ProductFields fields, Specification<Product> where, Pageable pageable);
+
+    long countFields(Specification<Product> where);
+}
@@ -0,0 +1,86 @@
+package com.example.product_service.repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import com.example.product_service.entity.Product;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+class ProductFieldsRepositoryImpl implements ProductFieldsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Map<String, Object>> findFields(ProductFields fields, Specification<Product> where,
+            Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> root = query.from(Product.class);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String attribute : fields.attributes()) {
+            selections.add(root.get(attribute).alias(attribute));
+        }
+        query.multiselect(selections);
+        if (where != null) {
+            query.where(where.toPredicate(root, query, cb));
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : typedQuery.getResultList()) {
+            rows.add(fields.toRow(tuple));
+        }
+
+        if (fields.includes(ProductFields.SECONDARY_IMAGES) && !rows.isEmpty()) {
+            Map<Long, List<String>> imagesById = new HashMap<>();
+            for (Map<String, Object> row : rows) {
+                imagesById.put((Long) row.get("id"), (List<String>) row.get(ProductFields.SECONDARY_IMAGES));
+            }
+            entityManager.createQuery(
+                    "select p.id as productId, image as path from Product p join p.secondaryImages image "
+                            + "where p.id in :ids", Tuple.class)
+                    .setParameter("ids", imagesById.keySet())
+                    .getResultList()
+                    .forEach(image -> imagesById.get(image.get("productId", Long.class))
+                            .add(image.get("path", String.class)));
+        }
+        return rows;
+    }
+
+    @Override
+    public long countFields(Specification<Product> where) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.count(root));
+        if (where != null) {
+            query.where(where.toPredicate(root, query, cb));
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.product_service.repository;
+
+/**
+ * One secondary image path together with the product it belongs to.
+ */
+public interface ProductImage {
+
+    Long getProductId();
+
+    String getPath();
+}
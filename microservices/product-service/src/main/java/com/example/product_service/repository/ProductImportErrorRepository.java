@@ -0,0 +1,15 @@
+package com.example.product_service.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.product_service.entity.ProductImportError;
+
+@Repository
+public interface ProductImportErrorRepository extends JpaRepository<ProductImportError, Long> {
+
+    List<ProductImportError> findByJobIdOrderByLineAsc(String jobId, Limit limit);
+}
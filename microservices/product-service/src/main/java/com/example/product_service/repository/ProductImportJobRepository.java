@@ -0,0 +1,32 @@
+package com.example.product_service.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.product_service.entity.ProductImportJob;
+
+@Repository
+public interface ProductImportJobRepository extends JpaRepository<ProductImportJob, String> {
+
+    @Modifying
+    @Query("update ProductImportJob j set j.heartbeatAt = :now where j.id in :ids and j.status = 'RUNNING'")
+    int touchRunning(@Param("ids") Collection<String> ids, @Param("now") LocalDateTime now);
+
+    // Errors go first, they are only reachable through their job
+    @Modifying
+    @Query("""
+            delete from ProductImportError e
+            where e.jobId in (select j.id from ProductImportJob j where j.finishedAt < :cutoff)
+            """)
+    int deleteErrorsOfJobsFinishedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("delete from ProductImportJob j where j.finishedAt < :cutoff")
+    int deleteFinishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
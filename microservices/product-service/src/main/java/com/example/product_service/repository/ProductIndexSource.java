@@ -0,0 +1,25 @@
+package com.example.product_service.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Columns the in-memory product indexes are built from at startup.
+ */
+public interface ProductIndexSource {
+
+    Long getId();
+
+    String getName();
+
+    String getCategory();
+
+    BigDecimal getPrice();
+
+    Boolean getActive();
+
+    Double getAverageRating();
+
+    Integer getReviewCount();
+
+    Long getChangeVersion();
+}
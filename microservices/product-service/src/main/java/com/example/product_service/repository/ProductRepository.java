@@ -1,16 +1,25 @@
 package com.example.product_service.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.product_service.entity.Product;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductFieldsRepository {
 
     List<Product> findByActiveTrue();
 
@@ -21,4 +30,114 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByCategory(String category);
 
     List<Product> findByNameContainingIgnoreCase(String name);
+
+    // Listing projections: only the card columns, no description or image collection
+    List<ProductSummary> findSummaryByActiveTrue();
+
+    Page<ProductSummary> findSummaryByActiveTrue(Pageable pageable);
+
+    Page<ProductSummary> findSummaryByNameContainingIgnoreCaseAndActiveTrue(String name, Pageable pageable);
+
+    List<ProductSummary> findSummaryByCategory(String category);
+
+    List<ProductSummary> findSummaryByNameContainingIgnoreCase(String name);
+
+    List<ProductSummary> findSummaryByIdIn(Collection<Long> ids);
+
+    // Keyset pages over the whole table, used to build the in-memory indexes
+    List<ProductIndexSource> findIndexSourceByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<Product> findByActiveTrueAndIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Locks rows in id order so concurrent multi-product reservations cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Product p where p.id in :ids order by p.id")
+    List<Product> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    List<Product> findByChangeVersionGreaterThanOrderByChangeVersionAsc(Long sinceVersion, Limit limit);
+
+    @Query("select p.changeVersion as changeVersion, p.updatedAt as updatedAt from Product p where p.id = :id")
+    Optional<ProductVersion> findVersionById(@Param("id") Long id);
+
+    @Query("select p.id as productId, image as path from Product p join p.secondaryImages image where p.id in :ids")
+    List<ProductImage> findSecondaryImagesByProductIdIn(@Param("ids") Collection<Long> ids);
+
+    // Adds one review to the running rating aggregates in a single statement
+    @Modifying
+    @Query(value = """
+            UPDATE products SET
+                rating_sum = COALESCE(rating_sum, 0) + :rating,
+                review_count = COALESCE(review_count, 0) + 1,
+                one_star_count = COALESCE(one_star_count, 0) + CASE WHEN :rating = 1 THEN 1 ELSE 0 END,
+                two_star_count = COALESCE(two_star_count, 0) + CASE WHEN :rating = 2 THEN 1 ELSE 0 END,
+                three_star_count = COALESCE(three_star_count, 0) + CASE WHEN :rating = 3 THEN 1 ELSE 0 END,
+                four_star_count = COALESCE(four_star_count, 0) + CASE WHEN :rating = 4 THEN 1 ELSE 0 END,
+                five_star_count = COALESCE(five_star_count, 0) + CASE WHEN :rating = 5 THEN 1 ELSE 0 END,
+                average_rating = ROUND(CAST(COALESCE(rating_sum, 0) + :rating AS numeric)
+                        / (COALESCE(review_count, 0) + 1), 1),
+                change_version = NULL,
+                updated_at = LOCALTIMESTAMP
+            WHERE id = :productId
+            """, nativeQuery = true)
+    int applyReviewAdded(@Param("productId") Long productId, @Param("rating") int rating);
+
+    // Removes one review from the running rating aggregates in a single statement
+    @Modifying
+    @Query(value = """
+            UPDATE products SET
+                rating_sum = GREATEST(COALESCE(rating_sum, 0) - :rating, 0),
+                review_count = GREATEST(COALESCE(review_count, 0) - 1, 0),
+                one_star_count = GREATEST(COALESCE(one_star_count, 0) - CASE WHEN :rating = 1 THEN 1 ELSE 0 END, 0),
+                two_star_count = GREATEST(COALESCE(two_star_count, 0) - CASE WHEN :rating = 2 THEN 1 ELSE 0 END, 0),
+                three_star_count = GREATEST(COALESCE(three_star_count, 0) - CASE WHEN :rating = 3 THEN 1 ELSE 0 END, 0),
+                four_star_count = GREATEST(COALESCE(four_star_count, 0) - CASE WHEN :rating = 4 THEN 1 ELSE 0 END, 0),
+                five_star_count = GREATEST(COALESCE(five_star_count, 0) - CASE WHEN :rating = 5 THEN 1 ELSE 0 END, 0),
+                average_rating = CASE
+                    WHEN COALESCE(review_count, 0) > 1
+                        THEN ROUND(CAST(COALESCE(rating_sum, 0) - :rating AS numeric) / (review_count - 1), 1)
+                    ELSE 0 END,
+                change_version = NULL,
+                updated_at = LOCALTIMESTAMP
+            WHERE id = :productId
+            """, nativeQuery = true)
+    int applyReviewRemoved(@Param("productId") Long productId, @Param("rating") int rating);
+
+    // Recomputes the rating aggregates from the reviews table and fixes only the rows that drifted
+    @Modifying
+    @Query(value = """
+            UPDATE products p SET
+                rating_sum = a.rating_sum,
+                review_count = a.review_count,
+                one_star_count = a.one_star,
+                two_star_count = a.two_star,
+                three_star_count = a.three_star,
+                four_star_count = a.four_star,
+                five_star_count = a.five_star,
+                average_rating = CASE WHEN a.review_count > 0
+                    THEN ROUND(CAST(a.rating_sum AS numeric) / a.review_count, 1) ELSE 0 END,
+                change_version = NULL,
+                updated_at = LOCALTIMESTAMP
+            FROM (
+                SELECT pr.id AS product_id,
+                       COALESCE(SUM(r.rating), 0) AS rating_sum,
+                       COUNT(r.id) AS review_count,
+                       COUNT(r.id) FILTER (WHERE r.rating = 1) AS one_star,
+                       COUNT(r.id) FILTER (WHERE r.rating = 2) AS two_star,
+                       COUNT(r.id) FILTER (WHERE r.rating = 3) AS three_star,
+                       COUNT(r.id) FILTER (WHERE r.rating = 4) AS four_star,
+                       COUNT(r.id) FILTER (WHERE r.rating = 5) AS five_star
+                FROM products pr
+                LEFT JOIN reviews r ON r.product_id = pr.id
+                GROUP BY pr.id
+            ) a
+            WHERE p.id = a.product_id
+              AND (p.rating_sum IS DISTINCT FROM a.rating_sum
+                OR p.review_count IS DISTINCT FROM a.review_count
+                OR p.one_star_count IS DISTINCT FROM a.one_star
+                OR p.two_star_count IS DISTINCT FROM a.two_star
+                OR p.three_star_count IS DISTINCT FROM a.three_star
+                OR p.four_star_count IS DISTINCT FROM a.four_star
+                OR p.five_star_count IS DISTINCT FROM a.five_star)
+            """, nativeQuery = true)
+    int reconcileRatingAggregates();
 }
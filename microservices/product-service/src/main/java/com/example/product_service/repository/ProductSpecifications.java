@@ -0,0 +1,38 @@
+package com.example.product_service.repository;
+
+import java.util.Collection;
+import java.util.Locale;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.product_service.entity.Product;
+
+/**
+ * Filters matching the derived queries of {@link ProductRepository}, for use
+ * with the sparse fieldset queries.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> idEquals(Long id) {
+        return (root, query, cb) -> cb.equal(root.get("id"), id);
+    }
+
+    public static Specification<Product> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    public static Specification<Product> isActive() {
+        return (root, query, cb) -> cb.isTrue(root.<Boolean>get("active"));
+    }
+
+    public static Specification<Product> nameContainsIgnoreCase(String name) {
+        return (root, query, cb) -> cb.like(cb.lower(root.<String>get("name")), "%" + name.toLowerCase(Locale.ROOT) + "%");
+    }
+
+    public static Specification<Product> categoryEquals(String category) {
+        return (root, query, cb) -> cb.equal(root.get("category"), category);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.product_service.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Card-sized view of a product used by listing endpoints. Leaves out the
+ * description and the secondary images, which are loaded in bulk separately.
+ */
+public interface ProductSummary {
+
+    Long getId();
+
+    String getName();
+
+    BigDecimal getPrice();
+
+    Integer getStockQuantity();
+
+    String getCategory();
+
+    String getMainImage();
+
+    Boolean getActive();
+
+    Double getAverageRating();
+
+    Integer getReviewCount();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    Long getChangeVersion();
+}
@@ -0,0 +1,32 @@
+package com.example.product_service.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.product_service.entity.ProductTrending;
+
+@Repository
+public interface ProductTrendingRepository extends JpaRepository<ProductTrending, Long> {
+
+    // Ranks by the score decayed to now, so products nobody has viewed lately sink without being rewritten.
+    // Inactive products are dropped before the LIMIT so they cannot take places in the top K.
+    @Query(value = """
+            SELECT t.product_id FROM product_trending t
+            JOIN products p ON p.id = t.product_id AND p.active = TRUE
+            ORDER BY t.score * power(0.5, EXTRACT(EPOCH FROM (LOCALTIMESTAMP - t.updated_at)) / :halfLifeSeconds) DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Long> findTopProductIds(@Param("halfLifeSeconds") long halfLifeSeconds, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM product_trending
+            WHERE score * power(0.5, EXTRACT(EPOCH FROM (LOCALTIMESTAMP - updated_at)) / :halfLifeSeconds) < :minScore
+            """, nativeQuery = true)
+    int deleteFaded(@Param("halfLifeSeconds") long halfLifeSeconds, @Param("minScore") double minScore);
+}
@@ -0,0 +1,13 @@
+package com.example.product_service.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Just enough of a product to answer a conditional GET.
+ */
+public interface ProductVersion {
+
+    Long getChangeVersion();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,91 @@
+package com.example.product_service.scheduler;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.product_service.client.FileServiceClient;
+import com.example.product_service.entity.ImageCleanupTask;
+import com.example.product_service.repository.ImageCleanupTaskRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drains the image cleanup outbox: claims due rows in a short transaction,
+ * deletes their files with one bulk call to file-service and removes the rows
+ * that were handled. Failed batches are retried with exponential backoff.
+ */
+@Component
+@Slf4j
+public class ImageCleanupWorker {
+
+    private static final long MAX_BACKOFF_SECONDS = 3600;
+
+    private final ImageCleanupTaskRepository imageCleanupTaskRepository;
+    private final FileServiceClient fileServiceClient;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicLong queueDepth = new AtomicLong();
+
+    @Value("${product.image-cleanup.batch-size}")
+    private int batchSize;
+
+    @Value("${product.image-cleanup.max-attempts}")
+    private int maxAttempts;
+
+    public ImageCleanupWorker(ImageCleanupTaskRepository imageCleanupTaskRepository,
+            FileServiceClient fileServiceClient,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry) {
+        this.imageCleanupTaskRepository = imageCleanupTaskRepository;
+        this.fileServiceClient = fileServiceClient;
+        this.transactionTemplate = transactionTemplate;
+        meterRegistry.gauge("product.image.cleanup.queue.depth", queueDepth);
+    }
+
+    @Scheduled(fixedDelayString = "${product.image-cleanup.poll-interval-ms}")
+    public void drain() {
+        List<ImageCleanupTask> batch;
+        while (!(batch = claimBatch()).isEmpty()) {
+            List<String> paths = batch.stream().map(ImageCleanupTask::getPath).collect(Collectors.toList());
+
+            if (!fileServiceClient.deleteFiles(paths)) {
+                log.warn("Bulk delete of {} image(s) failed, will retry later", paths.size());
+                break;
+            }
+
+            List<Long> ids = batch.stream().map(ImageCleanupTask::getId).collect(Collectors.toList());
+            transactionTemplate.executeWithoutResult(status -> imageCleanupTaskRepository.deleteAllByIdInBatch(ids));
+            log.info("Cleaned up {} replaced image(s)", ids.size());
+        }
+        queueDepth.set(imageCleanupTaskRepository.count());
+    }
+
+    // Pushes nextAttemptAt forward before the HTTP call so a crash mid-batch only delays the retry
+    private List<ImageCleanupTask> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<ImageCleanupTask> claimed = new ArrayList<>();
+
+            for (ImageCleanupTask task : imageCleanupTaskRepository.lockDueTasks(now, batchSize)) {
+                if (task.getAttempts() >= maxAttempts) {
+                    log.error("Giving up deleting image {} after {} attempts", task.getPath(), task.getAttempts());
+                    imageCleanupTaskRepository.delete(task);
+                    continue;
+                }
+                task.setAttempts(task.getAttempts() + 1);
+                task.setNextAttemptAt(now.plusSeconds(
+                        Math.min(5L << Math.min(task.getAttempts(), 20), MAX_BACKOFF_SECONDS)));
+                claimed.add(task);
+            }
+            return claimed;
+        });
+    }
+}
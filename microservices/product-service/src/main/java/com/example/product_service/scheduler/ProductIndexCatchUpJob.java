@@ -0,0 +1,65 @@
+package com.example.product_service.scheduler;
+
+import java.util.List;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.product_service.dto.ProductChangedEvent;
+import com.example.product_service.listing.ProductSortIndex;
+import com.example.product_service.service.ProductService;
+import com.example.product_service.snapshot.CatalogSnapshot;
+import com.example.product_service.suggest.ProductSuggestionIndex;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Replays the change feed into this pod's in-memory indexes. It picks up
+ * product.changed messages that were lost and rows changed by statements that
+ * publish nothing, such as the rating reconciliation. The indexes ignore
+ * versions they have already seen, so overlap with the queue is harmless.
+ * Change versions become visible in commit order (see
+ * {@link com.example.product_service.service.ProductChangeVersions}), so each
+ * run resumes from the highest version the previous one saw.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductIndexCatchUpJob {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final ProductService productService;
+    private final ProductSuggestionIndex suggestionIndex;
+    private final ProductSortIndex sortIndex;
+    private final CatalogSnapshot catalogSnapshot;
+
+    private long watermark = -1;
+
+    @Scheduled(fixedDelayString = "${product.index-catch-up.interval-ms}")
+    public void catchUp() {
+        if (watermark < 0) {
+            // First run happens at startup; the index builds cover everything before it
+            watermark = productService.getCatalogVersion();
+            return;
+        }
+
+        int replayed = 0;
+        List<ProductChangedEvent> changes;
+        do {
+            changes = productService.findChangesSince(watermark, PAGE_SIZE);
+            for (ProductChangedEvent change : changes) {
+                suggestionIndex.apply(change);
+                sortIndex.apply(change);
+                catalogSnapshot.markChanged(change.getProductId(), change.getActive());
+                replayed++;
+                watermark = Math.max(watermark, change.getVersion());
+            }
+        } while (changes.size() == PAGE_SIZE);
+
+        if (replayed > 0) {
+            log.debug("Replayed {} product changes into local indexes, now at version {}", replayed, watermark);
+        }
+    }
+}
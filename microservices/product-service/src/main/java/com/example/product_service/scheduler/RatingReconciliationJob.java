@@ -0,0 +1,35 @@
+package com.example.product_service.scheduler;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.service.ProductChangeVersions;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Periodically recomputes the rating aggregates of every product from the
+ * reviews table and corrects rows whose running totals have drifted.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RatingReconciliationJob {
+
+    private final ProductRepository productRepository;
+    private final ProductChangeVersions changeVersions;
+
+    @Scheduled(cron = "${product.rating.reconciliation-cron}")
+    @Transactional
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        int corrected = productRepository.reconcileRatingAggregates();
+        // Corrected rows are picked up from the change feed by every pod's catch-up job
+        changeVersions.assignOnCommit();
+        log.info("Rating reconciliation finished in {} ms, {} products corrected",
+                System.currentTimeMillis() - start, corrected);
+    }
+}
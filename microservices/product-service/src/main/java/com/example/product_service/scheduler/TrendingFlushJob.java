@@ -0,0 +1,98 @@
+package com.example.product_service.scheduler;
+
+import java.sql.PreparedStatement;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.product_service.repository.ProductTrendingRepository;
+import com.example.product_service.trending.ProductViewCounter;
+import com.example.product_service.trending.TrendingRanking;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Folds the views counted since the last run into product_trending with one
+ * statement, decaying each stored score to now before adding, then reloads
+ * the in-memory ranking. Every pod flushes its own counts, so the table and
+ * the ranking reflect views across all pods.
+ */
+@Component
+@Slf4j
+public class TrendingFlushJob {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO product_trending (product_id, score, updated_at)
+            SELECT v.product_id, v.views, LOCALTIMESTAMP
+            FROM unnest(CAST(? AS bigint[]), CAST(? AS float8[])) AS v(product_id, views)
+            ON CONFLICT (product_id) DO UPDATE SET
+                score = product_trending.score
+                        * power(0.5, EXTRACT(EPOCH FROM (EXCLUDED.updated_at - product_trending.updated_at)) / ?)
+                        + EXCLUDED.score,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    // Scores decayed below this are deleted so the table only holds recently viewed products
+    private static final double MIN_SCORE = 0.01;
+
+    private final ProductViewCounter viewCounter;
+    private final TrendingRanking ranking;
+    private final ProductTrendingRepository trendingRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${product.trending.half-life-seconds}")
+    private long halfLifeSeconds;
+
+    @Value("${product.trending.top-k}")
+    private int topK;
+
+    public TrendingFlushJob(ProductViewCounter viewCounter,
+            TrendingRanking ranking,
+            ProductTrendingRepository trendingRepository,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate) {
+        this.viewCounter = viewCounter;
+        this.ranking = ranking;
+        this.trendingRepository = trendingRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${product.trending.flush-interval-ms}")
+    public void flush() {
+        Map<Long, Long> views = viewCounter.drain();
+        if (!views.isEmpty()) {
+            Long[] productIds = views.keySet().toArray(new Long[0]);
+            Double[] counts = new Double[productIds.length];
+            for (int i = 0; i < productIds.length; i++) {
+                counts[i] = views.get(productIds[i]).doubleValue();
+            }
+            try {
+                jdbcTemplate.update(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(UPSERT_SQL);
+                    statement.setArray(1, connection.createArrayOf("bigint", productIds));
+                    statement.setArray(2, connection.createArrayOf("float8", counts));
+                    statement.setDouble(3, halfLifeSeconds);
+                    return statement;
+                });
+            } catch (Exception e) {
+                // Losing one interval of views only lowers scores slightly; never retry into a backlog
+                log.error("Failed to flush views of {} products: {}", productIds.length, e.getMessage());
+            }
+        }
+
+        try {
+            Integer faded = transactionTemplate.execute(
+                    status -> trendingRepository.deleteFaded(halfLifeSeconds, MIN_SCORE));
+            ranking.replace(trendingRepository.findTopProductIds(halfLifeSeconds, topK));
+            log.debug("Flushed views of {} products, removed {} faded, ranking reloaded", views.size(), faded);
+        } catch (Exception e) {
+            log.error("Failed to reload trending ranking: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.product_service.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.product_service.client.FileServiceClient;
+import com.example.product_service.entity.ImageCleanupTask;
+import com.example.product_service.repository.ImageCleanupTaskRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImageUploadService {
+
+    private final FileServiceClient fileServiceClient;
+    private final ImageCleanupTaskRepository imageCleanupTaskRepository;
+
+    @Value("${file.service.upload-parallelism}")
+    private int uploadParallelism;
+
+    /**
+     * Uploads the files to file-service on virtual threads, at most
+     * {@code file.service.upload-parallelism} at a time, and returns the stored
+     * paths in the order of the input. If any upload fails, the files that were
+     * already stored are deleted again and the failure is rethrown.
+     */
+    public List<String> uploadAll(List<MultipartFile> files) {
+        if (files.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Semaphore permits = new Semaphore(uploadParallelism);
+        AtomicBoolean failed = new AtomicBoolean(false);
+        List<Future<String>> uploads = new ArrayList<>(files.size());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (MultipartFile file : files) {
+                uploads.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        if (failed.get()) {
+                            return null; // another upload already failed, don't bother
+                        }
+                        return fileServiceClient.uploadFile(file);
+                    } catch (RuntimeException e) {
+                        failed.set(true);
+                        throw e;
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        } // close() waits for every upload to finish
+
+        List<String> paths = new ArrayList<>(files.size());
+        RuntimeException failure = null;
+        for (Future<String> upload : uploads) {
+            try {
+                String path = upload.get();
+                if (path != null) {
+                    paths.add(path);
+                }
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException runtime
+                            ? runtime
+                            : new RuntimeException("Error uploading file: " + e.getCause().getMessage());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = new RuntimeException("Image upload interrupted");
+            }
+        }
+
+        if (failure != null) {
+            log.error("Image upload failed, removing {} already uploaded file(s)", paths.size());
+            discard(paths);
+            throw failure;
+        }
+
+        log.info("Uploaded {} image(s) with parallelism {}", paths.size(), uploadParallelism);
+        return paths;
+    }
+
+    // Queues files that were uploaded for a request that did not go through for deletion
+    public void discard(List<String> paths) {
+        imageCleanupTaskRepository.saveAll(paths.stream().map(ImageCleanupTask::new).toList());
+    }
+}
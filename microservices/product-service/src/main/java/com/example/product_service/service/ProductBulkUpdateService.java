@@ -0,0 +1,159 @@
+package com.example.product_service.service;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.product_service.dto.BulkProductUpdateRequest;
+import com.example.product_service.dto.BulkProductUpdateResult;
+import com.example.product_service.dto.ProductChangedEvent;
+import com.example.product_service.messaging.ProductChangeBatch;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Applies price, stock and active patches to many products at once. Each
+ * chunk of ids is written by one UPDATE ... FROM unnest(...) statement in its
+ * own transaction, and its change events are published together after commit.
+ * A chunk that fails rolls back on its own; its ids are reported as failed
+ * and the remaining chunks are still applied.
+ */
+@Service
+@Slf4j
+public class ProductBulkUpdateService {
+
+    private static final String UPDATE_SQL = """
+            UPDATE products p SET
+                price = COALESCE(v.price, p.price),
+                stock_quantity = COALESCE(v.stock_quantity, p.stock_quantity),
+                active = COALESCE(v.active, p.active),
+                change_version = NULL,
+                updated_at = LOCALTIMESTAMP
+            FROM unnest(CAST(? AS bigint[]), CAST(? AS numeric[]), CAST(? AS integer[]), CAST(? AS boolean[]))
+                AS v(id, price, stock_quantity, active)
+            WHERE p.id = v.id
+            RETURNING p.id, p.name, p.category, p.price, p.stock_quantity, p.active, p.main_image,
+                p.average_rating, p.review_count
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductChangeVersions changeVersions;
+
+    @Value("${product.bulk-update.chunk-size}")
+    private int chunkSize;
+
+    @Value("${product.bulk-update.max-items}")
+    private int maxItems;
+
+    public ProductBulkUpdateService(JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            ProductChangeVersions changeVersions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.changeVersions = changeVersions;
+    }
+
+    public BulkProductUpdateResult updateProducts(BulkProductUpdateRequest request) {
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            throw new IllegalArgumentException("At least one item is required");
+        }
+        if (request.getItems().size() > maxItems) {
+            throw new IllegalArgumentException("At most " + maxItems + " items can be updated at once");
+        }
+
+        // Later entries for the same id win, like applying the patches one by one would
+        Map<Long, BulkProductUpdateRequest.Item> patches = new LinkedHashMap<>();
+        for (BulkProductUpdateRequest.Item item : request.getItems()) {
+            validate(item);
+            patches.put(item.getId(), item);
+        }
+
+        List<BulkProductUpdateRequest.Item> items = new ArrayList<>(patches.values());
+        Set<Long> updatedIds = new HashSet<>();
+        List<Long> failed = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            List<BulkProductUpdateRequest.Item> chunk = items.subList(from, Math.min(from + chunkSize, items.size()));
+            try {
+                List<ProductChangedEvent> changes = transactionTemplate.execute(status -> updateChunk(chunk));
+                changes.forEach(change -> updatedIds.add(change.getProductId()));
+            } catch (RuntimeException e) {
+                log.error("Bulk update chunk of {} products starting at id {} rolled back: {}", chunk.size(),
+                        chunk.get(0).getId(), e.getMessage());
+                chunk.forEach(item -> failed.add(item.getId()));
+            }
+        }
+
+        Set<Long> failedIds = new HashSet<>(failed);
+        List<Long> notFound = patches.keySet().stream()
+                .filter(id -> !updatedIds.contains(id) && !failedIds.contains(id))
+                .toList();
+        log.info("Bulk update of {} products: {} updated, {} not found, {} failed", patches.size(),
+                updatedIds.size(), notFound.size(), failed.size());
+        return new BulkProductUpdateResult(patches.size(), updatedIds.size(), notFound, failed);
+    }
+
+    private List<ProductChangedEvent> updateChunk(List<BulkProductUpdateRequest.Item> chunk) {
+        Long[] ids = new Long[chunk.size()];
+        BigDecimal[] prices = new BigDecimal[chunk.size()];
+        Integer[] stocks = new Integer[chunk.size()];
+        Boolean[] actives = new Boolean[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            BulkProductUpdateRequest.Item item = chunk.get(i);
+            ids[i] = item.getId();
+            prices[i] = item.getPrice();
+            stocks[i] = item.getStockQuantity();
+            actives[i] = item.getActive();
+        }
+
+        List<ProductChangedEvent> changes = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(UPDATE_SQL);
+            statement.setArray(1, connection.createArrayOf("bigint", ids));
+            statement.setArray(2, connection.createArrayOf("numeric", prices));
+            statement.setArray(3, connection.createArrayOf("integer", stocks));
+            statement.setArray(4, connection.createArrayOf("boolean", actives));
+            return statement;
+        }, (rs, rowNum) -> new ProductChangedEvent(
+                rs.getLong("id"),
+                null, // assigned at commit
+                rs.getBoolean("active") ? "UPDATED" : "DELETED",
+                rs.getString("name"),
+                rs.getString("category"),
+                rs.getBigDecimal("price"),
+                rs.getInt("stock_quantity"),
+                rs.getBoolean("active"),
+                rs.getString("main_image"),
+                rs.getObject("average_rating", Double.class),
+                rs.getObject("review_count", Integer.class)));
+
+        changeVersions.assignOnCommit(changes);
+        eventPublisher.publishEvent(new ProductChangeBatch(changes));
+        return changes;
+    }
+
+    private void validate(BulkProductUpdateRequest.Item item) {
+        if (item.getId() == null) {
+            throw new IllegalArgumentException("Every item needs an id");
+        }
+        if (item.getPrice() != null && item.getPrice().signum() < 0) {
+            throw new IllegalArgumentException("Price of product " + item.getId() + " must not be negative");
+        }
+        if (item.getStockQuantity() != null && item.getStockQuantity() < 0) {
+            throw new IllegalArgumentException("Stock of product " + item.getId() + " must not be negative");
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.product_service.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.product_service.dto.ProductChangedEvent;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Hands out product change versions as transactions commit. Writers set
+ * change_version to NULL on the rows they change and register here; just
+ * before commit those rows are numbered from the single product_change_clock
+ * row. The clock row stays locked until the commit, so versions become
+ * visible in the order they were given out: once a reader has seen version N,
+ * no change with a lower version can still appear.
+ * <p>
+ * Pending writes are flushed before the clock is locked, so a transaction
+ * holding the clock already holds its product row locks and waits for nothing
+ * but the clock itself.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductChangeVersions {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    /**
+     * Latest version handed out by a committed transaction. Unlike the highest
+     * change_version in the table it never runs ahead of a commit still in
+     * flight, and never moves back.
+     */
+    public long current() {
+        Long version = jdbcTemplate.queryForObject("SELECT version FROM product_change_clock WHERE id = 1",
+                Long.class);
+        return version == null ? 0 : version;
+    }
+
+    /** Numbers the products changed in the current transaction when it commits. */
+    public void assignOnCommit() {
+        pending();
+    }
+
+    /** As {@link #assignOnCommit()}, and copies each product's version onto its change event. */
+    public void assignOnCommit(ProductChangedEvent change) {
+        pending().changes.add(change);
+    }
+
+    public void assignOnCommit(Collection<ProductChangedEvent> changes) {
+        pending().changes.addAll(changes);
+    }
+
+    private Pending pending() {
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                throw new IllegalStateException("Product changes must be written in a transaction");
+            }
+            pending = new Pending();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private class Pending implements TransactionSynchronization {
+
+        private final List<ProductChangedEvent> changes = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            entityManager.flush();
+            // Only this transaction's own rows can be NULL; committed rows always have a version
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM products WHERE change_version IS NULL ORDER BY id", Long.class);
+            if (ids.isEmpty()) {
+                return;
+            }
+
+            jdbcTemplate.update("UPDATE product_change_clock SET version = version + ? WHERE id = 1", ids.size());
+            long version = jdbcTemplate.queryForObject("SELECT version FROM product_change_clock WHERE id = 1",
+                    Long.class) - ids.size();
+
+            Map<Long, Long> versions = new HashMap<>();
+            List<Object[]> batch = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                version++;
+                versions.put(id, version);
+                batch.add(new Object[] { version, id });
+            }
+            jdbcTemplate.batchUpdate("UPDATE products SET change_version = ? WHERE id = ?", batch);
+
+            for (ProductChangedEvent change : changes) {
+                Long assigned = versions.get(change.getProductId());
+                if (assigned != null) {
+                    change.setVersion(assigned);
+                }
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ProductChangeVersions.this);
+        }
+    }
+}
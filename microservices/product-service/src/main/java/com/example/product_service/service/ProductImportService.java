@@ -0,0 +1,316 @@
+package com.example.product_service.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.product_service.dto.ImportJobStatus;
+import com.example.product_service.dto.ImportRowError;
+import com.example.product_service.dto.ProductChangedEvent;
+import com.example.product_service.entity.ProductImportError;
+import com.example.product_service.entity.ProductImportJob;
+import com.example.product_service.importer.CsvRowReader;
+import com.example.product_service.importer.ImportRowReader;
+import com.example.product_service.importer.ImportRowReader.ParsedRow;
+import com.example.product_service.importer.NdjsonRowReader;
+import com.example.product_service.importer.ProductImportRow;
+import com.example.product_service.messaging.ProductChangeBatch;
+import com.example.product_service.repository.ProductImportErrorRepository;
+import com.example.product_service.repository.ProductImportJobRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Bulk catalog import. The request body is spooled to a temp file and
+ * processed in the background: rows are parsed and validated one at a time
+ * and inserted with JDBC batches in chunks, each chunk in its own transaction
+ * with ids allocated up front in one query; change versions are assigned as
+ * each chunk commits.
+ * <p>
+ * Job progress is stored in product_import_jobs so a status request can land
+ * on any pod. The spooled file only exists on the pod that accepted the
+ * upload: that pod keeps the heartbeat of its jobs fresh, and a RUNNING job
+ * whose heartbeat stops is reported as failed.
+ */
+@Service
+@Slf4j
+public class ProductImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final long FINISHED_JOB_RETENTION_MINUTES = 60;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO products (id, name, description, price, stock_quantity, category, main_image, active,
+                average_rating, review_count, rating_sum, one_star_count, two_star_count, three_star_count,
+                four_star_count, five_star_count, change_version, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, 0, 0, 0, 0, 0, 0, 0, NULL, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final ProductChangeVersions changeVersions;
+    private final ProductImportJobRepository jobRepository;
+    private final ProductImportErrorRepository errorRepository;
+    // Jobs queued or running on this pod, whose heartbeat it keeps alive
+    private final Set<String> localJobs = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor;
+
+    @Value("${product.import.batch-size}")
+    private int batchSize;
+
+    @Value("${product.import.stale-after-ms}")
+    private long staleAfterMs;
+
+    public ProductImportService(JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper,
+            ProductChangeVersions changeVersions,
+            ProductImportJobRepository jobRepository,
+            ProductImportErrorRepository errorRepository,
+            @Value("${product.import.max-concurrent-jobs}") int maxConcurrentJobs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.changeVersions = changeVersions;
+        this.jobRepository = jobRepository;
+        this.errorRepository = errorRepository;
+        this.executor = Executors.newFixedThreadPool(maxConcurrentJobs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public ImportJobStatus startImport(InputStream body, String format) throws IOException {
+        if (!"CSV".equals(format) && !"NDJSON".equals(format)) {
+            throw new IllegalArgumentException("Unsupported import format: " + format);
+        }
+        purgeFinishedJobs();
+
+        Path file = Files.createTempFile("product-import-", "." + format.toLowerCase());
+        try {
+            Files.copy(body, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), format);
+        saveProgress(job);
+        localJobs.add(job.id);
+        executor.submit(() -> run(job, file));
+        log.info("Started {} import job {} ({} bytes)", format, job.id, Files.size(file));
+        return toStatus(job.toEntity(LocalDateTime.now()), List.of());
+    }
+
+    public ImportJobStatus getStatus(String jobId) {
+        ProductImportJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Import job not found with id: " + jobId));
+        if ("RUNNING".equals(job.getStatus())
+                && job.getHeartbeatAt().isBefore(LocalDateTime.now().minusNanos(staleAfterMs * 1_000_000))) {
+            // The pod running it went away, and the spooled file with it
+            job.setStatus("FAILED");
+            job.setMessage("Import was interrupted, upload the file again");
+            job.setFinishedAt(job.getHeartbeatAt());
+            jobRepository.save(job);
+        }
+        List<ImportRowError> errors = errorRepository.findByJobIdOrderByLineAsc(jobId, Limit.of(MAX_REPORTED_ERRORS))
+                .stream()
+                .map(error -> new ImportRowError(error.getLine(), error.getMessage()))
+                .toList();
+        return toStatus(job, errors);
+    }
+
+    @Scheduled(fixedDelayString = "${product.import.heartbeat-interval-ms}")
+    public void heartbeat() {
+        if (!localJobs.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status ->
+                    jobRepository.touchRunning(List.copyOf(localJobs), LocalDateTime.now()));
+        }
+    }
+
+    private void run(ImportJob job, Path file) {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            ImportRowReader rows = "CSV".equals(job.format)
+                    ? new CsvRowReader(reader)
+                    : new NdjsonRowReader(reader, objectMapper);
+
+            List<ProductImportRow> chunk = new ArrayList<>(batchSize);
+            ParsedRow parsed;
+            while ((parsed = rows.next()) != null) {
+                job.rowsRead++;
+                String error = parsed.error() != null ? parsed.error() : parsed.row().validate();
+                if (error != null) {
+                    job.reject(parsed.line(), error);
+                } else {
+                    chunk.add(parsed.row());
+                    if (chunk.size() == batchSize) {
+                        insertChunk(job, chunk);
+                        chunk.clear();
+                    }
+                }
+                if (job.rowsRead % batchSize == 0) {
+                    saveProgress(job);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                insertChunk(job, chunk);
+            }
+            job.finish("COMPLETED", null);
+            log.info("Import job {} completed: {} read, {} imported, {} failed",
+                    job.id, job.rowsRead, job.rowsImported, job.rowsFailed);
+        } catch (Exception e) {
+            job.finish("FAILED", e.getMessage());
+            log.error("Import job {} failed after {} rows: {}", job.id, job.rowsRead, e.getMessage(), e);
+        } finally {
+            localJobs.remove(job.id);
+            try {
+                saveProgress(job);
+            } catch (RuntimeException e) {
+                log.error("Could not record the outcome of import job {}: {}", job.id, e.getMessage());
+            }
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete import file {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private void insertChunk(ImportJob job, List<ProductImportRow> chunk) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Long> ids = allocate("SELECT nextval(pg_get_serial_sequence('products', 'id'))", chunk.size());
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+                List<Object[]> batch = new ArrayList<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    ProductImportRow row = chunk.get(i);
+                    batch.add(new Object[] {
+                            ids.get(i), row.getName(), row.getDescription(), row.getPrice(),
+                            row.getStockQuantity(), row.getCategory(), row.getMainImage(),
+                            !Boolean.FALSE.equals(row.getActive()), now, now });
+                }
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+
+                List<ProductChangedEvent> changes = new ArrayList<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    ProductImportRow row = chunk.get(i);
+                    changes.add(new ProductChangedEvent(
+                            ids.get(i), null, "CREATED", row.getName(), row.getCategory(),
+                            row.getPrice(), row.getStockQuantity(), !Boolean.FALSE.equals(row.getActive()),
+                            row.getMainImage(), 0.0, 0));
+                }
+                changeVersions.assignOnCommit(changes);
+                eventPublisher.publishEvent(new ProductChangeBatch(changes));
+            });
+            job.rowsImported += chunk.size();
+        } catch (RuntimeException e) {
+            log.error("Import job {} could not insert rows {}-{}: {}", job.id, chunk.get(0).getLine(),
+                    chunk.get(chunk.size() - 1).getLine(), e.getMessage());
+            for (ProductImportRow row : chunk) {
+                job.reject(row.getLine(), "insert failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // Reserves a block of sequence values in one round trip
+    private List<Long> allocate(String nextValueSql, int count) {
+        return jdbcTemplate.queryForList(nextValueSql + " FROM generate_series(1, ?)", Long.class, count);
+    }
+
+    private void purgeFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(FINISHED_JOB_RETENTION_MINUTES);
+        transactionTemplate.executeWithoutResult(status -> {
+            jobRepository.deleteErrorsOfJobsFinishedBefore(cutoff);
+            jobRepository.deleteFinishedBefore(cutoff);
+        });
+    }
+
+    // Writes the counters and the errors collected since the last save
+    private void saveProgress(ImportJob job) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jobRepository.save(job.toEntity(LocalDateTime.now()));
+            if (!job.unsavedErrors.isEmpty()) {
+                errorRepository.saveAll(job.unsavedErrors);
+            }
+        });
+        job.unsavedErrors.clear();
+    }
+
+    private static ImportJobStatus toStatus(ProductImportJob job, List<ImportRowError> errors) {
+        return new ImportJobStatus(job.getId(), job.getFormat(), job.getStatus(), job.getRowsRead(),
+                job.getRowsImported(), job.getRowsFailed(), errors, job.getMessage(), job.getStartedAt(),
+                job.getFinishedAt());
+    }
+
+    // Only the thread running the job touches it after it is submitted
+    private static class ImportJob {
+
+        private final String id;
+        private final String format;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private long rowsRead;
+        private long rowsImported;
+        private long rowsFailed;
+        private final List<ProductImportError> unsavedErrors = new ArrayList<>();
+        private String status = "RUNNING";
+        private String message;
+        private LocalDateTime finishedAt;
+
+        ImportJob(String id, String format) {
+            this.id = id;
+            this.format = format;
+        }
+
+        void reject(long line, String error) {
+            rowsFailed++;
+            if (rowsFailed <= MAX_REPORTED_ERRORS) {
+                unsavedErrors.add(new ProductImportError(id, line, truncate(error)));
+            }
+        }
+
+        void finish(String finalStatus, String finalMessage) {
+            message = truncate(finalMessage);
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+
+        ProductImportJob toEntity(LocalDateTime heartbeatAt) {
+            return new ProductImportJob(id, format, status, rowsRead, rowsImported, rowsFailed, message,
+                    startedAt, heartbeatAt, finishedAt);
+        }
+
+        private static String truncate(String text) {
+            return text == null || text.length() <= 1000 ? text : text.substring(0, 1000);
+        }
+    }
+}
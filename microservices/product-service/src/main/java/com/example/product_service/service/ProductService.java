@@ -1,21 +1,49 @@
 package com.example.product_service.service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.example.product_service.client.FileServiceClient;
 import com.example.product_service.dto.ApiResponse;
 import com.example.product_service.dto.CreateProductRequest;
+import com.example.product_service.dto.ProductChangedEvent;
 import com.example.product_service.dto.ProductDTO;
+import com.example.product_service.dto.ProductSuggestionDTO;
+import com.example.product_service.dto.ReleaseStockBatch;
+import com.example.product_service.dto.ReserveStockBatch;
+import com.example.product_service.dto.StockReservationResult;
+import com.example.product_service.dto.SuggestionsDTO;
+import com.example.product_service.entity.ImageCleanupTask;
 import com.example.product_service.entity.Product;
+import com.example.product_service.entity.StockReservation;
+import com.example.product_service.listing.ProductSort;
+import com.example.product_service.listing.ProductSortIndex;
+import com.example.product_service.repository.ImageCleanupTaskRepository;
+import com.example.product_service.repository.ProductFields;
+import com.example.product_service.repository.ProductImage;
 import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.repository.ProductSpecifications;
+import com.example.product_service.repository.ProductSummary;
+import com.example.product_service.repository.ProductVersion;
+import com.example.product_service.repository.StockReservationRepository;
+import com.example.product_service.snapshot.CatalogSnapshot;
+import com.example.product_service.suggest.ProductSuggestionIndex;
+import com.example.product_service.trending.TrendingRanking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -25,13 +53,32 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class ProductService {
 
+    private static final int IMAGE_LOOKUP_CHUNK_SIZE = 1000;
+
     private final ProductRepository productRepository;
-    private final FileServiceClient fileServiceClient;
+    private final ImageCleanupTaskRepository imageCleanupTaskRepository;
+    private final StockReservationRepository stockReservationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductSuggestionIndex suggestionIndex;
+    private final ProductSortIndex sortIndex;
+    private final TrendingRanking trendingRanking;
+    private final CatalogSnapshot catalogSnapshot;
+    private final ProductChangeVersions changeVersions;
 
     public List<ProductDTO> getAllProducts() {
-        return productRepository.findByActiveTrue().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        if (catalogSnapshot.isServing()) {
+            return fromSnapshot(catalogSnapshot.page(1, Integer.MAX_VALUE));
+        }
+        return toListingDTOs(productRepository.findSummaryByActiveTrue());
+    }
+
+    public Optional<ProductVersion> findProductVersion(Long id) {
+        return productRepository.findVersionById(id);
+    }
+
+    // Moves forward when a product change commits, so it is safe to use as a validator
+    public long getCatalogVersion() {
+        return changeVersions.current();
     }
 
     public ProductDTO getProductById(Long id) {
@@ -41,15 +88,98 @@ public class ProductService {
     }
 
     public List<ProductDTO> searchProducts(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return toListingDTOs(productRepository.findSummaryByNameContainingIgnoreCase(name));
     }
 
     public List<ProductDTO> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category).stream()
-                .map(this::convertToDTO)
+        return toListingDTOs(productRepository.findSummaryByCategory(category));
+    }
+
+    // Sparse fieldset variants: only the requested columns are selected and serialized
+
+    public List<Map<String, Object>> getAllProducts(ProductFields fields) {
+        return productRepository.findFields(fields, ProductSpecifications.isActive(), Pageable.unpaged());
+    }
+
+    public Map<String, Object> getProductById(Long id, ProductFields fields) {
+        return productRepository.findFields(fields, ProductSpecifications.idEquals(id), Pageable.unpaged()).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+    }
+
+    public List<Map<String, Object>> searchProducts(String name, ProductFields fields) {
+        return productRepository.findFields(fields, ProductSpecifications.nameContainsIgnoreCase(name),
+                Pageable.unpaged());
+    }
+
+    public List<Map<String, Object>> getProductsByCategory(String category, ProductFields fields) {
+        return productRepository.findFields(fields, ProductSpecifications.categoryEquals(category),
+                Pageable.unpaged());
+    }
+
+    public ApiResponse<List<Map<String, Object>>> getAllProductsPaginated(int page, int limit, String search,
+            ProductSort sort, ProductFields fields) {
+        boolean searching = search != null && !search.isEmpty();
+        List<Map<String, Object>> rows;
+        long total;
+
+        if (sort != null && !searching && sortIndex.isReady()) {
+            ProductSortIndex.Slice slice = sortIndex.page(sort, page, limit);
+            Map<Object, Map<String, Object>> byId = productRepository
+                    .findFields(fields, ProductSpecifications.idIn(slice.ids()), Pageable.unpaged()).stream()
+                    .collect(Collectors.toMap(row -> row.get("id"), row -> row));
+            rows = slice.ids().stream()
+                    .map(byId::get)
+                    .filter(row -> row != null)
+                    .collect(Collectors.toList());
+            total = slice.total();
+        } else {
+            Specification<Product> where = searching
+                    ? ProductSpecifications.isActive().and(ProductSpecifications.nameContainsIgnoreCase(search))
+                    : ProductSpecifications.isActive();
+            Pageable pageable = sort != null
+                    ? PageRequest.of(page - 1, limit, sort.toSort())
+                    : PageRequest.of(page - 1, limit);
+            rows = productRepository.findFields(fields, where, pageable);
+            total = productRepository.countFields(where);
+        }
+
+        Map<String, Object> metadata = ApiResponse.createPaginationMetadata(
+                page,
+                limit,
+                total,
+                (int) ((total + limit - 1) / limit));
+
+        return ApiResponse.success(rows, "Products retrieved successfully", metadata);
+    }
+
+    // Listing-shaped products for a set of ids, e.g. to enrich a cart in one call; unknown ids are skipped
+    public List<ProductDTO> getProductsByIds(List<Long> ids) {
+        return toListingDTOs(productRepository.findSummaryByIdIn(ids));
+    }
+
+    public List<ProductDTO> getTrendingProducts(int limit) {
+        List<Long> ids = trendingRanking.top(limit);
+        Map<Long, ProductSummary> byId = productRepository.findSummaryByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductSummary::getId, summary -> summary));
+        List<ProductSummary> ordered = ids.stream()
+                .map(byId::get)
+                .filter(summary -> summary != null && Boolean.TRUE.equals(summary.getActive()))
                 .collect(Collectors.toList());
+        return toListingDTOs(ordered);
+    }
+
+    public SuggestionsDTO getSuggestions(String prefix, int limit) {
+        if (suggestionIndex.isReady()) {
+            return suggestionIndex.suggest(prefix, limit);
+        }
+        // Index still building after startup: answer from the database
+        Pageable pageable = PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "reviewCount"));
+        List<ProductSuggestionDTO> products = productRepository
+                .findSummaryByNameContainingIgnoreCaseAndActiveTrue(prefix, pageable)
+                .map(summary -> new ProductSuggestionDTO(summary.getId(), summary.getName(), summary.getCategory()))
+                .getContent();
+        return new SuggestionsDTO(prefix, List.of(), products);
     }
 
     @Transactional
@@ -66,7 +196,7 @@ public class ProductService {
         product.setAverageRating(0.0);
         product.setReviewCount(0);
 
-        Product savedProduct = productRepository.save(product);
+        Product savedProduct = saveChange(product, "CREATED");
         log.info("Product created with id: {}", savedProduct.getId());
         return convertToDTO(savedProduct);
     }
@@ -88,8 +218,8 @@ public class ProductService {
             // Delete old image if it exists
             String oldMainImage = product.getMainImage();
             if (oldMainImage != null && !oldMainImage.isEmpty()) {
-                log.info("Deleting old main image: {}", oldMainImage);
-                fileServiceClient.deleteFile(oldMainImage);
+                log.info("Scheduling deletion of old main image: {}", oldMainImage);
+                imageCleanupTaskRepository.save(new ImageCleanupTask(oldMainImage));
             }
             product.setMainImage(mainImage);
         }
@@ -113,8 +243,8 @@ public class ProductService {
         if (currentSecondaryImages != null) {
             for (String currentImg : currentSecondaryImages) {
                 if (keptSecondaryImages == null || !keptSecondaryImages.contains(currentImg)) {
-                    log.info("Deleting removed secondary image: {}", currentImg);
-                    fileServiceClient.deleteFile(currentImg);
+                    log.info("Scheduling deletion of removed secondary image: {}", currentImg);
+                    imageCleanupTaskRepository.save(new ImageCleanupTask(currentImg));
                 }
             }
         }
@@ -124,7 +254,7 @@ public class ProductService {
         product.setActive(request.getActive());
         // Rating isn't updated directly via product update anymore, handled via reviews
 
-        Product updatedProduct = productRepository.save(product);
+        Product updatedProduct = saveChange(product, "UPDATED");
         log.info("Product updated with id: {}", updatedProduct.getId());
         return convertToDTO(updatedProduct);
     }
@@ -134,7 +264,7 @@ public class ProductService {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
         product.setActive(false);
-        productRepository.save(product);
+        saveChange(product, "DELETED");
         log.info("Product soft deleted with id: {}", id);
     }
 
@@ -148,7 +278,7 @@ public class ProductService {
         if (product.getStockQuantity() >= quantity) {
             int newStock = product.getStockQuantity() - quantity;
             product.setStockQuantity(newStock);
-            productRepository.save(product);
+            saveChange(product, "STOCK_RESERVED");
 
             log.info("📦 STOCK RESERVED for Product ID {}: {} units", productId, quantity);
             log.info("   Previous stock: {} → New stock: {}", previousStock, newStock);
@@ -160,29 +290,154 @@ public class ProductService {
         return false;
     }
 
+    // All lines of an order are reserved together or not at all; a redelivered request gets the first answer
+    @Transactional
+    public StockReservationResult reserveStockBatch(ReserveStockBatch batch) {
+        Optional<StockReservation> previous = stockReservationRepository.findById(batch.getOrderId());
+        if (previous.isPresent()) {
+            log.info("Stock reservation for order {} already handled, replaying result", batch.getOrderNumber());
+            return toReservationResult(batch, previous.get().getReserved(), previous.get().getReason(), List.of());
+        }
+        String invalid = invalidLines(batch.getLines());
+        if (invalid != null) {
+            log.warn("⚠️  Rejected stock reservation for order {}: {}", batch.getOrderNumber(), invalid);
+            stockReservationRepository.save(
+                    new StockReservation(batch.getOrderId(), false, invalid, LocalDateTime.now(), null));
+            return toReservationResult(batch, false, invalid, List.of());
+        }
+
+        Map<Long, Integer> requested = new TreeMap<>();
+        for (ReserveStockBatch.Line line : batch.getLines()) {
+            requested.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+        Map<Long, Product> products = productRepository.findAllByIdForUpdate(requested.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+
+        List<Long> unavailable = new ArrayList<>();
+        for (Map.Entry<Long, Integer> line : requested.entrySet()) {
+            Product product = products.get(line.getKey());
+            if (product == null || !Boolean.TRUE.equals(product.getActive())
+                    || product.getStockQuantity() < line.getValue()) {
+                unavailable.add(line.getKey());
+            }
+        }
+
+        boolean reserved = unavailable.isEmpty();
+        String reason = null;
+        if (reserved) {
+            for (Map.Entry<Long, Integer> line : requested.entrySet()) {
+                Product product = products.get(line.getKey());
+                product.setStockQuantity(product.getStockQuantity() - line.getValue());
+                saveChange(product, "STOCK_RESERVED");
+            }
+            log.info("📦 STOCK RESERVED for order {}: {} products", batch.getOrderNumber(), requested.size());
+        } else {
+            reason = "Insufficient stock for products " + unavailable;
+            log.warn("⚠️  Could not reserve stock for order {}: {}", batch.getOrderNumber(), reason);
+        }
+        stockReservationRepository.save(
+                new StockReservation(batch.getOrderId(), reserved, reason, LocalDateTime.now(), null));
+        return toReservationResult(batch, reserved, reason, unavailable);
+    }
+
+    // A request no retry could serve is a rejection, like missing stock
+    private static String invalidLines(List<ReserveStockBatch.Line> lines) {
+        if (lines == null || lines.isEmpty()) {
+            return "No lines to reserve";
+        }
+        for (ReserveStockBatch.Line line : lines) {
+            if (line.getProductId() == null || line.getQuantity() == null || line.getQuantity() <= 0) {
+                return "Invalid line: product " + line.getProductId() + ", quantity " + line.getQuantity();
+            }
+        }
+        return null;
+    }
+
+    private StockReservationResult toReservationResult(ReserveStockBatch batch, boolean reserved, String reason,
+            List<Long> unavailable) {
+        return new StockReservationResult(batch.getOrderId(), batch.getOrderNumber(), reserved, reason, unavailable,
+                batch.getRequestedAt());
+    }
+
+    // Gives back an order's reserved stock once; releases for unknown, rejected or already released orders are ignored
+    @Transactional
+    public boolean releaseStockBatch(ReleaseStockBatch batch) {
+        StockReservation reservation = stockReservationRepository.findForUpdate(batch.getOrderId()).orElse(null);
+        if (reservation == null || !Boolean.TRUE.equals(reservation.getReserved())) {
+            log.warn("No stock reserved for order {}, nothing to release", batch.getOrderNumber());
+            return false;
+        }
+        if (reservation.getReleasedAt() != null) {
+            log.info("Stock for order {} already released at {}", batch.getOrderNumber(),
+                    reservation.getReleasedAt());
+            return false;
+        }
+
+        Map<Long, Integer> released = new TreeMap<>();
+        for (ReserveStockBatch.Line line : batch.getLines()) {
+            released.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+        for (Product product : productRepository.findAllByIdForUpdate(released.keySet())) {
+            product.setStockQuantity(product.getStockQuantity() + released.get(product.getId()));
+            saveChange(product, "STOCK_RELEASED");
+        }
+        reservation.setReleasedAt(LocalDateTime.now());
+        stockReservationRepository.save(reservation);
+        log.info("Released stock for order {}: {} products", batch.getOrderNumber(), released.size());
+        return true;
+    }
+
     @Transactional
     public void releaseStock(Long productId, Integer quantity) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
 
         product.setStockQuantity(product.getStockQuantity() + quantity);
-        productRepository.save(product);
+        saveChange(product, "STOCK_RELEASED");
         log.info("Released {} units of product id: {}", quantity, productId);
     }
 
-    public ApiResponse<List<ProductDTO>> getAllProductsPaginated(int page, int limit, String search) {
-        Pageable pageable = PageRequest.of(page - 1, limit);
-        Page<Product> productPage;
+    // Versions are assigned at commit and become visible in order, so readers resume from latestVersion
+    public ApiResponse<List<ProductChangedEvent>> getChangesSince(long sinceVersion, int limit) {
+        List<ProductChangedEvent> changes = findChangesSince(sinceVersion, limit);
+
+        long latestVersion = changes.isEmpty() ? sinceVersion : changes.get(changes.size() - 1).getVersion();
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("latestVersion", latestVersion);
+        metadata.put("hasMore", changes.size() == limit);
 
-        if (search != null && !search.isEmpty()) {
-            productPage = productRepository.findByNameContainingIgnoreCaseAndActiveTrue(search, pageable);
+        return ApiResponse.success(changes, "Product changes retrieved successfully", metadata);
+    }
+
+    // Changes in version order, each product with its current state
+    public List<ProductChangedEvent> findChangesSince(long sinceVersion, int limit) {
+        return productRepository
+                .findByChangeVersionGreaterThanOrderByChangeVersionAsc(sinceVersion, Limit.of(limit)).stream()
+                .map(product -> toChangedEvent(product, product.getActive() ? "UPDATED" : "DELETED"))
+                .collect(Collectors.toList());
+    }
+
+    public ApiResponse<List<ProductDTO>> getAllProductsPaginated(int page, int limit, String search, ProductSort sort) {
+        boolean searching = search != null && !search.isEmpty();
+        if (sort != null && !searching && sortIndex.isReady()) {
+            return getSortedPage(page, limit, sort);
+        }
+        if (sort == null && !searching && catalogSnapshot.canServeListing()) {
+            return getSnapshotPage(page, limit);
+        }
+
+        Pageable pageable = sort != null
+                ? PageRequest.of(page - 1, limit, sort.toSort())
+                : PageRequest.of(page - 1, limit);
+        Page<ProductSummary> productPage;
+
+        if (searching) {
+            productPage = productRepository.findSummaryByNameContainingIgnoreCaseAndActiveTrue(search, pageable);
         } else {
-            productPage = productRepository.findByActiveTrue(pageable);
+            productPage = productRepository.findSummaryByActiveTrue(pageable);
         }
 
-        List<ProductDTO> products = productPage.getContent().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<ProductDTO> products = toListingDTOs(productPage.getContent());
 
         Map<String, Object> metadata = ApiResponse.createPaginationMetadata(
                 productPage.getNumber() + 1,
@@ -193,7 +448,126 @@ public class ProductService {
         return ApiResponse.success(products, "Products retrieved successfully", metadata);
     }
 
-    private ProductDTO convertToDTO(Product product) {
+    // Page of ids from the in-memory sort index, rows fetched by primary key
+    private ApiResponse<List<ProductDTO>> getSortedPage(int page, int limit, ProductSort sort) {
+        ProductSortIndex.Slice slice = sortIndex.page(sort, page, limit);
+        Map<Long, ProductSummary> byId = productRepository.findSummaryByIdIn(slice.ids()).stream()
+                .collect(Collectors.toMap(ProductSummary::getId, summary -> summary));
+        List<ProductSummary> ordered = slice.ids().stream()
+                .map(byId::get)
+                .filter(summary -> summary != null)
+                .collect(Collectors.toList());
+
+        Map<String, Object> metadata = ApiResponse.createPaginationMetadata(
+                page,
+                limit,
+                slice.total(),
+                (int) ((slice.total() + limit - 1) / limit));
+
+        return ApiResponse.success(toListingDTOs(ordered), "Products retrieved successfully", metadata);
+    }
+
+    // Default listing while the pod warms up: id order from the mapped snapshot
+    private ApiResponse<List<ProductDTO>> getSnapshotPage(int page, int limit) {
+        CatalogSnapshot.SnapshotPage snapshotPage = catalogSnapshot.page(page, limit);
+        Map<String, Object> metadata = ApiResponse.createPaginationMetadata(
+                page,
+                limit,
+                snapshotPage.total(),
+                (int) ((snapshotPage.total() + limit - 1) / limit));
+
+        return ApiResponse.success(fromSnapshot(snapshotPage), "Products retrieved successfully", metadata);
+    }
+
+    // Products changed since the snapshot was written are reloaded; ones deactivated since are dropped
+    private List<ProductDTO> fromSnapshot(CatalogSnapshot.SnapshotPage snapshotPage) {
+        List<Long> stale = snapshotPage.ids().stream()
+                .filter(id -> !snapshotPage.products().containsKey(id))
+                .collect(Collectors.toList());
+        Map<Long, ProductDTO> reloaded = new HashMap<>();
+        if (!stale.isEmpty()) {
+            List<ProductSummary> summaries = productRepository.findSummaryByIdIn(stale).stream()
+                    .filter(summary -> Boolean.TRUE.equals(summary.getActive()))
+                    .collect(Collectors.toList());
+            toListingDTOs(summaries).forEach(product -> reloaded.put(product.getId(), product));
+        }
+        return snapshotPage.ids().stream()
+                .map(id -> snapshotPage.products().getOrDefault(id, reloaded.get(id)))
+                .filter(product -> product != null)
+                .collect(Collectors.toList());
+    }
+
+    // Announces a change written by a bulk statement (e.g. rating aggregates) with the product's current state
+    @Transactional
+    public void announceChange(Long productId, String changeType) {
+        productRepository.findById(productId).ifPresent(product -> {
+            ProductChangedEvent change = toChangedEvent(product, changeType);
+            changeVersions.assignOnCommit(change);
+            eventPublisher.publishEvent(change);
+        });
+    }
+
+    // Marks the product for a change version at commit and announces the change once the transaction commits
+    private Product saveChange(Product product, String changeType) {
+        product.setChangeVersion(null);
+        Product saved = productRepository.save(product);
+        ProductChangedEvent change = toChangedEvent(saved, changeType);
+        changeVersions.assignOnCommit(change);
+        eventPublisher.publishEvent(change);
+        return saved;
+    }
+
+    private ProductChangedEvent toChangedEvent(Product product, String changeType) {
+        return new ProductChangedEvent(
+                product.getId(),
+                product.getChangeVersion(),
+                changeType,
+                product.getName(),
+                product.getCategory(),
+                product.getPrice(),
+                product.getStockQuantity(),
+                product.getActive(),
+                product.getMainImage(),
+                product.getAverageRating(),
+                product.getReviewCount());
+    }
+
+    // Listing rows carry no description; secondary images are fetched in one query per chunk of ids
+    private List<ProductDTO> toListingDTOs(List<ProductSummary> summaries) {
+        Map<Long, List<String>> secondaryImages = new HashMap<>();
+        List<Long> ids = summaries.stream().map(ProductSummary::getId).collect(Collectors.toList());
+        for (int from = 0; from < ids.size(); from += IMAGE_LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IMAGE_LOOKUP_CHUNK_SIZE, ids.size()));
+            for (ProductImage image : productRepository.findSecondaryImagesByProductIdIn(chunk)) {
+                secondaryImages.computeIfAbsent(image.getProductId(), k -> new ArrayList<>()).add(image.getPath());
+            }
+        }
+
+        return summaries.stream()
+                .map(summary -> convertToDTO(summary, secondaryImages.getOrDefault(summary.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    private ProductDTO convertToDTO(ProductSummary summary, List<String> secondaryImages) {
+        return new ProductDTO(
+                summary.getId(),
+                summary.getName(),
+                null,
+                summary.getPrice(),
+                summary.getStockQuantity(),
+                summary.getCategory(),
+                summary.getMainImage(),
+                secondaryImages,
+                summary.getActive(),
+                summary.getAverageRating(),
+                summary.getReviewCount(),
+                null,
+                summary.getCreatedAt(),
+                summary.getUpdatedAt(),
+                summary.getChangeVersion());
+    }
+
+    public ProductDTO convertToDTO(Product product) {
         return new ProductDTO(
                 product.getId(),
                 product.getName(),
@@ -206,7 +580,23 @@ public class ProductService {
                 product.getActive(),
                 product.getAverageRating(),
                 product.getReviewCount(),
+                ratingHistogram(product),
                 product.getCreatedAt(),
-                product.getUpdatedAt());
+                product.getUpdatedAt(),
+                product.getChangeVersion());
+    }
+
+    private Map<Integer, Integer> ratingHistogram(Product product) {
+        Map<Integer, Integer> histogram = new java.util.LinkedHashMap<>();
+        histogram.put(1, orZero(product.getOneStarCount()));
+        histogram.put(2, orZero(product.getTwoStarCount()));
+        histogram.put(3, orZero(product.getThreeStarCount()));
+        histogram.put(4, orZero(product.getFourStarCount()));
+        histogram.put(5, orZero(product.getFiveStarCount()));
+        return histogram;
+    }
+
+    private static int orZero(Integer value) {
+        return value != null ? value : 0;
     }
 }
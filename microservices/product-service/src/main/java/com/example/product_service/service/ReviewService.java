@@ -2,7 +2,6 @@ package com.example.product_service.service;
 
 import com.example.product_service.dto.CreateReviewRequest;
 import com.example.product_service.dto.ReviewDTO;
-import com.example.product_service.entity.Product;
 import com.example.product_service.entity.Review;
 import com.example.product_service.repository.ProductRepository;
 import com.example.product_service.repository.ReviewRepository;
@@ -13,8 +12,6 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -22,13 +19,15 @@ public class ReviewService {
 
     private final ReviewRepository reviewRepository;
     private final ProductRepository productRepository;
+    private final ProductService productService;
 
     @Transactional
     public ReviewDTO createReview(Long productId, Long userId, CreateReviewRequest request) {
         log.info("Creating review for product {} by user {}", productId, userId);
 
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+        if (!productRepository.existsById(productId)) {
+            throw new RuntimeException("Product not found");
+        }
 
         Review review = new Review();
         review.setProductId(productId);
@@ -38,31 +37,35 @@ public class ReviewService {
 
         Review savedReview = reviewRepository.save(review);
 
-        updateProductRating(product);
+        productRepository.applyReviewAdded(productId, savedReview.getRating());
+        productService.announceChange(productId, "RATING_UPDATED");
+        log.info("Added {}-star review to rating aggregates of product {}", savedReview.getRating(), productId);
 
         return convertToDTO(savedReview);
     }
 
-    public Page<ReviewDTO> getProductReviews(Long productId, Pageable pageable) {
-        log.info("Fetching reviews for product {}", productId);
-        return reviewRepository.findByProductId(productId, pageable)
-                .map(this::convertToDTO);
-    }
+    @Transactional
+    public void deleteReview(Long productId, Long reviewId, Long userId) {
+        log.info("Deleting review {} of product {} by user {}", reviewId, productId, userId);
 
-    private void updateProductRating(Product product) {
-        List<Review> reviews = reviewRepository.findByProductId(product.getId());
+        Review review = reviewRepository.findById(reviewId)
+                .filter(r -> r.getProductId().equals(productId))
+                .orElseThrow(() -> new RuntimeException("Review not found"));
 
-        double average = reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
+        if (!review.getUserId().equals(userId)) {
+            throw new RuntimeException("Review can only be deleted by its author");
+        }
 
-        product.setAverageRating(Math.round(average * 10.0) / 10.0); // Round to 1 decimal
-        product.setReviewCount(reviews.size());
+        reviewRepository.delete(review);
+        productRepository.applyReviewRemoved(productId, review.getRating());
+        productService.announceChange(productId, "RATING_UPDATED");
+        log.info("Removed {}-star review from rating aggregates of product {}", review.getRating(), productId);
+    }
 
-        productRepository.save(product);
-        log.info("Updated product {} rating to {} ({} reviews)", product.getId(), product.getAverageRating(),
-                product.getReviewCount());
+    public Page<ReviewDTO> getProductReviews(Long productId, Pageable pageable) {
+        log.info("Fetching reviews for product {}", productId);
+        return reviewRepository.findByProductId(productId, pageable)
+                .map(this::convertToDTO);
     }
 
     private ReviewDTO convertToDTO(Review review) {
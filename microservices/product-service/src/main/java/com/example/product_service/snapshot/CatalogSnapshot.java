@@ -0,0 +1,251 @@
+package com.example.product_service.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.product_service.dto.ProductDTO;
+import com.example.product_service.entity.Product;
+import com.example.product_service.repository.ProductRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Read side of the catalog snapshot. At startup the newest file published by
+ * {@link CatalogSnapshotWriter} is memory-mapped, which costs the same for any
+ * catalog size, and product reads are answered from it while the pod warms
+ * up. Products changed after the snapshot was taken are tracked and always
+ * go to the database. Once a product has been added or deactivated since,
+ * the snapshot no longer has the right listing pages and totals, so listings
+ * go back to the database too. Serving stops after the configured warm-up
+ * window.
+ */
+@Component
+@Slf4j
+public class CatalogSnapshot {
+
+    // A single MappedByteBuffer is limited to 2 GB, so the data section is mapped in windows
+    private static final long WINDOW_BYTES = 1L << 30;
+    private static final int CATCH_UP_PAGE_SIZE = 5000;
+
+    /** A product as stored in the snapshot, with the change version it was written at. */
+    public record SnapshotProduct(long changeVersion, ProductDTO product) {
+    }
+
+    /** Ids of one listing page in snapshot order, and the products still current in the snapshot. */
+    public record SnapshotPage(List<Long> ids, Map<Long, ProductDTO> products, long total) {
+    }
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final Path snapshotDir;
+    private final long serveForMillis;
+    private final Set<Long> changedIds = ConcurrentHashMap.newKeySet();
+
+    private ByteBuffer index;
+    private MappedByteBuffer[] windows;
+    private int count;
+    private long catalogVersion;
+    private volatile boolean serving;
+    private volatile boolean listingChanged;
+    private volatile long servingUntil;
+
+    public CatalogSnapshot(ProductRepository productRepository,
+            ObjectMapper objectMapper,
+            @Value("${product.snapshot.dir}") String snapshotDir,
+            @Value("${product.snapshot.serve-for-seconds}") long serveForSeconds) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.snapshotDir = Path.of(snapshotDir);
+        this.serveForMillis = serveForSeconds * 1000;
+    }
+
+    @PostConstruct
+    void open() {
+        Path snapshotPath;
+        try {
+            List<CatalogSnapshotFormat.Published> published = CatalogSnapshotFormat.published(snapshotDir);
+            if (published.isEmpty()) {
+                log.info("No catalog snapshot in {}, reads go to the database from the start", snapshotDir);
+                return;
+            }
+            snapshotPath = published.get(0).path();
+        } catch (IOException e) {
+            log.warn("Cannot list catalog snapshots in {}: {}", snapshotDir, e.getMessage());
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, CatalogSnapshotFormat.HEADER_BYTES);
+            if (header.getInt(0) != CatalogSnapshotFormat.MAGIC
+                    || header.getInt(4) != CatalogSnapshotFormat.FORMAT) {
+                log.warn("Ignoring catalog snapshot {} with unknown format", snapshotPath);
+                return;
+            }
+            catalogVersion = header.getLong(8);
+            count = header.getInt(24);
+
+            long indexBytes = (long) count * CatalogSnapshotFormat.INDEX_ENTRY_BYTES;
+            index = channel.map(FileChannel.MapMode.READ_ONLY, CatalogSnapshotFormat.HEADER_BYTES, indexBytes);
+            long dataStart = CatalogSnapshotFormat.HEADER_BYTES + indexBytes;
+            long dataBytes = channel.size() - dataStart;
+            windows = new MappedByteBuffer[(int) ((dataBytes + WINDOW_BYTES - 1) / WINDOW_BYTES)];
+            for (int w = 0; w < windows.length; w++) {
+                long position = w * WINDOW_BYTES;
+                windows[w] = channel.map(FileChannel.MapMode.READ_ONLY, dataStart + position,
+                        Math.min(WINDOW_BYTES, dataBytes - position));
+            }
+            log.info("Mapped catalog snapshot of {} products at version {}", count, catalogVersion);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable catalog snapshot {}: {}", snapshotPath, e.getMessage());
+            index = null;
+            windows = null;
+        }
+    }
+
+    // Serving starts once the changes made since the snapshot are known, normally within a second or two
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUpOnStartup() {
+        if (index == null) {
+            return;
+        }
+        Thread.ofVirtual().name("catalog-snapshot-catch-up").start(() -> {
+            try {
+                long since = catalogVersion;
+                List<Product> changes;
+                do {
+                    changes = productRepository.findByChangeVersionGreaterThanOrderByChangeVersionAsc(since,
+                            Limit.of(CATCH_UP_PAGE_SIZE));
+                    for (Product product : changes) {
+                        markChanged(product.getId(), product.getActive());
+                        since = product.getChangeVersion();
+                    }
+                } while (changes.size() == CATCH_UP_PAGE_SIZE);
+                servingUntil = System.currentTimeMillis() + serveForMillis;
+                serving = true;
+                log.info("Serving reads from catalog snapshot, {} products changed since it was written{}",
+                        changedIds.size(), listingChanged ? ", listings from the database" : "");
+            } catch (Exception e) {
+                log.error("Catalog snapshot catch-up failed, reads go to the database: {}", e.getMessage());
+            }
+        });
+    }
+
+    public boolean isServing() {
+        if (serving && System.currentTimeMillis() > servingUntil) {
+            serving = false;
+            index = null;
+            windows = null; // unmapped once collected
+            log.info("Catalog snapshot warm-up window over, reads go to the database");
+        }
+        return serving;
+    }
+
+    /** Called for every product change seen after startup; such products are never served from the file. */
+    public void markChanged(Long productId, Boolean active) {
+        changedIds.add(productId);
+        ByteBuffer currentIndex = index;
+        if (currentIndex != null && active != null && active != (position(currentIndex, productId) >= 0)) {
+            listingChanged = true;
+        }
+    }
+
+    /** Whether the default listing can still be paged from the file: no product added or deactivated since. */
+    public boolean canServeListing() {
+        return isServing() && !listingChanged;
+    }
+
+    public Optional<SnapshotProduct> find(long productId) {
+        ByteBuffer currentIndex = index;
+        MappedByteBuffer[] currentWindows = windows;
+        if (!isServing() || currentIndex == null || changedIds.contains(productId)) {
+            return Optional.empty();
+        }
+        int entry = position(currentIndex, productId);
+        return entry < 0 ? Optional.empty() : Optional.of(read(currentIndex, currentWindows, entry));
+    }
+
+    /**
+     * A listing page in id order, shaped like the database listing (no
+     * description or rating histogram). Products changed since the snapshot
+     * are left for the caller to load. Only meaningful while
+     * {@link #canServeListing()} holds.
+     */
+    public SnapshotPage page(int page, int limit) {
+        ByteBuffer currentIndex = index;
+        MappedByteBuffer[] currentWindows = windows;
+        if (currentIndex == null) {
+            return new SnapshotPage(List.of(), Map.of(), 0);
+        }
+        int from = (int) Math.min((long) Math.max(page - 1, 0) * limit, count);
+        int to = (int) Math.min((long) from + limit, count);
+        List<Long> ids = new ArrayList<>(to - from);
+        Map<Long, ProductDTO> products = new LinkedHashMap<>();
+        for (int i = from; i < to; i++) {
+            long productId = currentIndex.getLong(i * CatalogSnapshotFormat.INDEX_ENTRY_BYTES);
+            ids.add(productId);
+            if (!changedIds.contains(productId)) {
+                ProductDTO product = read(currentIndex, currentWindows, i).product();
+                product.setDescription(null);
+                product.setRatingHistogram(null);
+                products.put(productId, product);
+            }
+        }
+        return new SnapshotPage(ids, products, count);
+    }
+
+    // Binary search over the id-ordered index, -1 when the product is not in the snapshot
+    private int position(ByteBuffer currentIndex, long productId) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = currentIndex.getLong(mid * CatalogSnapshotFormat.INDEX_ENTRY_BYTES);
+            if (midId < productId) {
+                low = mid + 1;
+            } else if (midId > productId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private SnapshotProduct read(ByteBuffer currentIndex, MappedByteBuffer[] currentWindows, int entry) {
+        int base = entry * CatalogSnapshotFormat.INDEX_ENTRY_BYTES;
+        long changeVersion = currentIndex.getLong(base + 8);
+        long offset = currentIndex.getLong(base + 16);
+        int length = currentIndex.getInt(base + 24);
+
+        byte[] json = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            int window = (int) ((offset + copied) / WINDOW_BYTES);
+            int position = (int) ((offset + copied) % WINDOW_BYTES);
+            int chunk = Math.min(length - copied, currentWindows[window].capacity() - position);
+            currentWindows[window].get(position, json, copied, chunk);
+            copied += chunk;
+        }
+        ProductDTO product = objectMapper.readValue(json, ProductDTO.class);
+        product.setChangeVersion(changeVersion);
+        return new SnapshotProduct(changeVersion, product);
+    }
+}
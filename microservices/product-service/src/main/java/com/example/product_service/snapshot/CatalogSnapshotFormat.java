@@ -0,0 +1,64 @@
+package com.example.product_service.snapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Layout of the catalog snapshot file, all values big-endian:
+ *
+ * <pre>
+ * header  int magic, int format, long catalogVersion (loading catches up on changes above it),
+ *         long writtenAtMillis, int count
+ * index   count x (long productId, long changeVersion, long dataOffset, int length), ascending productId
+ * data    the JSON encoded ProductDTO of each entry; offsets are relative to the start of this section
+ * </pre>
+ */
+final class CatalogSnapshotFormat {
+
+    static final int MAGIC = 0x43415453; // "CATS"
+    static final int FORMAT = 1;
+    static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4;
+    static final int INDEX_ENTRY_BYTES = 8 + 8 + 8 + 4;
+
+    // catalog-<catalogVersion>-<writtenAtMillis>.snapshot, published by rename and never rewritten
+    private static final Pattern FILE_NAME = Pattern.compile("catalog-(\\d+)-(\\d+)\\.snapshot");
+
+    /** A published snapshot file and the values encoded in its name. */
+    record Published(Path path, long catalogVersion, long writtenAtMillis) {
+    }
+
+    private CatalogSnapshotFormat() {
+    }
+
+    static String fileName(long catalogVersion, long writtenAtMillis) {
+        return "catalog-" + catalogVersion + "-" + writtenAtMillis + ".snapshot";
+    }
+
+    /** Published snapshots in the directory, newest first; temp files of writers in progress are skipped. */
+    static List<Published> published(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        List<Published> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(dir)) {
+            paths.forEach(path -> {
+                Matcher matcher = FILE_NAME.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    files.add(new Published(path, Long.parseLong(matcher.group(1)),
+                            Long.parseLong(matcher.group(2))));
+                }
+            });
+        }
+        files.sort(Comparator.comparingLong(Published::catalogVersion)
+                .thenComparingLong(Published::writtenAtMillis)
+                .reversed());
+        return files;
+    }
+}
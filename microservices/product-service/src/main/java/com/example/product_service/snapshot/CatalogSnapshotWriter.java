@@ -0,0 +1,213 @@
+package com.example.product_service.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.product_service.entity.Product;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.service.ProductService;
+import com.example.product_service.snapshot.CatalogSnapshotFormat.Published;
+
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Periodically writes every active product to a catalog snapshot file that
+ * new pods map at startup (see {@link CatalogSnapshot}). Data is streamed to
+ * a side file while only the fixed-size index is kept in memory. The finished
+ * file is published under a new name carrying its catalog version, and a
+ * published file is never rewritten: a pod may have it memory-mapped, and
+ * changing a mapped file (on NFS in particular) crashes the reader with
+ * SIGBUS. Older files are deleted once no pod can still be serving from them.
+ * <p>
+ * Every pod runs this job; a pod skips its turn when another one published a
+ * snapshot within the last half interval or nothing changed since the newest.
+ */
+@Component
+@Slf4j
+public class CatalogSnapshotWriter {
+
+    private static final int PAGE_SIZE = 500;
+
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Path snapshotDir;
+    private final long writeIntervalMillis;
+    private final long retainMillis;
+
+    public CatalogSnapshotWriter(ProductRepository productRepository,
+            ProductService productService,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            @Value("${product.snapshot.dir}") String snapshotDir,
+            @Value("${product.snapshot.write-interval-ms}") long writeIntervalMillis,
+            @Value("${product.snapshot.serve-for-seconds}") long serveForSeconds) {
+        this.productRepository = productRepository;
+        this.productService = productService;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.snapshotDir = Path.of(snapshotDir);
+        this.writeIntervalMillis = writeIntervalMillis;
+        // Twice the serving window leaves room for a slow startup before it
+        this.retainMillis = 2 * serveForSeconds * 1000;
+    }
+
+    @Scheduled(fixedDelayString = "${product.snapshot.write-interval-ms}",
+            initialDelayString = "${product.snapshot.write-interval-ms}")
+    public void write() {
+        long start = System.currentTimeMillis();
+        // Unique temp names: pods sharing the snapshot volume may write at the same time
+        String id = UUID.randomUUID().toString();
+        Path dataFile = snapshotDir.resolve("catalog-" + id + ".data.tmp");
+        Path snapshotFile = snapshotDir.resolve("catalog-" + id + ".tmp");
+        try {
+            Files.createDirectories(snapshotDir);
+            // Read before the scan: anything committed later has a higher version and is caught up on load
+            long catalogVersion = productService.getCatalogVersion();
+            List<Published> published = CatalogSnapshotFormat.published(snapshotDir);
+            if (!published.isEmpty()) {
+                Published newest = published.get(0);
+                if (newest.writtenAtMillis() > start - writeIntervalMillis / 2
+                        || newest.catalogVersion() == catalogVersion) {
+                    log.debug("Catalog snapshot {} is recent or current, not writing", newest.path());
+                    prune();
+                    return;
+                }
+            }
+            Index index = new Index();
+            try (OutputStream data = new BufferedOutputStream(Files.newOutputStream(dataFile))) {
+                long offset = 0;
+                long lastId = 0;
+                List<Entry> page;
+                do {
+                    long afterId = lastId;
+                    page = transactionTemplate.execute(status -> loadPage(afterId));
+                    for (Entry entry : page) {
+                        data.write(entry.json());
+                        index.add(entry.productId(), entry.changeVersion(), offset, entry.json().length);
+                        offset += entry.json().length;
+                        lastId = entry.productId();
+                    }
+                } while (page.size() == PAGE_SIZE);
+            }
+
+            try (FileChannel out = FileChannel.open(snapshotFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                DataOutputStream header = new DataOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(out)));
+                header.writeInt(CatalogSnapshotFormat.MAGIC);
+                header.writeInt(CatalogSnapshotFormat.FORMAT);
+                header.writeLong(catalogVersion);
+                header.writeLong(System.currentTimeMillis());
+                header.writeInt(index.size);
+                for (int i = 0; i < index.size; i++) {
+                    header.writeLong(index.productIds[i]);
+                    header.writeLong(index.versions[i]);
+                    header.writeLong(index.offsets[i]);
+                    header.writeInt(index.lengths[i]);
+                }
+                header.flush();
+                try (FileChannel in = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+                    long position = 0;
+                    long size = in.size();
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+            Path target = snapshotDir.resolve(
+                    CatalogSnapshotFormat.fileName(catalogVersion, System.currentTimeMillis()));
+            Files.move(snapshotFile, target, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Catalog snapshot {} of {} products written in {} ms",
+                    target.getFileName(), index.size, System.currentTimeMillis() - start);
+            prune();
+        } catch (Exception e) {
+            log.error("Failed to write catalog snapshot in {}: {}", snapshotDir, e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(dataFile);
+                Files.deleteIfExists(snapshotFile);
+            } catch (IOException e) {
+                log.debug("Could not remove {}: {}", dataFile, e.getMessage());
+            }
+        }
+    }
+
+    // A file is deleted once its successor has been published for longer than a pod can serve from it
+    private void prune() throws IOException {
+        long cutoff = System.currentTimeMillis() - retainMillis;
+        List<Published> published = CatalogSnapshotFormat.published(snapshotDir);
+        for (int i = 1; i < published.size(); i++) {
+            if (published.get(i - 1).writtenAtMillis() < cutoff) {
+                Files.deleteIfExists(published.get(i).path());
+            }
+        }
+        // Left behind by writers that died mid-write
+        try (Stream<Path> files = Files.list(snapshotDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().endsWith(".tmp")
+                        && Files.getLastModifiedTime(file).toMillis() < cutoff) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private List<Entry> loadPage(long afterId) {
+        List<Product> products = productRepository.findByActiveTrueAndIdGreaterThanOrderByIdAsc(afterId,
+                Limit.of(PAGE_SIZE));
+        return products.stream()
+                .map(product -> new Entry(
+                        product.getId(),
+                        product.getChangeVersion() == null ? 0 : product.getChangeVersion(),
+                        objectMapper.writeValueAsBytes(productService.convertToDTO(product))))
+                .toList();
+    }
+
+    private record Entry(long productId, long changeVersion, byte[] json) {
+    }
+
+    // Growable parallel arrays; about 28 bytes per product
+    private static final class Index {
+
+        long[] productIds = new long[1024];
+        long[] versions = new long[1024];
+        long[] offsets = new long[1024];
+        int[] lengths = new int[1024];
+        int size;
+
+        void add(long productId, long version, long offset, int length) {
+            if (size == productIds.length) {
+                productIds = Arrays.copyOf(productIds, size * 2);
+                versions = Arrays.copyOf(versions, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            productIds[size] = productId;
+            versions[size] = version;
+            offsets[size] = offset;
+            lengths[size] = length;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.product_service.suggest;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.example.product_service.dto.ProductChangedEvent;
+import com.example.product_service.dto.ProductSuggestionDTO;
+import com.example.product_service.dto.SuggestionsDTO;
+import com.example.product_service.repository.ProductIndexSource;
+import com.example.product_service.repository.ProductRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory typeahead index over active product names and categories. It is
+ * built once after startup and then kept current from the product change
+ * feed; every product remembers the change version it was indexed at, so
+ * stale or replayed events are ignored.
+ */
+@Component
+@Slf4j
+public class ProductSuggestionIndex {
+
+    private static final int BUILD_PAGE_SIZE = 5000;
+    // Names are also indexed from each later word start ("iphone" finds "Apple iPhone 15")
+    private static final int MAX_INDEXED_WORDS = 8;
+
+    private final ProductRepository productRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final SuggestionTrie<ProductEntry> productTrie = new SuggestionTrie<>();
+    private final SuggestionTrie<CategoryEntry> categoryTrie = new SuggestionTrie<>();
+    private final Map<Long, ProductEntry> products = new HashMap<>();
+    private final Map<String, CategoryEntry> categories = new HashMap<>();
+    private volatile boolean ready;
+
+    public ProductSuggestionIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread.ofVirtual().name("suggestion-index-build").start(this::build);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public SuggestionsDTO suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return new SuggestionsDTO(prefix, List.of(), List.of());
+        }
+        lock.readLock().lock();
+        try {
+            List<String> categoryNames = categoryTrie.topK(key, limit).stream()
+                    .map(category -> category.name)
+                    .toList();
+            List<ProductSuggestionDTO> productSuggestions = productTrie.topK(key, limit).stream()
+                    .map(product -> new ProductSuggestionDTO(product.id, product.name, product.category))
+                    .toList();
+            return new SuggestionsDTO(prefix, categoryNames, productSuggestions);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void apply(ProductChangedEvent event) {
+        upsert(event.getProductId(), event.getVersion(), event.getName(), event.getCategory(),
+                event.getActive(), event.getAverageRating(), event.getReviewCount());
+    }
+
+    private void build() {
+        long start = System.currentTimeMillis();
+        long lastId = 0;
+        try {
+            List<ProductIndexSource> page;
+            do {
+                page = productRepository.findIndexSourceByIdGreaterThanOrderByIdAsc(lastId, Limit.of(BUILD_PAGE_SIZE));
+                for (ProductIndexSource source : page) {
+                    upsert(source.getId(), source.getChangeVersion(), source.getName(), source.getCategory(),
+                            source.getActive(), source.getAverageRating(), source.getReviewCount());
+                    lastId = source.getId();
+                }
+            } while (page.size() == BUILD_PAGE_SIZE);
+            ready = true;
+            log.info("Suggestion index built in {} ms: {} products, {} keys",
+                    System.currentTimeMillis() - start, products.size(), productTrie.size());
+        } catch (Exception e) {
+            log.error("Failed to build suggestion index, suggestions fall back to the database: {}", e.getMessage());
+        }
+    }
+
+    private void upsert(Long id, Long version, String name, String category, Boolean active,
+            Double averageRating, Integer reviewCount) {
+        long changeVersion = version == null ? 0 : version;
+        boolean indexed = Boolean.TRUE.equals(active) && name != null && !normalize(name).isEmpty();
+        double weight = weight(averageRating, reviewCount);
+
+        lock.writeLock().lock();
+        try {
+            ProductEntry existing = products.get(id);
+            if (existing != null && existing.version >= changeVersion) {
+                return;
+            }
+            if (existing != null && existing.indexed == indexed && existing.weight == weight
+                    && Objects.equals(existing.name, name) && Objects.equals(existing.category, category)) {
+                existing.version = changeVersion;
+                return;
+            }
+            if (existing != null && existing.indexed) {
+                unindex(existing);
+            }
+            ProductEntry entry = new ProductEntry(id, changeVersion, name, category, weight, indexed);
+            products.put(id, entry);
+            if (indexed) {
+                index(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(ProductEntry entry) {
+        for (String key : keys(entry.name)) {
+            productTrie.insert(key, entry, entry.weight);
+        }
+        String categoryKey = normalize(entry.category);
+        if (categoryKey.isEmpty()) {
+            return;
+        }
+        CategoryEntry category = categories.computeIfAbsent(categoryKey, k -> new CategoryEntry(entry.category));
+        if (category.productCount > 0) {
+            removeCategory(categoryKey, category);
+        }
+        category.productCount++;
+        for (String key : keys(category.name)) {
+            categoryTrie.insert(key, category, category.productCount);
+        }
+    }
+
+    private void unindex(ProductEntry entry) {
+        for (String key : keys(entry.name)) {
+            productTrie.remove(key, entry);
+        }
+        String categoryKey = normalize(entry.category);
+        CategoryEntry category = categories.get(categoryKey);
+        if (category == null) {
+            return;
+        }
+        removeCategory(categoryKey, category);
+        category.productCount--;
+        if (category.productCount == 0) {
+            categories.remove(categoryKey);
+        } else {
+            for (String key : keys(category.name)) {
+                categoryTrie.insert(key, category, category.productCount);
+            }
+        }
+    }
+
+    private void removeCategory(String categoryKey, CategoryEntry category) {
+        for (String key : keys(category.name)) {
+            categoryTrie.remove(key, category);
+        }
+    }
+
+    // Ranks well-reviewed, well-rated products first; unreviewed products tie at zero
+    static double weight(Double averageRating, Integer reviewCount) {
+        double rating = averageRating == null ? 0 : averageRating;
+        int count = reviewCount == null ? 0 : reviewCount;
+        return Math.log1p(count) * (1.0 + rating);
+    }
+
+    static List<String> keys(String text) {
+        String normalized = normalize(text);
+        List<String> keys = new ArrayList<>();
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        keys.add(normalized);
+        int space = normalized.indexOf(' ');
+        while (space >= 0 && keys.size() < MAX_INDEXED_WORDS) {
+            keys.add(normalized.substring(space + 1));
+            space = normalized.indexOf(' ', space + 1);
+        }
+        return keys;
+    }
+
+    // Lower case, accents stripped, runs of punctuation and whitespace collapsed to one space
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                pendingSpace = false;
+                normalized.append(Character.toLowerCase(c));
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static final class ProductEntry {
+
+        final Long id;
+        long version;
+        final String name;
+        final String category;
+        final double weight;
+        final boolean indexed;
+
+        ProductEntry(Long id, long version, String name, String category, double weight, boolean indexed) {
+            this.id = id;
+            this.version = version;
+            this.name = name;
+            this.category = category;
+            this.weight = weight;
+            this.indexed = indexed;
+        }
+    }
+
+    private static final class CategoryEntry {
+
+        final String name;
+        int productCount;
+
+        CategoryEntry(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.product_service.suggest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Radix (path-compressed) trie from normalized keys to weighted values.
+ * Every node keeps the highest weight found in its subtree, so the top-K
+ * values under a prefix are found best-first without visiting the whole
+ * subtree. A value may be stored under several keys; {@link #topK} returns
+ * it once. Not thread-safe; callers guard access.
+ */
+public class SuggestionTrie<T> {
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node(new char[0]);
+    private int size;
+
+    /** Number of (key, value) pairs in the trie. */
+    public int size() {
+        return size;
+    }
+
+    public void insert(String key, T value, double weight) {
+        Node node = root;
+        node.best = Math.max(node.best, weight);
+        int i = 0;
+        while (i < key.length()) {
+            int index = node.childIndex(key.charAt(i));
+            if (index < 0) {
+                Node leaf = new Node(key.substring(i).toCharArray());
+                leaf.addTerminal(value, weight);
+                node.insertChild(-index - 1, leaf);
+                size++;
+                return;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length) {
+                child = split(node, index, common);
+            }
+            child.best = Math.max(child.best, weight);
+            node = child;
+            i += common;
+        }
+        node.addTerminal(value, weight);
+        size++;
+    }
+
+    public boolean remove(String key, T value) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            int index = node.childIndex(key.charAt(i));
+            if (index < 0) {
+                return false;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length) {
+                return false;
+            }
+            node = child;
+            path.add(node);
+            i += common;
+        }
+        if (!node.removeTerminal(value)) {
+            return false;
+        }
+        size--;
+
+        // Walk back up: prune empty leaves, merge pass-through nodes, refresh subtree maxima
+        for (int depth = path.size() - 1; depth > 0; depth--) {
+            Node current = path.get(depth);
+            Node parent = path.get(depth - 1);
+            if (current.terminalCount == 0 && current.children.length == 0) {
+                parent.removeChild(current);
+            } else if (current.terminalCount == 0 && current.children.length == 1) {
+                Node only = current.children[0];
+                char[] merged = Arrays.copyOf(current.label, current.label.length + only.label.length);
+                System.arraycopy(only.label, 0, merged, current.label.length, only.label.length);
+                only.label = merged;
+                parent.replaceChild(current, only);
+            } else {
+                current.recomputeBest();
+            }
+        }
+        root.recomputeBest();
+        return true;
+    }
+
+    /** Highest-weighted distinct values stored under keys starting with {@code prefix}. */
+    @SuppressWarnings("unchecked")
+    public List<T> topK(String prefix, int k) {
+        List<T> result = new ArrayList<>(k);
+        Node start = find(prefix);
+        if (start == null || k <= 0) {
+            return result;
+        }
+
+        Set<T> seen = new HashSet<>();
+        PriorityQueue<Candidate> queue = new PriorityQueue<>();
+        queue.add(new Candidate(start.best, start, null));
+        while (!queue.isEmpty() && result.size() < k) {
+            Candidate candidate = queue.poll();
+            if (candidate.node == null) {
+                T value = (T) candidate.value;
+                if (seen.add(value)) {
+                    result.add(value);
+                }
+                continue;
+            }
+            Node node = candidate.node;
+            for (int t = 0; t < node.terminalCount; t++) {
+                queue.add(new Candidate(node.weights[t], null, node.values[t]));
+            }
+            for (Node child : node.children) {
+                queue.add(new Candidate(child.best, child, null));
+            }
+        }
+        return result;
+    }
+
+    public void clear() {
+        root.children = NO_CHILDREN;
+        root.values = null;
+        root.weights = null;
+        root.terminalCount = 0;
+        root.best = Double.NEGATIVE_INFINITY;
+        size = 0;
+    }
+
+    // Node whose subtree holds exactly the keys starting with prefix, or null
+    private Node find(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            int index = node.childIndex(prefix.charAt(i));
+            if (index < 0) {
+                return null;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, prefix, i);
+            if (common < child.label.length && i + common < prefix.length()) {
+                return null;
+            }
+            node = child;
+            i += common;
+        }
+        return node;
+    }
+
+    private Node split(Node parent, int index, int at) {
+        Node child = parent.children[index];
+        Node middle = new Node(Arrays.copyOf(child.label, at));
+        child.label = Arrays.copyOfRange(child.label, at, child.label.length);
+        middle.children = new Node[] { child };
+        middle.best = child.best;
+        parent.children[index] = middle;
+        return middle;
+    }
+
+    private static int commonPrefix(char[] label, String key, int offset) {
+        int max = Math.min(label.length, key.length() - offset);
+        int i = 0;
+        while (i < max && label[i] == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node {
+
+        char[] label;
+        Node[] children = NO_CHILDREN; // sorted by first label char
+        Object[] values;
+        double[] weights;
+        int terminalCount;
+        double best = Double.NEGATIVE_INFINITY;
+
+        Node(char[] label) {
+            this.label = label;
+        }
+
+        int childIndex(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midChar = children[mid].label[0];
+                if (midChar < c) {
+                    low = mid + 1;
+                } else if (midChar > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void insertChild(int position, Node child) {
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, position);
+            grown[position] = child;
+            System.arraycopy(children, position, grown, position + 1, children.length - position);
+            children = grown;
+        }
+
+        void removeChild(Node child) {
+            int index = childIndex(child.label[0]);
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, index);
+            System.arraycopy(children, index + 1, shrunk, index, children.length - index - 1);
+            children = shrunk.length == 0 ? NO_CHILDREN : shrunk;
+        }
+
+        void replaceChild(Node old, Node replacement) {
+            children[childIndex(old.label[0])] = replacement;
+        }
+
+        void addTerminal(Object value, double weight) {
+            if (values == null) {
+                values = new Object[1];
+                weights = new double[1];
+            } else if (terminalCount == values.length) {
+                values = Arrays.copyOf(values, terminalCount * 2);
+                weights = Arrays.copyOf(weights, terminalCount * 2);
+            }
+            values[terminalCount] = value;
+            weights[terminalCount] = weight;
+            terminalCount++;
+            best = Math.max(best, weight);
+        }
+
+        boolean removeTerminal(Object value) {
+            for (int t = 0; t < terminalCount; t++) {
+                if (values[t].equals(value)) {
+                    terminalCount--;
+                    values[t] = values[terminalCount];
+                    weights[t] = weights[terminalCount];
+                    values[terminalCount] = null;
+                    if (terminalCount == 0) {
+                        values = null;
+                        weights = null;
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void recomputeBest() {
+            double max = Double.NEGATIVE_INFINITY;
+            for (int t = 0; t < terminalCount; t++) {
+                max = Math.max(max, weights[t]);
+            }
+            for (Node child : children) {
+                max = Math.max(max, child.best);
+            }
+            best = max;
+        }
+    }
+
+    private record Candidate(double weight, Node node, Object value) implements Comparable<Candidate> {
+
+        @Override
+        public int compareTo(Candidate other) {
+            return Double.compare(other.weight, weight);
+        }
+    }
+}
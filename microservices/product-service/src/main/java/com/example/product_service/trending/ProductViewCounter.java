@@ -0,0 +1,36 @@
+package com.example.product_service.trending;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Product views since the last flush. Recording is one
+ * {@link ConcurrentHashMap#merge}, which locks only that product's bin for an
+ * addition, so the request thread never waits on the database. Draining takes
+ * and removes each count atomically: a view recorded at the same moment lands
+ * either in this drain or in the next one, never in neither.
+ */
+@Component
+public class ProductViewCounter {
+
+    private final ConcurrentHashMap<Long, Long> counters = new ConcurrentHashMap<>();
+
+    public void record(Long productId) {
+        counters.merge(productId, 1L, Long::sum);
+    }
+
+    /** Takes the counts recorded so far; products without new views are not in the map. */
+    public Map<Long, Long> drain() {
+        Map<Long, Long> views = new HashMap<>();
+        for (Long productId : counters.keySet()) {
+            counters.computeIfPresent(productId, (id, count) -> {
+                views.put(id, count);
+                return null;
+            });
+        }
+        return views;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.product_service.trending;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * The current top trending product ids, replaced wholesale after every flush
+ * so reads are a plain volatile load.
+ */
+@Component
+public class TrendingRanking {
+
+    private volatile List<Long> topProductIds = List.of();
+
+    public List<Long> top(int limit) {
+        List<Long> ids = topProductIds;
+        return ids.subList(0, Math.min(limit, ids.size()));
+    }
+
+    public void replace(List<Long> productIds) {
+        topProductIds = List.copyOf(productIds);
+    }
+}
@@ -0,0 +1,19 @@
+-- Runs after Hibernate has updated the schema (spring.jpa.defer-datasource-initialization)
+
+-- Change versions are handed out from this single row as transactions commit, see ProductChangeVersions
+CREATE TABLE IF NOT EXISTS product_change_clock (id integer PRIMARY KEY, version bigint NOT NULL);
+INSERT INTO product_change_clock (id, version)
+    SELECT 1, COALESCE(MAX(change_version), 0) FROM products
+    WHERE NOT EXISTS (SELECT 1 FROM product_change_clock);
+
+-- Products written before change versions existed still need one to show up in /products/changes
+UPDATE products SET change_version = c.version + t.n
+    FROM (SELECT id, ROW_NUMBER() OVER (ORDER BY id) AS n FROM products WHERE change_version IS NULL) t,
+        product_change_clock c
+    WHERE products.id = t.id;
+UPDATE product_change_clock SET version = (SELECT MAX(change_version) FROM products)
+    WHERE version < (SELECT MAX(change_version) FROM products);
+
+-- Cleanup rows used to take IDENTITY ids; move the pooled sequence past them once
+SELECT setval('image_cleanup_outbox_seq', m) FROM (SELECT MAX(id) AS m FROM image_cleanup_outbox) t
+    WHERE m >= (SELECT last_value FROM image_cleanup_outbox_seq);
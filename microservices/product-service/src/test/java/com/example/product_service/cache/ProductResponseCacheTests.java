@@ -0,0 +1,127 @@
+package com.example.product_service.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.product_service.dto.ProductChangedEvent;
+import com.example.product_service.dto.ProductDTO;
+import com.example.product_service.listing.ProductSortIndex;
+import com.example.product_service.messaging.ProductChangeFeedListener;
+import com.example.product_service.snapshot.CatalogSnapshot;
+import com.example.product_service.suggest.ProductSuggestionIndex;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import tools.jackson.databind.json.JsonMapper;
+
+class ProductResponseCacheTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger renders = new AtomicInteger();
+    private ProductResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductResponseCache(JsonMapper.builder().build(), meterRegistry);
+        ReflectionTestUtils.setField(cache, "maxEntries", 10);
+    }
+
+    @Test
+    void sameVersionIsServedFromTheCache() {
+        byte[] first = cache.get(1L, 5, () -> product(1L, "Lamp"));
+        byte[] second = cache.get(1L, 5, () -> product(1L, "changed meanwhile"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(new String(second, StandardCharsets.UTF_8)).contains("\"name\":\"Lamp\"");
+        assertThat(renders).hasValue(1);
+        assertThat(meterRegistry.get("product.response.cache").tag("result", "hit").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("product.response.cache").tag("result", "miss").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void newerVersionRendersAgainAndReplacesTheEntry() {
+        cache.get(1L, 5, () -> product(1L, "Lamp"));
+
+        byte[] updated = cache.get(1L, 6, () -> product(1L, "Desk lamp"));
+        byte[] again = cache.get(1L, 6, () -> product(1L, "unused"));
+
+        assertThat(new String(updated, StandardCharsets.UTF_8)).contains("Desk lamp");
+        assertThat(again).isSameAs(updated);
+        assertThat(renders).hasValue(2);
+    }
+
+    @Test
+    void olderVersionDoesNotReplaceANewerEntry() {
+        byte[] newer = cache.get(1L, 6, () -> product(1L, "Desk lamp"));
+
+        // a reader that looked up the version before the change committed
+        cache.get(1L, 5, () -> product(1L, "Lamp"));
+
+        assertThat(cache.get(1L, 6, () -> product(1L, "unused"))).isSameAs(newer);
+        assertThat(renders).hasValue(2);
+    }
+
+    @Test
+    void evictedProductIsRenderedAgain() {
+        cache.get(1L, 5, () -> product(1L, "Lamp"));
+
+        cache.evict(1L);
+        cache.get(1L, 5, () -> product(1L, "Lamp"));
+
+        assertThat(renders).hasValue(2);
+        assertThat(entries()).containsOnlyKeys(1L);
+    }
+
+    @Test
+    void productChangeMessageEvictsTheCachedBody() {
+        cache.get(1L, 5, () -> product(1L, "Lamp"));
+        cache.get(2L, 3, () -> product(2L, "Chair"));
+        ProductChangeFeedListener listener = new ProductChangeFeedListener(mock(ProductSuggestionIndex.class),
+                mock(ProductSortIndex.class), cache, mock(CatalogSnapshot.class));
+        ProductChangedEvent change = new ProductChangedEvent();
+        change.setProductId(1L);
+        change.setVersion(6L);
+        change.setActive(true);
+
+        listener.handleProductChanged(change);
+
+        assertThat(entries()).containsOnlyKeys(2L);
+    }
+
+    @Test
+    void sizeStaysBoundedWhenManyProductsAreRead() {
+        for (long id = 1; id <= 100; id++) {
+            long productId = id;
+            cache.get(productId, 1, () -> product(productId, "Product " + productId));
+        }
+
+        assertThat(entries()).hasSizeLessThanOrEqualTo(10);
+        assertThat(meterRegistry.get("product.response.cache.size").gauge().value())
+                .isEqualTo(entries().size());
+        // the most recent product was cached after making room
+        assertThat(entries()).containsKey(100L);
+    }
+
+    private ProductDTO product(Long id, String name) {
+        renders.incrementAndGet();
+        return new ProductDTO(id, name, "Description", new BigDecimal("19.99"), 4, "Home", "uploads/main.png",
+                List.of("uploads/a.png"), true, 4.5, 2, Map.of(5, 1, 4, 1), null, null, 5L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, ?> entries() {
+        return (ConcurrentHashMap<Long, ?>) ReflectionTestUtils.getField(cache, "entries");
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.product_service.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ConcurrencyLimitRequestFactoryTests {
+
+    private static final URI FILES = URI.create("http://file-service/files");
+
+    private final ClientHttpRequestFactory delegate = mock(ClientHttpRequestFactory.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ConcurrencyLimitRequestFactory factory;
+
+    @BeforeEach
+    void setUp() {
+        factory = new ConcurrencyLimitRequestFactory(delegate, "file-service", 1, 10, meterRegistry);
+    }
+
+    @Test
+    void largeUploadIsStreamedToTheClientNotBuffered() throws IOException {
+        long size = 64L * 1024 * 1024;
+        ClientHttpRequest request = streamingRequest();
+        AtomicReference<StreamingHttpOutputMessage.Body> body = new AtomicReference<>();
+        doAnswer(invocation -> {
+            body.set(invocation.getArgument(0));
+            return null;
+        }).when((StreamingHttpOutputMessage) request).setBody(any(StreamingHttpOutputMessage.Body.class));
+        AtomicLong sent = new AtomicLong();
+        AtomicLong inFlightWhileSending = new AtomicLong();
+        when(request.execute()).thenAnswer(invocation -> {
+            inFlightWhileSending.set((long) inFlight());
+            body.get().writeTo(new CountingOutputStream(sent));
+            return response("{\"path\":\"uploads/big.bin\"}");
+        });
+        when(delegate.createRequest(FILES, HttpMethod.POST)).thenReturn(request);
+
+        MultiValueMap<String, Object> parts = new LinkedMultiValueMap<>();
+        parts.add("file", new InputStreamResource(new ZeroInputStream(size)) {
+            @Override
+            public String getFilename() {
+                return "big.bin";
+            }
+
+            @Override
+            public long contentLength() {
+                return size;
+            }
+        });
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        Map<?, ?> result = new RestTemplate(factory)
+                .postForObject(FILES, new HttpEntity<>(parts, headers), Map.class);
+
+        assertThat(result.get("path")).isEqualTo("uploads/big.bin");
+        // The body went through setBody, written only when the client sent it
+        verify(request, never()).getBody();
+        assertThat(sent.get()).isGreaterThan(size);
+        assertThat(inFlightWhileSending.get()).isEqualTo(1);
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void slotIsHeldUntilTheResponseIsClosed() throws IOException {
+        ClientHttpRequest request = streamingRequest();
+        when(request.execute()).thenAnswer(invocation -> response("{}"));
+        when(delegate.createRequest(FILES, HttpMethod.GET)).thenReturn(request);
+
+        ClientHttpResponse first = factory.createRequest(FILES, HttpMethod.GET).execute();
+        assertThatThrownBy(() -> factory.createRequest(FILES, HttpMethod.GET).execute())
+                .isInstanceOf(ResourceAccessException.class);
+        assertThat(meterRegistry.get("http.client.saturated").counter().count()).isEqualTo(1.0);
+
+        first.close();
+        first.close();
+        assertThat(inFlight()).isZero();
+        factory.createRequest(FILES, HttpMethod.GET).execute().close();
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void slotIsReleasedWhenTheCallFails() throws IOException {
+        ClientHttpRequest request = streamingRequest();
+        when(request.execute()).thenThrow(new IOException("connection refused"));
+        when(delegate.createRequest(FILES, HttpMethod.GET)).thenReturn(request);
+
+        assertThatThrownBy(() -> factory.createRequest(FILES, HttpMethod.GET).execute())
+                .isInstanceOf(IOException.class);
+
+        assertThat(inFlight()).isZero();
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("http.client.in.flight").gauge().value();
+    }
+
+    private static ClientHttpRequest streamingRequest() {
+        ClientHttpRequest request = mock(ClientHttpRequest.class,
+                withSettings().extraInterfaces(StreamingHttpOutputMessage.class));
+        when(request.getHeaders()).thenReturn(new HttpHeaders());
+        when(request.getAttributes()).thenReturn(new HashMap<>());
+        return request;
+    }
+
+    private static ClientHttpResponse response(String json) throws IOException {
+        ClientHttpResponse response = mock(ClientHttpResponse.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        when(response.getStatusCode()).thenReturn(HttpStatus.OK);
+        when(response.getHeaders()).thenReturn(headers);
+        when(response.getBody()).thenReturn(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+        return response;
+    }
+
+    // A large file that never exists in memory
+    private static class ZeroInputStream extends InputStream {
+
+        private long remaining;
+
+        ZeroInputStream(long size) {
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() {
+            if (remaining == 0) {
+                return -1;
+            }
+            remaining--;
+            return 0;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (remaining == 0) {
+                return -1;
+            }
+            int n = (int) Math.min(length, remaining);
+            Arrays.fill(buffer, offset, offset + n, (byte) 0);
+            remaining -= n;
+            return n;
+        }
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+
+        private final AtomicLong count;
+
+        CountingOutputStream(AtomicLong count) {
+            this.count = count;
+        }
+
+        @Override
+        public void write(int b) {
+            count.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            count.addAndGet(length);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.product_service.importer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.product_service.importer.ImportRowReader.ParsedRow;
+
+class CsvRowReaderTests {
+
+    @Test
+    void quotedFieldsKeepCommasQuotesAndLineBreaks() throws IOException {
+        List<ParsedRow> rows = read("""
+                name,description,price,stock_quantity
+                "Desk, oak","The ""big"" one
+                spans two lines",120.50,3
+                Lamp,,9.99,10
+                """);
+
+        assertThat(rows).hasSize(2);
+        ProductImportRow desk = rows.get(0).row();
+        assertThat(desk.getName()).isEqualTo("Desk, oak");
+        assertThat(desk.getDescription()).isEqualTo("The \"big\" one\nspans two lines");
+        assertThat(desk.getPrice()).isEqualByComparingTo(new BigDecimal("120.50"));
+        assertThat(desk.getStockQuantity()).isEqualTo(3);
+        // line numbers are where each record starts, so the lamp is on line 4
+        assertThat(rows).extracting(ParsedRow::line).containsExactly(2L, 4L);
+        assertThat(rows.get(1).row().getDescription()).isNull();
+    }
+
+    @Test
+    void headerNamesAreMatchedLooselyAndUnknownColumnsIgnored() throws IOException {
+        List<ParsedRow> rows = read("""
+                SKU,Name,Price,StockQuantity,Main_Image,Active\r
+                A-1,Chair,25,4,uploads/chair.png,FALSE\r
+                """);
+
+        ProductImportRow chair = rows.get(0).row();
+        assertThat(chair.getName()).isEqualTo("Chair");
+        assertThat(chair.getMainImage()).isEqualTo("uploads/chair.png");
+        assertThat(chair.getActive()).isFalse();
+    }
+
+    @Test
+    void badValuesAreReportedAsRowErrors() throws IOException {
+        List<ParsedRow> rows = read("""
+                name,price,stock_quantity,active
+                Chair,abc,4,true
+
+                Table,10,4,yes
+                Lamp,10,4,
+                """);
+
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0).error()).startsWith("invalid number");
+        assertThat(rows.get(0).line()).isEqualTo(2);
+        assertThat(rows.get(1).error()).isEqualTo("invalid active value: yes (expected true or false)");
+        assertThat(rows.get(1).line()).isEqualTo(4);
+        assertThat(rows.get(2).error()).isNull();
+        assertThat(rows.get(2).row().getActive()).isNull();
+    }
+
+    @Test
+    void unterminatedQuoteFailsTheFile() throws IOException {
+        CsvRowReader reader = new CsvRowReader(new StringReader("name,price,stock_quantity\n\"Chair,10,4\n"));
+
+        assertThatThrownBy(reader::next)
+                .isInstanceOf(IOException.class)
+                .hasMessage("Unterminated quoted field starting on line 2");
+    }
+
+    @Test
+    void headerWithoutRequiredColumnsIsRejected() {
+        assertThatThrownBy(() -> new CsvRowReader(new StringReader("name,price\nChair,10\n")))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("stockQuantity");
+        assertThatThrownBy(() -> new CsvRowReader(new StringReader("")))
+                .isInstanceOf(IOException.class)
+                .hasMessage("CSV file is empty");
+    }
+
+    private static List<ParsedRow> read(String csv) throws IOException {
+        CsvRowReader reader = new CsvRowReader(new StringReader(csv));
+        List<ParsedRow> rows = new ArrayList<>();
+        ParsedRow row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.product_service.importer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.product_service.importer.ImportRowReader.ParsedRow;
+
+import tools.jackson.databind.json.JsonMapper;
+
+class NdjsonRowReaderTests {
+
+    @Test
+    void eachLineIsOneProductAndBlankLinesAreSkipped() throws IOException {
+        List<ParsedRow> rows = read("""
+                {"name": "Chair", "price": 25, "stockQuantity": 4, "sku": "A-1"}
+
+                {"name": "Desk\\nwith a line break", "price": 120.5, "stockQuantity": 3, "active": false}
+                """);
+
+        assertThat(rows).extracting(ParsedRow::line).containsExactly(1L, 3L);
+        assertThat(rows.get(0).row().getName()).isEqualTo("Chair");
+        assertThat(rows.get(0).row().getLine()).isEqualTo(1);
+        assertThat(rows.get(1).row().getName()).isEqualTo("Desk\nwith a line break");
+        assertThat(rows.get(1).row().getActive()).isFalse();
+    }
+
+    @Test
+    void malformedLineIsARowErrorAndReadingGoesOn() throws IOException {
+        List<ParsedRow> rows = read("""
+                {"name": "Chair", "price": 25,
+                {"name": "Lamp", "price": "cheap", "stockQuantity": 1}
+                {"name": "Table", "price": 80, "stockQuantity": 2}
+                """);
+
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0).error()).startsWith("invalid JSON");
+        assertThat(rows.get(1).error()).startsWith("invalid JSON");
+        assertThat(rows.get(1).line()).isEqualTo(2);
+        assertThat(rows.get(2).row().getName()).isEqualTo("Table");
+    }
+
+    private static List<ParsedRow> read(String ndjson) throws IOException {
+        NdjsonRowReader reader = new NdjsonRowReader(new BufferedReader(new StringReader(ndjson)),
+                JsonMapper.builder().build());
+        List<ParsedRow> rows = new ArrayList<>();
+        ParsedRow row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.product_service.listing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.product_service.dto.ProductChangedEvent;
+import com.example.product_service.repository.ProductIndexSource;
+import com.example.product_service.repository.ProductRepository;
+
+class ProductSortIndexTests {
+
+    private record Source(Long getId, String getName, String getCategory, BigDecimal getPrice, Boolean getActive,
+            Double getAverageRating, Integer getReviewCount, Long getChangeVersion) implements ProductIndexSource {
+    }
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private ProductSortIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSortIndex(productRepository);
+        List<ProductIndexSource> catalog = List.of(
+                source(1L, 30, true),
+                source(2L, 10, true),
+                source(3L, 20, false),
+                source(4L, 20, true));
+        when(productRepository.findIndexSourceByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenReturn(catalog);
+        when(productRepository.findIndexSourceByIdGreaterThanOrderByIdAsc(eq(4L), any())).thenReturn(List.of());
+    }
+
+    @Test
+    void pagingBeforeTheFirstBuildFailsClearly() {
+        assertThat(index.isReady()).isFalse();
+        assertThatThrownBy(() -> index.page(ProductSort.PRICE_ASC, 1, 10))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("still being built");
+    }
+
+    @Test
+    void builtIndexPagesActiveProductsInSortOrder() throws InterruptedException {
+        build();
+
+        assertThat(index.page(ProductSort.PRICE_ASC, 1, 10).ids()).containsExactly(2L, 4L, 1L);
+        assertThat(index.page(ProductSort.PRICE_DESC, 1, 2).ids()).containsExactly(1L, 4L);
+        assertThat(index.page(ProductSort.PRICE_DESC, 2, 2).ids()).containsExactly(2L);
+        assertThat(index.page(ProductSort.NEWEST, 1, 10).total()).isEqualTo(3);
+        assertThat(index.page(ProductSort.NEWEST, 5, 10).ids()).isEmpty();
+    }
+
+    @Test
+    void mergedChangesMoveAddAndRemoveProducts() throws InterruptedException {
+        build();
+
+        index.apply(change(2L, 2L, 40, true));  // repriced
+        index.apply(change(3L, 2L, 5, true));   // reactivated
+        index.apply(change(1L, 2L, 30, false)); // deactivated
+        index.apply(change(4L, 0L, 1, true));   // older than what the index holds
+        index.mergePending();
+
+        assertThat(index.page(ProductSort.PRICE_ASC, 1, 10).ids()).containsExactly(3L, 4L, 2L);
+    }
+
+    private void build() throws InterruptedException {
+        index.buildOnStartup();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!index.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(index.isReady()).isTrue();
+    }
+
+    private static Source source(Long id, int price, boolean active) {
+        return new Source(id, "Product " + id, "Office", BigDecimal.valueOf(price), active, 4.0, 3, 1L);
+    }
+
+    private static ProductChangedEvent change(Long id, Long version, int price, boolean active) {
+        ProductChangedEvent event = new ProductChangedEvent();
+        event.setProductId(id);
+        event.setVersion(version);
+        event.setPrice(BigDecimal.valueOf(price));
+        event.setActive(active);
+        event.setAverageRating(4.0);
+        event.setReviewCount(3);
+        return event;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.product_service.messaging;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import com.example.product_service.config.RabbitMQConfig;
+import com.example.product_service.dto.ReserveStockBatch;
+import com.example.product_service.dto.StockReservationResult;
+import com.example.product_service.service.ProductService;
+
+class ProductMessageListenerTests {
+
+    private final ProductService productService = mock(ProductService.class);
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final ProductMessageListener listener = new ProductMessageListener(productService, rabbitTemplate);
+    private final ReserveStockBatch batch = new ReserveStockBatch(42L, "ORD-42",
+            List.of(new ReserveStockBatch.Line(3L, 2)), 0L);
+
+    @Test
+    void rejectedReservationIsRepliedSoTheOrderIsCancelled() {
+        StockReservationResult rejected = new StockReservationResult(42L, "ORD-42", false,
+                "Insufficient stock for products [3]", List.of(3L), 0L);
+        when(productService.reserveStockBatch(batch)).thenReturn(rejected);
+
+        listener.handleReserveStockBatch(batch);
+
+        verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.ORDER_EXCHANGE),
+                eq(RabbitMQConfig.STOCK_RESERVED_ROUTING_KEY), eq(rejected), any(MessagePostProcessor.class));
+    }
+
+    @Test
+    void infrastructureFailureIsThrownForRedeliveryInsteadOfRejectingTheOrder() {
+        when(productService.reserveStockBatch(batch))
+                .thenThrow(new CannotCreateTransactionException("Connection refused"));
+
+        assertThatThrownBy(() -> listener.handleReserveStockBatch(batch))
+                .isInstanceOf(CannotCreateTransactionException.class);
+
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any(Object.class),
+                any(MessagePostProcessor.class));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.product_service.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.product_service.entity.ImageCleanupTask;
+
+// Two workers need two real transactions, so the test-managed one is switched off
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cleanup;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.mode=never"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ImageCleanupTaskLockingTests {
+
+    @Autowired
+    private ImageCleanupTaskRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    void secondWorkerSkipsRowsClaimedByTheFirst() throws Exception {
+        repository.saveAll(List.of(new ImageCleanupTask("uploads/a.png"), new ImageCleanupTask("uploads/b.png"),
+                new ImageCleanupTask("uploads/c.png")));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        LocalDateTime now = LocalDateTime.now().plusSeconds(1);
+
+        List<String> first = transactionTemplate.execute(status -> {
+            List<String> claimed = paths(repository.lockDueTasks(now, 2));
+            // runs while the first transaction still holds its row locks
+            List<String> second = CompletableFuture
+                    .supplyAsync(() -> transactionTemplate.execute(inner -> paths(repository.lockDueTasks(now, 2))))
+                    .orTimeout(5, TimeUnit.SECONDS)
+                    .join();
+            assertThat(second).containsExactly("uploads/c.png");
+            return claimed;
+        });
+
+        assertThat(first).containsExactly("uploads/a.png", "uploads/b.png");
+    }
+
+    @Test
+    void rowsBackingOffAreNotDue() {
+        ImageCleanupTask later = new ImageCleanupTask("uploads/a.png");
+        later.setNextAttemptAt(LocalDateTime.now().plusMinutes(5));
+        repository.saveAll(List.of(later, new ImageCleanupTask("uploads/b.png")));
+
+        List<String> due = new TransactionTemplate(transactionManager)
+                .execute(status -> paths(repository.lockDueTasks(LocalDateTime.now().plusSeconds(1), 10)));
+
+        assertThat(due).containsExactly("uploads/b.png");
+    }
+
+    private static List<String> paths(List<ImageCleanupTask> tasks) {
+        return tasks.stream().map(ImageCleanupTask::getPath).toList();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.product_service.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.example.product_service.entity.Product;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.sql.init.mode=never"
+})
+class ProductFieldsQueryTests {
+
+    private static final int PRODUCTS = 20;
+    private static final String ALL_FIELDS = "name,description,price,stockQuantity,category,mainImage,"
+            + "secondaryImages,active,averageRating,reviewCount,ratingHistogram,createdAt,updatedAt";
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+    private final Locale defaultLocale = Locale.getDefault();
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName("item " + i);
+            product.setDescription("A long description of the product that a listing card never shows, "
+                    + "repeated on every row of the page");
+            product.setPrice(BigDecimal.valueOf(10 + i));
+            product.setStockQuantity(5);
+            product.setCategory("Electronics");
+            product.setMainImage("uploads/main-" + i + ".png");
+            product.setSecondaryImages(List.of("uploads/a-" + i + ".png", "uploads/b-" + i + ".png"));
+            product.setActive(true);
+            productRepository.save(product);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void restoreLocale() {
+        Locale.setDefault(defaultLocale);
+    }
+
+    @Test
+    void cardFieldsAreReadInOneQueryAndKeepThePayloadSmall() {
+        List<Map<String, Object>> cards = productRepository.findFields(ProductFields.parse("name,price,mainImage"),
+                ProductSpecifications.isActive(), PageRequest.of(0, PRODUCTS, Sort.by("id")));
+
+        assertThat(cards).hasSize(PRODUCTS);
+        assertThat(cards.get(0)).containsOnlyKeys("id", "name", "price", "mainImage");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        List<Map<String, Object>> full = productRepository.findFields(ProductFields.parse(ALL_FIELDS),
+                ProductSpecifications.isActive(), PageRequest.of(0, PRODUCTS, Sort.by("id")));
+        // the full field set adds only the one secondary images query
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        int cardBytes = objectMapper.writeValueAsString(cards).getBytes(StandardCharsets.UTF_8).length;
+        int fullBytes = objectMapper.writeValueAsString(full).getBytes(StandardCharsets.UTF_8).length;
+        assertThat(cardBytes).isLessThan(fullBytes / 4);
+    }
+
+    @Test
+    void nameFilterDoesNotDependOnTheDefaultLocale() {
+        // In Turkish "ITEM".toLowerCase() is "ıtem" with a dotless i, which matches nothing.
+        // The stored names are lower case already, so H2's own LOWER() is unaffected.
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+
+        List<Map<String, Object>> rows = productRepository.findFields(ProductFields.parse("name"),
+                ProductSpecifications.nameContainsIgnoreCase("ITEM 1"), PageRequest.of(0, PRODUCTS));
+
+        assertThat(rows).extracting(row -> row.get("name"))
+                .contains("item 1", "item 10", "item 19")
+                .hasSize(11);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.product_service.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import com.example.product_service.entity.Product;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.sql.init.mode=never"
+})
+class ProductListingQueryCountTests {
+
+    private static final int PRODUCTS = 20;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setDescription("A long description that listing pages never show");
+            product.setPrice(BigDecimal.valueOf(10 + i));
+            product.setStockQuantity(5);
+            product.setCategory("Electronics");
+            product.setMainImage("uploads/main-" + i + ".png");
+            product.setSecondaryImages(List.of("uploads/a-" + i + ".png", "uploads/b-" + i + ".png"));
+            product.setActive(true);
+            productRepository.save(product);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void summaryPageLoadsSecondaryImagesInOneQuery() {
+        Page<ProductSummary> page = productRepository.findSummaryByActiveTrue(PageRequest.of(0, PRODUCTS));
+        List<Long> ids = page.getContent().stream().map(ProductSummary::getId).collect(Collectors.toList());
+        List<ProductImage> images = productRepository.findSecondaryImagesByProductIdIn(ids);
+
+        assertThat(page.getContent()).hasSize(PRODUCTS);
+        assertThat(images).hasSize(PRODUCTS * 2);
+        // page select + count + one images select
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void entityPageBatchFetchesSecondaryImages() {
+        Page<Product> page = productRepository.findByActiveTrue(PageRequest.of(0, PRODUCTS));
+        page.getContent().forEach(product -> product.getSecondaryImages().size());
+
+        // page select + count + one batched collection select instead of one per product
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+        assertThat(statistics.getCollectionFetchCount()).isLessThanOrEqualTo(1);
+    }
+}
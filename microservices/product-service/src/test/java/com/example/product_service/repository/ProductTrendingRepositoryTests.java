@@ -0,0 +1,57 @@
+package com.example.product_service.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+
+import com.example.product_service.entity.Product;
+import com.example.product_service.entity.ProductTrending;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:trending;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.mode=never"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProductTrendingRepositoryTests {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductTrendingRepository trendingRepository;
+
+    @Test
+    void inactiveProductsDoNotTakePlacesInTheTopK() {
+        LocalDateTime now = LocalDateTime.now();
+        Long hiddenHit = trending(false, 500.0, now);
+        Long popular = trending(true, 100.0, now);
+        Long fading = trending(true, 400.0, now.minusHours(3));
+        Long quiet = trending(true, 10.0, now);
+
+        // 400 three half-lives ago is 50 now, below the popular product but above the quiet one
+        assertThat(trendingRepository.findTopProductIds(3600, 2)).containsExactly(popular, fading);
+        assertThat(trendingRepository.findTopProductIds(3600, 10)).containsExactly(popular, fading, quiet)
+                .doesNotContain(hiddenHit);
+    }
+
+    private Long trending(boolean active, double score, LocalDateTime updatedAt) {
+        Product product = new Product();
+        product.setName("Product");
+        product.setPrice(BigDecimal.TEN);
+        product.setStockQuantity(1);
+        product.setActive(active);
+        Long id = productRepository.save(product).getId();
+        trendingRepository.save(new ProductTrending(id, score, updatedAt));
+        return id;
+    }
+}
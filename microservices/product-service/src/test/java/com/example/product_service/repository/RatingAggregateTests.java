@@ -0,0 +1,138 @@
+package com.example.product_service.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+
+import com.example.product_service.entity.Product;
+import com.example.product_service.entity.Review;
+import com.example.product_service.scheduler.RatingReconciliationJob;
+import com.example.product_service.service.ProductChangeVersions;
+
+import jakarta.persistence.EntityManager;
+
+// The aggregate statements are native PostgreSQL, so H2 runs in its PostgreSQL mode here
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ratings;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.mode=never"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class RatingAggregateTests {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        productId = newProduct("Mechanical keyboard");
+    }
+
+    @Test
+    void addedReviewsUpdateCountsAndAverage() {
+        productRepository.applyReviewAdded(productId, 5);
+        productRepository.applyReviewAdded(productId, 4);
+        productRepository.applyReviewAdded(productId, 4);
+
+        Product product = reload(productId);
+        assertThat(product.getReviewCount()).isEqualTo(3);
+        assertThat(product.getRatingSum()).isEqualTo(13);
+        assertThat(product.getAverageRating()).isEqualTo(4.3);
+        assertThat(product.getFiveStarCount()).isEqualTo(1);
+        assertThat(product.getFourStarCount()).isEqualTo(2);
+        assertThat(product.getOneStarCount()).isZero();
+        // numbered when the transaction commits
+        assertThat(product.getChangeVersion()).isNull();
+    }
+
+    @Test
+    void removedReviewsUpdateCountsAndAverage() {
+        productRepository.applyReviewAdded(productId, 5);
+        productRepository.applyReviewAdded(productId, 2);
+
+        productRepository.applyReviewRemoved(productId, 5);
+
+        Product product = reload(productId);
+        assertThat(product.getReviewCount()).isEqualTo(1);
+        assertThat(product.getRatingSum()).isEqualTo(2);
+        assertThat(product.getAverageRating()).isEqualTo(2.0);
+        assertThat(product.getFiveStarCount()).isZero();
+        assertThat(product.getTwoStarCount()).isEqualTo(1);
+
+        productRepository.applyReviewRemoved(productId, 2);
+        product = reload(productId);
+        assertThat(product.getReviewCount()).isZero();
+        assertThat(product.getRatingSum()).isZero();
+        assertThat(product.getAverageRating()).isZero();
+    }
+
+    @Test
+    void reconciliationCorrectsOnlyDriftedProducts() {
+        Long drifted = productId;
+        Long accurate = newProduct("Desk mat");
+        review(drifted, 5);
+        review(drifted, 3);
+        review(accurate, 4);
+        productRepository.applyReviewAdded(accurate, 4);
+        // running totals lost one review and miscounted the stars
+        productRepository.applyReviewAdded(drifted, 1);
+        entityManager.flush();
+
+        new RatingReconciliationJob(productRepository, mock(ProductChangeVersions.class)).reconcile();
+
+        Product product = reload(drifted);
+        assertThat(product.getReviewCount()).isEqualTo(2);
+        assertThat(product.getRatingSum()).isEqualTo(8);
+        assertThat(product.getAverageRating()).isEqualTo(4.0);
+        assertThat(product.getOneStarCount()).isZero();
+        assertThat(product.getThreeStarCount()).isEqualTo(1);
+        assertThat(product.getFiveStarCount()).isEqualTo(1);
+        assertThat(reload(accurate).getAverageRating()).isEqualTo(4.0);
+
+        assertThat(productRepository.reconcileRatingAggregates()).isZero();
+    }
+
+    private Long newProduct(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(BigDecimal.TEN);
+        product.setStockQuantity(5);
+        product.setCategory("Office");
+        product.setActive(true);
+        Long id = productRepository.save(product).getId();
+        entityManager.flush();
+        return id;
+    }
+
+    private void review(Long productId, int rating) {
+        Review review = new Review();
+        review.setProductId(productId);
+        review.setUserId(7L);
+        review.setRating(rating);
+        reviewRepository.save(review);
+    }
+
+    private Product reload(Long id) {
+        entityManager.flush();
+        entityManager.clear();
+        return productRepository.findById(id).orElseThrow();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.product_service.scheduler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.product_service.client.FileServiceClient;
+import com.example.product_service.entity.ImageCleanupTask;
+import com.example.product_service.repository.ImageCleanupTaskRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ImageCleanupWorkerTests {
+
+    private final ImageCleanupTaskRepository repository = mock(ImageCleanupTaskRepository.class);
+    private final FileServiceClient fileServiceClient = mock(FileServiceClient.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ImageCleanupWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new ImageCleanupWorker(repository, fileServiceClient,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), meterRegistry);
+        ReflectionTestUtils.setField(worker, "batchSize", 2);
+        ReflectionTestUtils.setField(worker, "maxAttempts", 3);
+    }
+
+    @Test
+    void deletedFilesRemoveTheirRowsAndTheNextBatchIsClaimed() {
+        ImageCleanupTask first = task(1L, "uploads/a.png", 0);
+        ImageCleanupTask second = task(2L, "uploads/b.png", 0);
+        ImageCleanupTask third = task(3L, "uploads/c.png", 0);
+        when(repository.lockDueTasks(any(), anyInt()))
+                .thenReturn(List.of(first, second), List.of(third), List.of());
+        when(fileServiceClient.deleteFiles(any())).thenReturn(true);
+        when(repository.count()).thenReturn(0L);
+
+        worker.drain();
+
+        verify(fileServiceClient).deleteFiles(List.of("uploads/a.png", "uploads/b.png"));
+        verify(fileServiceClient).deleteFiles(List.of("uploads/c.png"));
+        verify(repository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(repository).deleteAllByIdInBatch(List.of(3L));
+        verify(repository, times(3)).lockDueTasks(any(), anyInt());
+    }
+
+    @Test
+    void failedBulkDeleteKeepsRowsWithBackoffAndStopsTheRun() {
+        ImageCleanupTask task = task(1L, "uploads/a.png", 0);
+        when(repository.lockDueTasks(any(), anyInt())).thenReturn(List.of(task));
+        when(fileServiceClient.deleteFiles(any())).thenReturn(false);
+        when(repository.count()).thenReturn(1L);
+
+        LocalDateTime before = LocalDateTime.now();
+        worker.drain();
+
+        // claimed once; a failed call is not retried in the same run
+        verify(repository, times(1)).lockDueTasks(any(), anyInt());
+        verify(repository, never()).deleteAllByIdInBatch(any());
+        assertThat(task.getAttempts()).isEqualTo(1);
+        assertThat(task.getNextAttemptAt()).isCloseTo(before.plusSeconds(10), within(1, ChronoUnit.SECONDS));
+        assertThat(meterRegistry.get("product.image.cleanup.queue.depth").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void backoffDoublesPerAttemptUpToAnHour() {
+        ReflectionTestUtils.setField(worker, "maxAttempts", 100);
+        ImageCleanupTask second = task(1L, "uploads/a.png", 1);
+        ImageCleanupTask late = task(2L, "uploads/b.png", 30);
+        when(repository.lockDueTasks(any(), anyInt())).thenReturn(List.of(second, late));
+        when(fileServiceClient.deleteFiles(any())).thenReturn(false);
+
+        LocalDateTime before = LocalDateTime.now();
+        worker.drain();
+
+        assertThat(second.getNextAttemptAt()).isCloseTo(before.plusSeconds(20), within(1, ChronoUnit.SECONDS));
+        assertThat(late.getNextAttemptAt()).isCloseTo(before.plusSeconds(3600), within(1, ChronoUnit.SECONDS));
+    }
+
+    @Test
+    void taskOutOfAttemptsIsDroppedWithoutCallingFileService() {
+        ImageCleanupTask exhausted = task(1L, "uploads/a.png", 3);
+        when(repository.lockDueTasks(any(), anyInt())).thenReturn(List.of(exhausted), List.of());
+
+        worker.drain();
+
+        verify(repository).delete(exhausted);
+        verify(fileServiceClient, never()).deleteFiles(any());
+    }
+
+    private ImageCleanupTask task(Long id, String path, int attempts) {
+        ImageCleanupTask task = new ImageCleanupTask(path);
+        task.setId(id);
+        task.setAttempts(attempts);
+        task.setNextAttemptAt(LocalDateTime.now());
+        return task;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.product_service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.product_service.client.FileServiceClient;
+import com.example.product_service.entity.ImageCleanupTask;
+import com.example.product_service.repository.ImageCleanupTaskRepository;
+
+class ImageUploadServiceTests {
+
+    private static final int PARALLELISM = 3;
+
+    private final FileServiceClient fileServiceClient = mock(FileServiceClient.class);
+    private final ImageCleanupTaskRepository imageCleanupTaskRepository = mock(ImageCleanupTaskRepository.class);
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private ImageUploadService imageUploadService;
+
+    @BeforeEach
+    void setUp() {
+        imageUploadService = new ImageUploadService(fileServiceClient, imageCleanupTaskRepository);
+        ReflectionTestUtils.setField(imageUploadService, "uploadParallelism", PARALLELISM);
+    }
+
+    @Test
+    void uploadsRunConcurrentlyUpToTheLimitAndKeepInputOrder() {
+        when(fileServiceClient.uploadFile(any())).thenAnswer(invocation -> slowUpload(invocation.getArgument(0)));
+
+        List<String> paths = imageUploadService.uploadAll(images(8));
+
+        assertThat(paths).containsExactly(IntStream.range(0, 8).mapToObj(i -> "uploads/image-" + i + ".png")
+                .toArray(String[]::new));
+        assertThat(maxRunning.get()).isEqualTo(PARALLELISM);
+        verifyNoInteractions(imageCleanupTaskRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedUploadQueuesTheStoredFilesForDeletion() {
+        when(fileServiceClient.uploadFile(any())).thenAnswer(invocation -> {
+            MultipartFile file = invocation.getArgument(0);
+            if (file.getOriginalFilename().equals("image-1.png")) {
+                Thread.sleep(20); // fails while the other two are still uploading
+                throw new RuntimeException("file-service unavailable");
+            }
+            return slowUpload(file);
+        });
+
+        assertThatThrownBy(() -> imageUploadService.uploadAll(images(3)))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("file-service unavailable");
+
+        ArgumentCaptor<List<ImageCleanupTask>> queued = ArgumentCaptor.forClass(List.class);
+        verify(imageCleanupTaskRepository).saveAll(queued.capture());
+        assertThat(queued.getValue()).extracting(ImageCleanupTask::getPath)
+                .containsExactlyInAnyOrder("uploads/image-0.png", "uploads/image-2.png");
+    }
+
+    @Test
+    void noFilesMeansNoUploads() {
+        assertThat(imageUploadService.uploadAll(List.of())).isEmpty();
+
+        verify(fileServiceClient, never()).uploadFile(any());
+    }
+
+    private String slowUpload(MultipartFile file) throws InterruptedException {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(50);
+            return "uploads/" + file.getOriginalFilename();
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    private static List<MultipartFile> images(int count) {
+        return IntStream.range(0, count)
+                .<MultipartFile>mapToObj(i -> new MockMultipartFile("images", "image-" + i + ".png", "image/png",
+                        new byte[] { (byte) i }))
+                .toList();
+    }
+}
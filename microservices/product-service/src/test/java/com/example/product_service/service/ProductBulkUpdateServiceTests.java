@@ -0,0 +1,116 @@
+package com.example.product_service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.product_service.dto.BulkProductUpdateRequest;
+import com.example.product_service.dto.BulkProductUpdateResult;
+import com.example.product_service.dto.ProductChangedEvent;
+import com.example.product_service.messaging.ProductChangeBatch;
+
+class ProductBulkUpdateServiceTests {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final List<List<Long>> chunks = new ArrayList<>();
+    private ProductBulkUpdateService bulkUpdateService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        bulkUpdateService = new ProductBulkUpdateService(jdbcTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), eventPublisher,
+                mock(ProductChangeVersions.class));
+        ReflectionTestUtils.setField(bulkUpdateService, "chunkSize", 2);
+        ReflectionTestUtils.setField(bulkUpdateService, "maxItems", 5);
+
+        // Records the ids bound to each UPDATE; every id below 100 exists
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+        when(connection.createArrayOf(anyString(), any())).thenAnswer(invocation -> {
+            if ("bigint".equals(invocation.getArgument(0))) {
+                chunks.add(Arrays.stream(invocation.<Object[]>getArgument(1)).map(Long.class::cast).toList());
+            }
+            return null;
+        });
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class))).thenAnswer(invocation -> {
+            invocation.<PreparedStatementCreator>getArgument(0).createPreparedStatement(connection);
+            return chunks.get(chunks.size() - 1).stream().filter(id -> id < 100).map(this::change).toList();
+        });
+    }
+
+    @Test
+    void idsAreWrittenInChunksAndUnknownOnesReported() {
+        BulkProductUpdateResult result = bulkUpdateService.updateProducts(request(1L, 2L, 3L, 404L, 2L));
+
+        assertThat(chunks).containsExactly(List.of(1L, 2L), List.of(3L, 404L));
+        assertThat(result.getRequested()).isEqualTo(4);
+        assertThat(result.getUpdated()).isEqualTo(3);
+        assertThat(result.getNotFound()).containsExactly(404L);
+        assertThat(result.getFailed()).isEmpty();
+        verify(eventPublisher, times(2)).publishEvent(any(ProductChangeBatch.class));
+    }
+
+    @Test
+    void failedChunkIsReportedAndTheOthersStillApplied() {
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class)))
+                .thenReturn(List.of(change(1L), change(2L)))
+                .thenThrow(new CannotAcquireLockException("lock timeout"))
+                .thenReturn(List.of(change(5L)));
+
+        BulkProductUpdateResult result = bulkUpdateService.updateProducts(request(1L, 2L, 3L, 4L, 5L));
+
+        assertThat(result.getUpdated()).isEqualTo(3);
+        assertThat(result.getFailed()).containsExactly(3L, 4L);
+        assertThat(result.getNotFound()).isEmpty();
+    }
+
+    @Test
+    void requestsOverTheLimitAreRejectedBeforeAnyWrite() {
+        assertThatThrownBy(() -> bulkUpdateService.updateProducts(request(1L, 2L, 3L, 4L, 5L, 6L)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("At most 5 items can be updated at once");
+        assertThatThrownBy(() -> bulkUpdateService.updateProducts(request(1L, -1L)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(jdbcTemplate, never()).query(any(PreparedStatementCreator.class), any(RowMapper.class));
+    }
+
+    private BulkProductUpdateRequest request(Long... ids) {
+        List<BulkProductUpdateRequest.Item> items = new ArrayList<>();
+        for (Long id : ids) {
+            // a negative id stands for an item with a negative price
+            items.add(new BulkProductUpdateRequest.Item(Math.abs(id), id < 0 ? new BigDecimal("-1") : BigDecimal.TEN,
+                    null, null));
+        }
+        return new BulkProductUpdateRequest(items);
+    }
+
+    private ProductChangedEvent change(Long id) {
+        return new ProductChangedEvent(id, null, "UPDATED", "Product " + id, "Home", BigDecimal.TEN, 1, true,
+                null, 0.0, 0);
+    }
+}
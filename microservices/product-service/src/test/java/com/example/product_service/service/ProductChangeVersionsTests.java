@@ -0,0 +1,247 @@
+package com.example.product_service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.product_service.dto.ProductChangedEvent;
+import com.example.product_service.entity.Product;
+import com.example.product_service.repository.ProductRepository;
+
+// Writers must really commit, and concurrently, so the test-managed transaction is switched off
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:versions;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+                + "DEFAULT_NULL_ORDERING=HIGH;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.mode=never"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProductChangeVersions.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductChangeVersionsTests {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductChangeVersions changeVersions;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS product_change_clock (id integer PRIMARY KEY, "
+                + "version bigint NOT NULL)");
+        jdbcTemplate.update("MERGE INTO product_change_clock KEY (id) VALUES (1, 0)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void changesAreNumberedAtCommitAndEventsGetTheirVersion() {
+        ProductChangedEvent change = transactionTemplate.execute(status -> write(newProduct("Lamp")));
+
+        Product saved = productRepository.findById(change.getProductId()).orElseThrow();
+        assertThat(saved.getChangeVersion()).isEqualTo(1L);
+        assertThat(change.getVersion()).isEqualTo(1L);
+        assertThat(clock()).isEqualTo(1L);
+    }
+
+    @Test
+    void writerThatCommitsLastGetsTheHigherVersionWhateverItStartedFirst() throws Exception {
+        Long first = transactionTemplate.execute(status -> write(newProduct("Chair"))).getProductId();
+        Long second = transactionTemplate.execute(status -> write(newProduct("Table"))).getProductId();
+        long seeded = clock();
+        CountDownLatch firstWritten = new CountDownLatch(1);
+        CountDownLatch secondCommitted = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // The first writer changes its product, then stays open while the second one commits and is read
+            Future<ProductChangedEvent> slow = executor.submit(() -> transactionTemplate.execute(status -> {
+                ProductChangedEvent change = write(reprice(first, "12"));
+                firstWritten.countDown();
+                await(secondCommitted);
+                return change;
+            }));
+            assertThat(firstWritten.await(5, TimeUnit.SECONDS)).isTrue();
+            ProductChangedEvent fast = transactionTemplate.execute(status -> write(reprice(second, "30")));
+
+            // A reader that resumes from the latest version it saw
+            List<Product> seen = feedSince(seeded);
+            long watermark = seen.get(seen.size() - 1).getChangeVersion();
+            assertThat(seen).extracting(Product::getId).containsExactly(second);
+            secondCommitted.countDown();
+
+            ProductChangedEvent late = slow.get(5, TimeUnit.SECONDS);
+            assertThat(late.getVersion()).isGreaterThan(fast.getVersion());
+            assertThat(feedSince(watermark)).extracting(Product::getId).containsExactly(first);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void catalogVersionMovesOnEveryCommitAndOnlyThen() throws Exception {
+        Long first = transactionTemplate.execute(status -> write(newProduct("Chair"))).getProductId();
+        Long second = transactionTemplate.execute(status -> write(newProduct("Table"))).getProductId();
+        long before = changeVersions.current();
+        CountDownLatch firstWritten = new CountDownLatch(1);
+        CountDownLatch secondChecked = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> slow = executor.submit(() -> transactionTemplate.execute(status -> {
+                write(reprice(first, "12"));
+                firstWritten.countDown();
+                await(secondChecked);
+                return null;
+            }));
+            assertThat(firstWritten.await(5, TimeUnit.SECONDS)).isTrue();
+            // an uncommitted write does not change what clients may cache
+            assertThat(changeVersions.current()).isEqualTo(before);
+
+            transactionTemplate.execute(status -> write(reprice(second, "30")));
+            long afterSecond = changeVersions.current();
+            assertThat(afterSecond).isGreaterThan(before);
+            secondChecked.countDown();
+
+            slow.get(5, TimeUnit.SECONDS);
+            // the writer that started first but committed last still yields a new validator
+            assertThat(changeVersions.current()).isGreaterThan(afterSecond);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void readerFollowingTheFeedMissesNothingUnderConcurrentWriters() throws Exception {
+        int writers = 4;
+        int productsPerWriter = 40;
+        Set<Long> written = ConcurrentHashMap.newKeySet();
+        Set<Long> read = ConcurrentHashMap.newKeySet();
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        try {
+            Future<?> reader = executor.submit(() -> {
+                long watermark = 0;
+                boolean lastPass = false;
+                while (!lastPass) {
+                    lastPass = !writing.get();
+                    for (Product product : feedSince(watermark)) {
+                        assertThat(read.add(product.getId())).isTrue();
+                        watermark = product.getChangeVersion();
+                    }
+                }
+                return null;
+            });
+            List<Future<?>> writes = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                writes.add(executor.submit(() -> {
+                    for (int i = 0; i < productsPerWriter; i++) {
+                        ProductChangedEvent change = transactionTemplate.execute(status -> {
+                            ProductChangedEvent created = write(newProduct("Product"));
+                            // keep the transaction open a little, as a slow writer would
+                            LockSupport.parkNanos(200_000);
+                            return created;
+                        });
+                        written.add(change.getProductId());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> write : writes) {
+                write.get(30, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            reader.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(written).hasSize(writers * productsPerWriter);
+        assertThat(read).isEqualTo(written);
+    }
+
+    // What ProductService does for every change
+    private ProductChangedEvent write(Product product) {
+        product.setChangeVersion(null);
+        Product saved = productRepository.save(product);
+        ProductChangedEvent change = new ProductChangedEvent();
+        change.setProductId(saved.getId());
+        changeVersions.assignOnCommit(change);
+        return change;
+    }
+
+    private Product reprice(Long id, String price) {
+        Product product = productRepository.findById(id).orElseThrow();
+        product.setPrice(new BigDecimal(price));
+        return product;
+    }
+
+    private List<Product> feedSince(long version) {
+        return productRepository.findByChangeVersionGreaterThanOrderByChangeVersionAsc(version, Limit.of(1000));
+    }
+
+    private long clock() {
+        return jdbcTemplate.queryForObject("SELECT version FROM product_change_clock WHERE id = 1", Long.class);
+    }
+
+    private static Product newProduct(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(BigDecimal.TEN);
+        product.setStockQuantity(5);
+        product.setCategory("Home");
+        product.setActive(true);
+        return product;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
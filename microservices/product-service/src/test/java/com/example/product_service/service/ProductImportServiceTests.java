@@ -0,0 +1,150 @@
+package com.example.product_service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.product_service.dto.ImportJobStatus;
+import com.example.product_service.entity.ProductImportError;
+import com.example.product_service.entity.ProductImportJob;
+import com.example.product_service.messaging.ProductChangeBatch;
+import com.example.product_service.repository.ProductImportErrorRepository;
+import com.example.product_service.repository.ProductImportJobRepository;
+
+import tools.jackson.databind.json.JsonMapper;
+
+class ProductImportServiceTests {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final ProductImportJobRepository jobRepository = mock(ProductImportJobRepository.class);
+    private final ProductImportErrorRepository errorRepository = mock(ProductImportErrorRepository.class);
+    private final List<ProductImportJob> savedJobs = Collections.synchronizedList(new ArrayList<>());
+    private final List<ProductImportError> savedErrors = Collections.synchronizedList(new ArrayList<>());
+    private ProductImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new ProductImportService(jdbcTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), eventPublisher,
+                JsonMapper.builder().build(), mock(ProductChangeVersions.class), jobRepository, errorRepository, 1);
+        ReflectionTestUtils.setField(importService, "batchSize", 2);
+        ReflectionTestUtils.setField(importService, "staleAfterMs", 60_000L);
+
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class)))
+                .thenAnswer(invocation -> LongStream.rangeClosed(1, invocation.<Integer>getArgument(2))
+                        .boxed().toList());
+        when(jobRepository.save(any())).thenAnswer(invocation -> {
+            savedJobs.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(errorRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            savedErrors.addAll(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+    }
+
+    @Test
+    void rowsAreInsertedInChunksAndProgressIsStored() throws Exception {
+        String csv = """
+                name,price,stock_quantity,active
+                Chair,25,4,true
+                Table,80,2,maybe
+                Lamp,10,9,
+                Desk,120,1,false
+                """;
+
+        ImportJobStatus started = importService.startImport(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "CSV");
+
+        ProductImportJob finished = awaitFinished();
+        assertThat(finished.getId()).isEqualTo(started.getJobId());
+        assertThat(finished.getStatus()).isEqualTo("COMPLETED");
+        assertThat(finished.getRowsRead()).isEqualTo(4);
+        assertThat(finished.getRowsImported()).isEqualTo(3);
+        assertThat(finished.getRowsFailed()).isEqualTo(1);
+        assertThat(savedErrors).singleElement().satisfies(error -> {
+            assertThat(error.getJobId()).isEqualTo(started.getJobId());
+            assertThat(error.getLine()).isEqualTo(3);
+            assertThat(error.getMessage()).contains("maybe");
+        });
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+        verify(eventPublisher, times(2)).publishEvent(any(ProductChangeBatch.class));
+    }
+
+    @Test
+    void chunkThatFailsToInsertIsReportedRowByRow() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        String ndjson = """
+                {"name": "Chair", "price": 25, "stockQuantity": 4}
+                {"name": "Table", "price": 80, "stockQuantity": 2}
+                """;
+
+        importService.startImport(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), "NDJSON");
+
+        ProductImportJob finished = awaitFinished();
+        assertThat(finished.getStatus()).isEqualTo("COMPLETED");
+        assertThat(finished.getRowsImported()).isZero();
+        assertThat(finished.getRowsFailed()).isEqualTo(2);
+        assertThat(savedErrors).extracting(ProductImportError::getLine).containsExactly(1L, 2L);
+        assertThat(savedErrors).allSatisfy(error -> assertThat(error.getMessage()).startsWith("insert failed"));
+    }
+
+    @Test
+    void runningJobWhosePodStoppedHeartbeatingIsReportedFailed() {
+        LocalDateTime lastBeat = LocalDateTime.now().minusMinutes(5);
+        ProductImportJob job = new ProductImportJob("job-1", "CSV", "RUNNING", 3000, 2000, 0, null,
+                lastBeat.minusMinutes(1), lastBeat, null);
+        when(jobRepository.findById("job-1")).thenReturn(Optional.of(job));
+
+        ImportJobStatus status = importService.getStatus("job-1");
+
+        assertThat(status.getStatus()).isEqualTo("FAILED");
+        assertThat(status.getFinishedAt()).isEqualTo(lastBeat);
+        assertThat(status.getRowsImported()).isEqualTo(2000);
+        assertThat(savedJobs).containsExactly(job);
+    }
+
+    private ProductImportJob awaitFinished() throws InterruptedException {
+        for (int waited = 0; waited < 5000; waited += 5) {
+            synchronized (savedJobs) {
+                if (!savedJobs.isEmpty() && !"RUNNING".equals(savedJobs.get(savedJobs.size() - 1).getStatus())) {
+                    return savedJobs.get(savedJobs.size() - 1);
+                }
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("import did not finish");
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.product_service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.example.product_service.dto.ReleaseStockBatch;
+import com.example.product_service.dto.ReserveStockBatch;
+import com.example.product_service.entity.Product;
+import com.example.product_service.entity.StockReservation;
+import com.example.product_service.listing.ProductSortIndex;
+import com.example.product_service.repository.ImageCleanupTaskRepository;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.repository.StockReservationRepository;
+import com.example.product_service.snapshot.CatalogSnapshot;
+import com.example.product_service.suggest.ProductSuggestionIndex;
+import com.example.product_service.trending.TrendingRanking;
+
+class StockReleaseTests {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final StockReservationRepository stockReservationRepository = mock(StockReservationRepository.class);
+    private ProductService productService;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        productService = new ProductService(productRepository, mock(ImageCleanupTaskRepository.class),
+                stockReservationRepository, mock(ApplicationEventPublisher.class),
+                mock(ProductSuggestionIndex.class), mock(ProductSortIndex.class), mock(TrendingRanking.class),
+                mock(CatalogSnapshot.class), mock(ProductChangeVersions.class));
+
+        product = new Product();
+        product.setId(3L);
+        product.setName("Keyboard");
+        product.setStockQuantity(10);
+        product.setActive(true);
+        when(productRepository.findAllByIdForUpdate(any())).thenReturn(List.of(product));
+        when(productRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void redeliveredReleaseAddsStockBackOnce() {
+        StockReservation reservation = new StockReservation(42L, true, null, LocalDateTime.now(), null);
+        when(stockReservationRepository.findForUpdate(42L)).thenReturn(Optional.of(reservation));
+
+        assertThat(productService.releaseStockBatch(release(42L))).isTrue();
+        assertThat(productService.releaseStockBatch(release(42L))).isFalse();
+
+        assertThat(product.getStockQuantity()).isEqualTo(12);
+        assertThat(reservation.getReleasedAt()).isNotNull();
+    }
+
+    @Test
+    void releaseWithoutReservationIsIgnored() {
+        when(stockReservationRepository.findForUpdate(43L)).thenReturn(Optional.empty());
+        StockReservation rejected = new StockReservation(44L, false, "Insufficient stock", LocalDateTime.now(), null);
+        when(stockReservationRepository.findForUpdate(44L)).thenReturn(Optional.of(rejected));
+
+        assertThat(productService.releaseStockBatch(release(43L))).isFalse();
+        assertThat(productService.releaseStockBatch(release(44L))).isFalse();
+
+        assertThat(product.getStockQuantity()).isEqualTo(10);
+    }
+
+    private ReleaseStockBatch release(Long orderId) {
+        return new ReleaseStockBatch(orderId, "ORD-" + orderId, List.of(
+                new ReserveStockBatch.Line(3L, 1),
+                new ReserveStockBatch.Line(3L, 1)));
+    }
+}
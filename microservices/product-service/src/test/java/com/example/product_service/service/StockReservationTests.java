@@ -0,0 +1,70 @@
+package com.example.product_service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.example.product_service.dto.ReserveStockBatch;
+import com.example.product_service.dto.StockReservationResult;
+import com.example.product_service.entity.StockReservation;
+import com.example.product_service.listing.ProductSortIndex;
+import com.example.product_service.repository.ImageCleanupTaskRepository;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.repository.StockReservationRepository;
+import com.example.product_service.snapshot.CatalogSnapshot;
+import com.example.product_service.suggest.ProductSuggestionIndex;
+import com.example.product_service.trending.TrendingRanking;
+
+class StockReservationTests {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final StockReservationRepository stockReservationRepository = mock(StockReservationRepository.class);
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        productService = new ProductService(productRepository, mock(ImageCleanupTaskRepository.class),
+                stockReservationRepository, mock(ApplicationEventPublisher.class),
+                mock(ProductSuggestionIndex.class), mock(ProductSortIndex.class), mock(TrendingRanking.class),
+                mock(CatalogSnapshot.class), mock(ProductChangeVersions.class));
+        when(stockReservationRepository.findById(any())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void requestThatCanNeverBeServedIsRejectedAndRecorded() {
+        List<ReserveStockBatch.Line> lines = new ArrayList<>();
+        lines.add(new ReserveStockBatch.Line(3L, 2));
+        lines.add(new ReserveStockBatch.Line(4L, -1));
+
+        StockReservationResult result = productService
+                .reserveStockBatch(new ReserveStockBatch(42L, "ORD-42", lines, 0L));
+
+        assertThat(result.getReserved()).isFalse();
+        assertThat(result.getReason()).isEqualTo("Invalid line: product 4, quantity -1");
+        ArgumentCaptor<StockReservation> recorded = ArgumentCaptor.forClass(StockReservation.class);
+        verify(stockReservationRepository).save(recorded.capture());
+        assertThat(recorded.getValue().getReserved()).isFalse();
+        verify(productRepository, never()).findAllByIdForUpdate(any());
+    }
+
+    @Test
+    void requestWithoutLinesIsRejected() {
+        StockReservationResult result = productService
+                .reserveStockBatch(new ReserveStockBatch(43L, "ORD-43", List.of(), 0L));
+
+        assertThat(result.getReserved()).isFalse();
+        assertThat(result.getReason()).isEqualTo("No lines to reserve");
+    }
+}
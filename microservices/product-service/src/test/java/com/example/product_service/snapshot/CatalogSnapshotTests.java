@@ -0,0 +1,278 @@
+package com.example.product_service.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.product_service.dto.ProductDTO;
+import com.example.product_service.entity.Product;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.service.ProductService;
+
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+class CatalogSnapshotTests {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductService productService = mock(ProductService.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    @TempDir
+    Path dir;
+
+    private CatalogSnapshotWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = writer(0);
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(productService.convertToDTO(any())).thenAnswer(invocation -> toDTO(invocation.getArgument(0)));
+        when(productRepository.findByChangeVersionGreaterThanOrderByChangeVersionAsc(anyLong(), any()))
+                .thenReturn(List.of());
+    }
+
+    @Test
+    void writtenProductsReadBackWithTheirVersions() throws Exception {
+        catalog(product(1L, 3L), product(5L, 7L), product(9L, 4L));
+        writeSnapshot(10L);
+
+        CatalogSnapshot snapshot = load();
+
+        CatalogSnapshot.SnapshotProduct five = snapshot.find(5L).orElseThrow();
+        assertThat(five.changeVersion()).isEqualTo(7L);
+        assertThat(five.product().getName()).isEqualTo("Product 5");
+        assertThat(five.product().getPrice()).isEqualByComparingTo("15");
+        assertThat(five.product().getChangeVersion()).isEqualTo(7L);
+        assertThat(snapshot.find(2L)).isEmpty();
+
+        CatalogSnapshot.SnapshotPage first = snapshot.page(1, 2);
+        assertThat(first.ids()).containsExactly(1L, 5L);
+        assertThat(first.total()).isEqualTo(3);
+        assertThat(first.products().get(1L).getDescription()).isNull();
+        assertThat(snapshot.page(2, 2).ids()).containsExactly(9L);
+    }
+
+    @Test
+    void catchUpStartsFromTheVersionReadBeforeTheScan() throws Exception {
+        catalog(product(1L, 3L), product(2L, 9L));
+        writeSnapshot(10L);
+
+        load();
+
+        verify(productRepository).findByChangeVersionGreaterThanOrderByChangeVersionAsc(eq(10L), any(Limit.class));
+    }
+
+    @Test
+    void productsChangedSinceTheSnapshotAreNotServed() throws Exception {
+        catalog(product(1L, 3L), product(5L, 7L));
+        writeSnapshot(10L);
+        Product changed = product(5L, 11L);
+        when(productRepository.findByChangeVersionGreaterThanOrderByChangeVersionAsc(eq(10L), any()))
+                .thenReturn(List.of(changed));
+
+        CatalogSnapshot snapshot = load();
+
+        assertThat(snapshot.find(5L)).isEmpty();
+        assertThat(snapshot.find(1L)).isPresent();
+        assertThat(snapshot.page(1, 10).products()).containsOnlyKeys(1L);
+        // still active, so listing pages and totals are unchanged
+        assertThat(snapshot.canServeListing()).isTrue();
+    }
+
+    @Test
+    void addedOrDeactivatedProductsSendListingsToTheDatabase() throws Exception {
+        catalog(product(1L, 3L), product(5L, 7L));
+        writeSnapshot(10L);
+        CatalogSnapshot snapshot = load();
+        assertThat(snapshot.canServeListing()).isTrue();
+
+        snapshot.markChanged(5L, true);
+        assertThat(snapshot.canServeListing()).isTrue();
+
+        snapshot.markChanged(5L, false);
+        assertThat(snapshot.canServeListing()).isFalse();
+        assertThat(snapshot.isServing()).isTrue();
+
+        CatalogSnapshot other = load();
+        other.markChanged(42L, true);
+        assertThat(other.canServeListing()).isFalse();
+    }
+
+    @Test
+    void newSnapshotIsPublishedBesideTheOneInUseAndLoadedFromThen() throws Exception {
+        catalog(product(1L, 3L));
+        writeSnapshot(10L);
+        Path first = CatalogSnapshotFormat.published(dir).get(0).path();
+        CatalogSnapshot mapped = load();
+
+        catalog(product(1L, 12L));
+        writeSnapshot(12L);
+
+        // the file a running pod has mapped is left alone
+        assertThat(first).exists();
+        assertThat(mapped.find(1L)).get().extracting(CatalogSnapshot.SnapshotProduct::changeVersion)
+                .isEqualTo(3L);
+        assertThat(load().find(1L)).get().extracting(CatalogSnapshot.SnapshotProduct::changeVersion)
+                .isEqualTo(12L);
+        assertThat(dir).isDirectoryNotContaining("glob:**.tmp");
+    }
+
+    @Test
+    void podSkipsItsTurnWhenASnapshotIsRecentOrCurrent() throws Exception {
+        catalog(product(1L, 3L));
+        writeSnapshot(10L);
+
+        // same catalog version: nothing changed
+        writer.write();
+        // another pod published moments ago
+        when(productService.getCatalogVersion()).thenReturn(11L);
+        writer(600_000).write();
+
+        assertThat(CatalogSnapshotFormat.published(dir)).hasSize(1);
+    }
+
+    @Test
+    void supersededSnapshotsAreDeletedOnceNoPodCanServeFromThem() throws Exception {
+        long hourAgo = System.currentTimeMillis() - 3_600_000;
+        Path oldest = Files.createFile(dir.resolve(CatalogSnapshotFormat.fileName(5L, hourAgo - 1000)));
+        Path older = Files.createFile(dir.resolve(CatalogSnapshotFormat.fileName(7L, hourAgo)));
+        Path abandoned = Files.createFile(dir.resolve("catalog-crashed.tmp"));
+        Files.setLastModifiedTime(abandoned, FileTime.fromMillis(hourAgo));
+        catalog(product(1L, 3L));
+
+        writeSnapshot(10L);
+
+        // the older file was newest until just now, so a pod may still be serving from it
+        assertThat(oldest).doesNotExist();
+        assertThat(older).exists();
+        assertThat(abandoned).doesNotExist();
+        assertThat(CatalogSnapshotFormat.published(dir)).hasSize(2);
+    }
+
+    @Test
+    void snapshotWithUnknownFormatIsIgnored() throws Exception {
+        Path file = dir.resolve(CatalogSnapshotFormat.fileName(10L, System.currentTimeMillis()));
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(CatalogSnapshotFormat.MAGIC);
+            out.writeInt(CatalogSnapshotFormat.FORMAT + 1);
+            out.writeLong(10L);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(0);
+        }
+
+        CatalogSnapshot snapshot = new CatalogSnapshot(productRepository, objectMapper, dir.toString(), 300);
+        snapshot.open();
+        snapshot.catchUpOnStartup();
+
+        assertThat(snapshot.isServing()).isFalse();
+        assertThat(snapshot.find(1L)).isEmpty();
+    }
+
+    @Test
+    void largeCatalogServesWithinSeconds() throws Exception {
+        int size = 200_000;
+        when(productRepository.findByActiveTrueAndIdGreaterThanOrderByIdAsc(anyLong(), any()))
+                .thenAnswer(invocation -> {
+                    long afterId = invocation.getArgument(0);
+                    int limit = invocation.<Limit>getArgument(1).max();
+                    List<Product> page = new ArrayList<>(limit);
+                    for (long id = afterId + 1; id <= Math.min(afterId + limit, size); id++) {
+                        page.add(product(id, id));
+                    }
+                    return page;
+                });
+        writeSnapshot(size);
+
+        long start = System.nanoTime();
+        CatalogSnapshot snapshot = load();
+        long startupMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // mapping costs the same for any size; only the index header is touched before serving
+        assertThat(startupMillis).isLessThan(2000);
+        assertThat(snapshot.find(123_456L)).get().extracting(CatalogSnapshot.SnapshotProduct::changeVersion)
+                .isEqualTo(123_456L);
+        assertThat(snapshot.page(1000, 100).ids()).hasSize(100).first().isEqualTo(99_901L);
+    }
+
+    private void writeSnapshot(long catalogVersion) throws IOException {
+        when(productService.getCatalogVersion()).thenReturn(catalogVersion);
+        writer.write();
+        assertThat(CatalogSnapshotFormat.published(dir)).first()
+                .extracting(CatalogSnapshotFormat.Published::catalogVersion).isEqualTo(catalogVersion);
+    }
+
+    private CatalogSnapshotWriter writer(long writeIntervalMillis) {
+        return new CatalogSnapshotWriter(productRepository, productService, transactionTemplate, objectMapper,
+                dir.toString(), writeIntervalMillis, 300);
+    }
+
+    // Opens the snapshot and waits for the startup catch-up, as a new pod would
+    private CatalogSnapshot load() throws InterruptedException {
+        CatalogSnapshot snapshot = new CatalogSnapshot(productRepository, objectMapper, dir.toString(), 300);
+        snapshot.open();
+        snapshot.catchUpOnStartup();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!snapshot.isServing() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(snapshot.isServing()).isTrue();
+        return snapshot;
+    }
+
+    private void catalog(Product... products) {
+        when(productRepository.findByActiveTrueAndIdGreaterThanOrderByIdAsc(anyLong(), any()))
+                .thenAnswer(invocation -> {
+                    long afterId = invocation.getArgument(0);
+                    return List.of(products).stream().filter(product -> product.getId() > afterId).toList();
+                });
+    }
+
+    private Product product(long id, long changeVersion) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setDescription("Description of product " + id);
+        product.setPrice(BigDecimal.valueOf(10 + id));
+        product.setStockQuantity(5);
+        product.setCategory("Office");
+        product.setActive(true);
+        product.setChangeVersion(changeVersion);
+        return product;
+    }
+
+    private ProductDTO toDTO(Product product) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(product.getId());
+        dto.setName(product.getName());
+        dto.setDescription(product.getDescription());
+        dto.setPrice(product.getPrice());
+        dto.setStockQuantity(product.getStockQuantity());
+        dto.setCategory(product.getCategory());
+        dto.setActive(product.getActive());
+        dto.setChangeVersion(product.getChangeVersion());
+        return dto;
+    }
+}
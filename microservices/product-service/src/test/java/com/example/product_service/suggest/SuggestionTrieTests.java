@@ -0,0 +1,72 @@
+package com.example.product_service.suggest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SuggestionTrieTests {
+
+    @Test
+    void returnsHighestWeightedValuesUnderPrefix() {
+        SuggestionTrie<String> trie = new SuggestionTrie<>();
+        trie.insert("iphone 15", "iphone 15", 3.0);
+        trie.insert("iphone 14", "iphone 14", 5.0);
+        trie.insert("ipad air", "ipad air", 4.0);
+        trie.insert("imac", "imac", 1.0);
+        trie.insert("galaxy s24", "galaxy s24", 9.0);
+
+        assertThat(trie.topK("ip", 10)).containsExactly("iphone 14", "ipad air", "iphone 15");
+        assertThat(trie.topK("i", 2)).containsExactly("iphone 14", "ipad air");
+        assertThat(trie.topK("iphone 1", 10)).containsExactly("iphone 14", "iphone 15");
+        assertThat(trie.topK("ipx", 10)).isEmpty();
+    }
+
+    @Test
+    void returnsValueStoredUnderSeveralKeysOnce() {
+        SuggestionTrie<String> trie = new SuggestionTrie<>();
+        trie.insert("pro phone", "Pro Phone", 2.0);
+        trie.insert("phone", "Pro Phone", 2.0);
+        trie.insert("phone case", "Phone Case", 1.0);
+
+        assertThat(trie.topK("p", 10)).containsExactly("Pro Phone", "Phone Case");
+    }
+
+    @Test
+    void removeRestoresSubtreeMaximaAndCompactsNodes() {
+        SuggestionTrie<String> trie = new SuggestionTrie<>();
+        trie.insert("laptop", "laptop", 1.0);
+        trie.insert("laptop bag", "laptop bag", 8.0);
+        trie.insert("lamp", "lamp", 2.0);
+
+        assertThat(trie.remove("laptop bag", "laptop bag")).isTrue();
+        assertThat(trie.remove("laptop bag", "laptop bag")).isFalse();
+        assertThat(trie.remove("lap", "laptop")).isFalse();
+
+        assertThat(trie.size()).isEqualTo(2);
+        assertThat(trie.topK("la", 10)).containsExactly("lamp", "laptop");
+
+        trie.insert("laptop bag", "laptop bag", 0.5);
+        assertThat(trie.topK("lap", 10)).containsExactly("laptop", "laptop bag");
+    }
+
+    @Test
+    void keysIncludeNormalizedNameAndLaterWordStarts() {
+        assertThat(ProductSuggestionIndex.normalize("  Café  Crème--Brûlée! ")).isEqualTo("cafe creme brulee");
+        assertThat(ProductSuggestionIndex.keys("Apple iPhone 15"))
+                .isEqualTo(List.of("apple iphone 15", "iphone 15", "15"));
+    }
+
+    @Test
+    void answersTopTenAmongManyNamesSharingAPrefix() {
+        SuggestionTrie<Integer> trie = new SuggestionTrie<>();
+        for (int i = 0; i < 100_000; i++) {
+            trie.insert("product " + i, i, i % 1000);
+        }
+
+        List<Integer> top = trie.topK("product 9", 10);
+
+        assertThat(top).hasSize(10).allMatch(value -> value % 1000 == 999);
+    }
+}
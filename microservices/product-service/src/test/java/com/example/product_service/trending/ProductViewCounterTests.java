@@ -0,0 +1,75 @@
+package com.example.product_service.trending;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class ProductViewCounterTests {
+
+    private final ProductViewCounter counter = new ProductViewCounter();
+
+    @Test
+    void drainReturnsTheCountsAndStartsOver() {
+        counter.record(1L);
+        counter.record(1L);
+        counter.record(2L);
+
+        assertThat(counter.drain()).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 2L, 2L, 1L));
+        assertThat(counter.drain()).isEmpty();
+
+        counter.record(2L);
+        assertThat(counter.drain()).containsExactly(Map.entry(2L, 1L));
+    }
+
+    @Test
+    void noViewIsLostWhileDrainingConcurrently() throws Exception {
+        int threads = 4;
+        int viewsPerThread = 200_000;
+        AtomicBoolean recording = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long drained = 0;
+        try {
+            List<Future<?>> views = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                views.add(executor.submit(() -> {
+                    for (int i = 0; i < viewsPerThread; i++) {
+                        // a few hot products, so records and drains hit the same keys
+                        counter.record((long) (i % 3));
+                    }
+                }));
+            }
+            Thread waiter = Thread.ofVirtual().start(() -> {
+                for (Future<?> view : views) {
+                    try {
+                        view.get(30, TimeUnit.SECONDS);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                recording.set(false);
+            });
+            while (recording.get()) {
+                drained += sum(counter.drain());
+            }
+            waiter.join();
+        } finally {
+            executor.shutdownNow();
+        }
+        drained += sum(counter.drain());
+
+        assertThat(drained).isEqualTo((long) threads * viewsPerThread);
+    }
+
+    private static long sum(Map<Long, Long> views) {
+        return views.values().stream().mapToLong(Long::longValue).sum();
+    }
+}